@@ -0,0 +1,259 @@
+package com.questionbank.QuestionBank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.entity.Question;
+import com.questionbank.QuestionBank.entity.QuestionType;
+import com.questionbank.QuestionBank.service.correction.AnswerKeyCache;
+import com.questionbank.QuestionBank.service.correction.AnswerPayloadReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Auto-scoring throughput per preset-answer question type; run through BenchmarkRunner for allocation rates
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class CorrectionServiceBenchmark {
+
+    private static final int MCQ_OPTIONS = 10;
+    private static final int BLANKS = 20;
+    private static final int REARRANGE_ITEMS = 50;
+    private static final int PUZZLE_SIDE = 4;
+    private static final int MATCHING_PAIRS = 8;
+    private static final int STATEMENTS = 5;
+    private static final int PHOTO_BLOCKS = 12;
+
+    @Param({"MCQ", "TRUE_FALSE", "FILL_IN_BLANK", "MATCHING", "REARRANGE", "SLIDER", "SELECT_ON_PHOTO", "PUZZLE"})
+    public QuestionType type;
+
+    // exact: every part right (short feedback); partial: some parts wrong, so detail feedback is built
+    @Param({"exact", "partial"})
+    public String quality;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Random random = new Random(42);
+
+    private CorrectionService correctionService;
+    private Question question;
+    private Answer answer;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if (!type.requiresPresetAnswers()) {
+            throw new IllegalArgumentException(type + " is not auto-scored");
+        }
+        // Preset-answer types never reach the code compiler, the AI service or derived grading
+        correctionService = new CorrectionService(null, null,
+            new AnswerKeyCache(objectMapper), new AnswerPayloadReader(objectMapper), null);
+
+        question = new Question();
+        question.setId(UUID.randomUUID());
+        question.setType(type);
+        question.setPoints(10.0);
+        question.setUpdatedAt(LocalDateTime.now());
+
+        answer = new Answer();
+        answer.setQuestionId(question.getId());
+
+        boolean partial = "partial".equals(quality);
+        switch (type) {
+            case MCQ: mcq(partial); break;
+            case TRUE_FALSE: trueFalse(partial); break;
+            case FILL_IN_BLANK: fillInBlank(partial); break;
+            case MATCHING: matching(partial); break;
+            case REARRANGE: rearrange(partial); break;
+            case SLIDER: slider(partial); break;
+            case SELECT_ON_PHOTO: selectOnPhoto(partial); break;
+            case PUZZLE: puzzle(partial); break;
+            default: throw new IllegalArgumentException("No generator for " + type);
+        }
+
+        // Fail fast on a generator that produces content the scorer ignores
+        correctionService.autoScoreAnswer(answer, question);
+        if (answer.getScore() == null) {
+            throw new IllegalStateException("Generated " + type + " answer was not scored");
+        }
+    }
+
+    // Compiled key is cached after the first call, so this is payload parsing plus scoring and feedback
+    @Benchmark
+    public Double autoScoreAnswer() {
+        correctionService.autoScoreAnswer(answer, question);
+        return answer.getScore();
+    }
+
+    // 10 options, 3 correct; partial picks 2 correct and 1 wrong
+    private void mcq(boolean partial) throws Exception {
+        ObjectNode options = objectMapper.createObjectNode();
+        for (int i = 0; i < MCQ_OPTIONS; i++) {
+            ObjectNode option = options.putObject("opt" + i);
+            option.put("text", "Option text number " + i + " " + words(4));
+            option.put("correct", i % 3 == 0 && i < 9);
+        }
+        ObjectNode config = objectMapper.createObjectNode();
+        config.set("options", options);
+        question.setConfigurationData(objectMapper.writeValueAsString(config));
+        answer.setContent(partial ? "[\"opt0\",\"opt3\",\"opt4\"]" : "[\"opt0\",\"opt3\",\"opt6\"]");
+    }
+
+    private void trueFalse(boolean partial) throws Exception {
+        List<String> statements = new ArrayList<>();
+        for (int i = 0; i < STATEMENTS; i++) {
+            statements.add(i % 2 == 0 ? "true" : "false");
+        }
+        ObjectNode config = objectMapper.createObjectNode();
+        config.put("correctAnswer", String.join(",", statements));
+        question.setConfigurationData(objectMapper.writeValueAsString(config));
+        if (partial) {
+            statements.set(1, "true");
+        }
+        answer.setContent(String.join(",", statements));
+    }
+
+    // 20 blanks with two alternatives each; every other blank allows one typo so both matchers are exercised
+    private void fillInBlank(boolean partial) throws Exception {
+        ObjectNode config = objectMapper.createObjectNode();
+        config.put("sentence", String.join(" ", Collections.nCopies(BLANKS, "___")));
+        ArrayNode blanks = config.putArray("blanks");
+        ObjectNode content = objectMapper.createObjectNode();
+        for (int i = 0; i < BLANKS; i++) {
+            String word = word(6 + i % 5);
+            ObjectNode blank = blanks.addObject();
+            blank.put("index", i);
+            blank.put("position", i);
+            blank.putArray("correctAnswers").add(word).add(word + "s");
+            if (i % 2 == 1) {
+                blank.put("tolerance", 1);
+            }
+            String given = word;
+            if (partial && i % 4 == 0) {
+                given = word(5);
+            } else if (i % 2 == 1) {
+                given = word.substring(1);
+            }
+            content.put(String.valueOf(i), given);
+        }
+        question.setConfigurationData(objectMapper.writeValueAsString(config));
+        answer.setContent(objectMapper.writeValueAsString(content));
+    }
+
+    private void matching(boolean partial) throws Exception {
+        ObjectNode config = objectMapper.createObjectNode();
+        ArrayNode pairs = config.putArray("pairs");
+        ObjectNode content = objectMapper.createObjectNode();
+        for (int i = 1; i <= MATCHING_PAIRS; i++) {
+            ObjectNode pair = pairs.addObject();
+            pair.put("pairNumber", i);
+            pair.put("column_1", "Term " + i + " " + word(6));
+            pair.put("column_2", "Definition " + i + " " + words(5));
+            ObjectNode given = content.putObject(String.valueOf(i));
+            given.put("column_1", pair.get("column_1").asText());
+            given.put("column_2", partial && i % 3 == 0 ? "Definition " + (i + 1) : pair.get("column_2").asText());
+        }
+        question.setConfigurationData(objectMapper.writeValueAsString(config));
+        answer.setContent(objectMapper.writeValueAsString(content));
+    }
+
+    // 50 items; partial moves the first item to the end, which shifts every position
+    private void rearrange(boolean partial) throws Exception {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < REARRANGE_ITEMS; i++) {
+            items.add("Step " + i + " " + words(3));
+        }
+        ObjectNode config = objectMapper.createObjectNode();
+        ArrayNode correctOrder = config.putArray("correctOrder");
+        items.forEach(correctOrder::add);
+        question.setConfigurationData(objectMapper.writeValueAsString(config));
+
+        List<String> given = new ArrayList<>(items);
+        if (partial) {
+            given.add(given.remove(0));
+        }
+        ArrayNode content = objectMapper.createArrayNode();
+        for (int i = 0; i < given.size(); i++) {
+            ObjectNode entry = content.addObject();
+            entry.put("item", given.get(i));
+            entry.put("position", i + 1);
+        }
+        answer.setContent(objectMapper.writeValueAsString(content));
+    }
+
+    private void slider(boolean partial) throws Exception {
+        ObjectNode config = objectMapper.createObjectNode();
+        config.put("minValue", 0);
+        config.put("maxValue", 100);
+        config.put("correctValue", 42);
+        config.put("step", 1);
+        config.put("unit", "kg");
+        question.setConfigurationData(objectMapper.writeValueAsString(config));
+        answer.setContent(partial ? "45" : "42");
+    }
+
+    // 12 of the blocks on a 6x6 grid; partial misses two and adds one
+    private void selectOnPhoto(boolean partial) throws Exception {
+        List<String> blocks = new ArrayList<>();
+        for (int i = 0; i < PHOTO_BLOCKS; i++) {
+            blocks.add("block-" + (i * 3));
+        }
+        ObjectNode config = objectMapper.createObjectNode();
+        ArrayNode selected = config.putArray("selectedBlocks");
+        blocks.forEach(selected::add);
+        question.setConfigurationData(objectMapper.writeValueAsString(config));
+
+        List<String> given = new ArrayList<>(blocks);
+        if (partial) {
+            given.remove(0);
+            given.remove(0);
+            given.add("block-1");
+        }
+        answer.setContent(objectMapper.writeValueAsString(given));
+    }
+
+    // 4x4 grid of pieces in row-major order; partial swaps two pieces
+    private void puzzle(boolean partial) throws Exception {
+        List<String> pieces = new ArrayList<>();
+        for (int row = 0; row < PUZZLE_SIDE; row++) {
+            for (int column = 0; column < PUZZLE_SIDE; column++) {
+                pieces.add("piece-" + row + "-" + column);
+            }
+        }
+        ObjectNode config = objectMapper.createObjectNode();
+        ArrayNode correctAnswer = config.putArray("correctAnswer");
+        pieces.forEach(correctAnswer::add);
+        question.setConfigurationData(objectMapper.writeValueAsString(config));
+
+        List<String> given = new ArrayList<>(pieces);
+        if (partial) {
+            Collections.swap(given, 5, 10);
+        }
+        answer.setContent(String.join(",", given));
+    }
+
+    private String words(int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(word(3 + random.nextInt(6)));
+        }
+        return String.join(" ", words);
+    }
+
+    private String word(int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.questionbank.QuestionBank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.service.plagiarism.ImageEmbedder;
+import com.questionbank.QuestionBank.util.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Brute-force image plagiarism scan over N stored candidates, with and without embedding deserialization
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class PlagiarismDetectionBenchmark {
+
+    private static final int DIMENSIONS = 2048;
+    private static final double THRESHOLD = 0.95;
+
+    @Param({"100", "1000", "10000"})
+    public int candidates;
+
+    private ExecutorService modelInitExecutor;
+    private ImageEmbedder imageEmbedder;
+    private PlagiarismService plagiarismService;
+    private List<Answer> answers;
+    private double[][] vectors;
+    private double[] current;
+    private UUID currentAnswerId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Serialization and similarity do not need a loaded model, so the embedder is never initialised
+        modelInitExecutor = Executors.newSingleThreadExecutor();
+        imageEmbedder = new ImageEmbedder(new ObjectMapper(), null, modelInitExecutor);
+        plagiarismService = new PlagiarismService(null, null, imageEmbedder, null, null, null, null, null);
+
+        Random random = new Random(3);
+        current = gaussian(random);
+        currentAnswerId = UUID.randomUUID();
+
+        answers = new ArrayList<>(candidates);
+        vectors = new double[candidates][];
+        LocalDateTime createdAt = LocalDateTime.now();
+        for (int i = 0; i < candidates; i++) {
+            vectors[i] = gaussian(random);
+            Answer answer = new Answer();
+            answer.setId(UUID.randomUUID());
+            answer.setSubmittedBy("student-" + i);
+            answer.setCreatedAt(createdAt);
+            answer.setImageEmbeddings(imageEmbedder.serializeEmbeddings(vectors[i], "benchmark", "fp32"));
+            answers.add(answer);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        modelInitExecutor.shutdownNow();
+    }
+
+    // The production image path: every stored embedding is parsed from JSON before it is compared
+    @Benchmark
+    public PlagiarismService.PlagiarismResult bruteForceFromJson() {
+        return plagiarismService.performBruteForceDetection(answers, currentAnswerId, THRESHOLD, "image",
+            answer -> {
+                double[] existing = imageEmbedder.deserializeEmbeddings(answer.getImageEmbeddings());
+                return existing.length == 0 ? null : imageEmbedder.calculateCosineSimilarity(current, existing);
+            });
+    }
+
+    // Same scan over already decoded vectors, isolating the comparison cost from deserialization
+    @Benchmark
+    public PlagiarismService.PlagiarismResult bruteForceFromVectors() {
+        int[] next = {0};
+        return plagiarismService.performBruteForceDetection(answers, currentAnswerId, THRESHOLD, "image",
+            answer -> Utils.Math.cosineSimilarity(current, vectors[next[0]++]));
+    }
+
+    private static double[] gaussian(Random random) {
+        double[] vector = new double[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,146 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionbank.QuestionBank.config.ExecutorConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Embedding-side costs per submission: stored vector decoding, text tokenization and text model inference
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class EmbedderBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StoredEmbedding {
+        @Param({"384", "2048"})
+        public int dimensions;
+
+        AnnotationConfigApplicationContext context;
+        ImageEmbedder embedder;
+        String json;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            context = context(false);
+            embedder = context.getBean(ImageEmbedder.class);
+            Random random = new Random(5);
+            double[] vector = new double[dimensions];
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] = random.nextGaussian();
+            }
+            json = embedder.serializeEmbeddings(vector, "benchmark", OnnxSessionFactory.VARIANT_FP32);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    // Tokenization only needs the configured max length, so the model stays disabled
+    @State(Scope.Benchmark)
+    public static class Tokenizer {
+        @Param({"16", "128", "480"})
+        public int words;
+
+        AnnotationConfigApplicationContext context;
+        TextEmbedder embedder;
+        String text;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            context = context(false);
+            embedder = context.getBean(TextEmbedder.class);
+            text = text(words);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    // Needs the text model on disk; setup fails with the loader's reason when it is missing
+    @State(Scope.Benchmark)
+    public static class Inference {
+        @Param({"16", "128", "480"})
+        public int words;
+
+        AnnotationConfigApplicationContext context;
+        TextEmbedder embedder;
+        String text;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            context = context(true);
+            embedder = context.getBean(TextEmbedder.class);
+            awaitReady(embedder.getModelLoader());
+            text = text(words);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public double[] deserializeEmbeddings(StoredEmbedding state) {
+        return state.embedder.deserializeEmbeddings(state.json);
+    }
+
+    @Benchmark
+    public long[] tokenize(Tokenizer state) {
+        return state.embedder.tokenize(state.text);
+    }
+
+    @Benchmark
+    public double[] extractTextEmbedding(Inference state) {
+        return state.embedder.extractTextEmbedding(state.text);
+    }
+
+    private static AnnotationConfigApplicationContext context(boolean onnxEnabled) throws Exception {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+            "plagiarism.text.onnx.enabled", String.valueOf(onnxEnabled),
+            "plagiarism.image.onnx.enabled", "false",
+            "onnx.init.lazy", "false")));
+        context.getEnvironment().getPropertySources().addLast(
+            new ResourcePropertySource("classpath:application.properties"));
+        context.register(ExecutorConfig.class, OnnxSessionFactory.class, TextEmbedder.class,
+                         ImageEmbedder.class, ObjectMapper.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void awaitReady(ModelLoader loader) throws InterruptedException {
+        while (loader.getState() == ModelState.LOADING || loader.getState() == ModelState.PENDING) {
+            Thread.sleep(100);
+        }
+        if (loader.getState() != ModelState.READY) {
+            throw new IllegalStateException(loader.getName() + " is not available: " + loader.getFailureReason());
+        }
+    }
+
+    private static String text(int words) {
+        Random random = new Random(words);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) text.append(' ');
+            int length = 2 + random.nextInt(9);
+            for (int j = 0; j < length; j++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,182 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionbank.QuestionBank.config.ExecutorConfig;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.core.env.MapPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.List;
+
+// Compares the fp32 and int8 embedding variants on a fixture corpus: per-input drift, pairwise score drift and latency
+public class EmbeddingVariantEvaluation {
+
+    private static final int LATENCY_ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        List<String> texts = loadTextCorpus();
+        List<byte[]> images = syntheticImages(16);
+
+        List<double[]> fp32Text;
+        List<double[]> int8Text;
+        List<double[]> fp32Images;
+        List<double[]> int8Images;
+        long[] fp32Nanos = new long[2];
+        long[] int8Nanos = new long[2];
+
+        try (AnnotationConfigApplicationContext context = context(OnnxSessionFactory.VARIANT_FP32)) {
+            fp32Text = embedTexts(context.getBean(TextEmbedder.class), texts, fp32Nanos);
+            fp32Images = embedImages(context.getBean(ImageEmbedder.class), images, fp32Nanos);
+        }
+        try (AnnotationConfigApplicationContext context = context(OnnxSessionFactory.VARIANT_INT8)) {
+            int8Text = embedTexts(context.getBean(TextEmbedder.class), texts, int8Nanos);
+            int8Images = embedImages(context.getBean(ImageEmbedder.class), images, int8Nanos);
+        }
+
+        report("text", fp32Text, int8Text, fp32Nanos[0], int8Nanos[0], texts.size());
+        report("image", fp32Images, int8Images, fp32Nanos[1], int8Nanos[1], images.size());
+    }
+
+    private static AnnotationConfigApplicationContext context(String variant) throws Exception {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("evaluation", Map.of(
+            "plagiarism.text.onnx.variant", variant,
+            "plagiarism.image.onnx.variant", variant,
+            "onnx.init.lazy", "false")));
+        context.getEnvironment().getPropertySources().addLast(
+            new ResourcePropertySource("classpath:application.properties"));
+        context.register(ExecutorConfig.class, OnnxSessionFactory.class, TextEmbedder.class,
+                         ImageEmbedder.class, ObjectMapper.class);
+        context.refresh();
+
+        awaitReady(context.getBean(TextEmbedder.class).getModelLoader());
+        awaitReady(context.getBean(ImageEmbedder.class).getModelLoader());
+        return context;
+    }
+
+    private static void awaitReady(ModelLoader loader) throws InterruptedException {
+        while (loader.getState() == ModelState.LOADING || loader.getState() == ModelState.PENDING) {
+            Thread.sleep(100);
+        }
+        if (loader.getState() != ModelState.READY) {
+            throw new IllegalStateException(loader.getName() + " failed to load: " + loader.getFailureReason());
+        }
+    }
+
+    private static List<double[]> embedTexts(TextEmbedder embedder, List<String> texts, long[] nanos) {
+        List<double[]> vectors = new ArrayList<>();
+        for (String text : texts) {
+            vectors.add(embedder.extractTextEmbedding(text));
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < LATENCY_ROUNDS; round++) {
+            for (String text : texts) {
+                embedder.extractTextEmbedding(text);
+            }
+        }
+        nanos[0] = (System.nanoTime() - start) / LATENCY_ROUNDS;
+        return vectors;
+    }
+
+    private static List<double[]> embedImages(ImageEmbedder embedder, List<byte[]> images, long[] nanos) throws IOException {
+        List<double[]> vectors = new ArrayList<>();
+        for (byte[] image : images) {
+            vectors.add(embedder.extractImageFeatures(image));
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < LATENCY_ROUNDS; round++) {
+            for (byte[] image : images) {
+                embedder.extractImageFeatures(image);
+            }
+        }
+        nanos[1] = (System.nanoTime() - start) / LATENCY_ROUNDS;
+        return vectors;
+    }
+
+    // Pairwise drift is what matters for plagiarism thresholds; per-input drift shows raw vector agreement
+    private static void report(String modality, List<double[]> fp32, List<double[]> int8,
+                               long fp32Nanos, long int8Nanos, int count) {
+        double selfSum = 0.0;
+        double selfMin = 1.0;
+        for (int i = 0; i < fp32.size(); i++) {
+            double similarity = cosine(fp32.get(i), int8.get(i));
+            selfSum += similarity;
+            selfMin = Math.min(selfMin, similarity);
+        }
+
+        double pairSum = 0.0;
+        double pairMax = 0.0;
+        int pairs = 0;
+        for (int i = 0; i < fp32.size(); i++) {
+            for (int j = i + 1; j < fp32.size(); j++) {
+                double drift = Math.abs(cosine(fp32.get(i), fp32.get(j)) - cosine(int8.get(i), int8.get(j)));
+                pairSum += drift;
+                pairMax = Math.max(pairMax, drift);
+                pairs++;
+            }
+        }
+
+        double fp32Millis = fp32Nanos / 1e6 / count;
+        double int8Millis = int8Nanos / 1e6 / count;
+        System.out.printf(Locale.ROOT, "%n[%s] %d inputs%n", modality, count);
+        System.out.printf(Locale.ROOT, "  fp32 vs int8 cosine:  mean %.4f  min %.4f%n", selfSum / fp32.size(), selfMin);
+        System.out.printf(Locale.ROOT, "  pairwise score drift: mean %.4f  max %.4f over %d pairs%n",
+                          pairs > 0 ? pairSum / pairs : 0.0, pairMax, pairs);
+        System.out.printf(Locale.ROOT, "  latency per input:    fp32 %.2fms  int8 %.2fms  speedup %.2fx%n",
+                          fp32Millis, int8Millis, int8Millis > 0 ? fp32Millis / int8Millis : 0.0);
+    }
+
+    private static double cosine(double[] a, double[] b) {
+        double dot = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0.0 || normB == 0.0 ? 0.0 : dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    private static List<String> loadTextCorpus() throws IOException {
+        try (InputStream in = EmbeddingVariantEvaluation.class.getResourceAsStream("/evaluation/text-corpus.txt")) {
+            if (in == null) {
+                throw new IOException("Missing fixture evaluation/text-corpus.txt");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                .toList();
+        }
+    }
+
+    // Deterministic shapes and gradients so runs are comparable without shipping binary fixtures
+    private static List<byte[]> syntheticImages(int count) throws IOException {
+        Random random = new Random(42);
+        List<byte[]> images = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            g.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)),
+                                         256, 256, new Color(random.nextInt(0xFFFFFF))));
+            g.fillRect(0, 0, 256, 256);
+            for (int s = 0; s < 6; s++) {
+                g.setColor(new Color(random.nextInt(0xFFFFFF)));
+                g.fillOval(random.nextInt(200), random.nextInt(200), 20 + random.nextInt(80), 20 + random.nextInt(80));
+            }
+            g.dispose();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            images.add(out.toByteArray());
+        }
+        return images;
+    }
+}
@@ -0,0 +1,103 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Text embedding throughput for pool size x concurrent callers, with cores split across pooled sessions
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class OnnxSessionPoolBenchmark {
+
+    private static final int MAX_LENGTH = 512;
+
+    @Param({"1", "2", "4"})
+    public int poolSize;
+
+    @Param({"1", "4", "8"})
+    public int concurrency;
+
+    private OrtEnvironment env;
+    private OnnxSessionPool pool;
+    private ExecutorService callers;
+    private long[] inputIds;
+    private long[] attentionMask;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String modelPath = System.getProperty("benchmark.text.model",
+            "src/main/resources/models/text-embedding-all-MiniLM-L6-v2.onnx");
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        env = OrtEnvironment.getEnvironment();
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            options.setExecutionMode(OrtSession.SessionOptions.ExecutionMode.SEQUENTIAL);
+            options.setIntraOpNumThreads(Math.max(1, cores / poolSize));
+            options.setInterOpNumThreads(1);
+            pool = new OnnxSessionPool(env, modelPath, options, poolSize, 60_000);
+        }
+        callers = Executors.newFixedThreadPool(concurrency);
+
+        inputIds = new long[MAX_LENGTH];
+        attentionMask = new long[MAX_LENGTH];
+        inputIds[0] = 101;
+        for (int i = 1; i < 64; i++) {
+            inputIds[i] = 1000 + i * 37;
+        }
+        inputIds[64] = 102;
+        for (int i = 0; i <= 64; i++) {
+            attentionMask[i] = 1;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        callers.shutdownNow();
+        pool.close();
+    }
+
+    // One operation is one inference per concurrent caller, so ops/s x concurrency gives inferences/s
+    @Benchmark
+    public int embedConcurrently() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(callers.submit(this::embedOnce));
+        }
+        int total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.get();
+        }
+        return total;
+    }
+
+    private int embedOnce() throws Exception {
+        long[] shape = {1, MAX_LENGTH};
+        try (OnnxTensor ids = OnnxTensor.createTensor(env, LongBuffer.wrap(inputIds), shape);
+             OnnxTensor mask = OnnxTensor.createTensor(env, LongBuffer.wrap(attentionMask), shape)) {
+            Map<String, OnnxTensor> inputs = new HashMap<>();
+            inputs.put("input_ids", ids);
+            inputs.put("attention_mask", mask);
+            return pool.run(session -> {
+                try (OrtSession.Result result = session.run(inputs)) {
+                    return result.size();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.questionbank.QuestionBank.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Vector and character similarity primitives behind every plagiarism comparison
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SimilarityMathBenchmark {
+
+    // 384 is the text embedding width, 2048 the image embedding width
+    @State(Scope.Benchmark)
+    public static class Vectors {
+        @Param({"384", "2048"})
+        public int dimensions;
+
+        double[] first;
+        double[] second;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(7);
+            first = new double[dimensions];
+            second = new double[dimensions];
+            for (int i = 0; i < dimensions; i++) {
+                first[i] = random.nextGaussian();
+                second[i] = random.nextGaussian();
+            }
+        }
+    }
+
+    // Quadratic in text length, so lengths cover a short answer up to a long essay paragraph
+    @State(Scope.Benchmark)
+    public static class Texts {
+        @Param({"100", "1000", "5000"})
+        public int length;
+
+        String first;
+        String second;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(11);
+            first = text(random, length);
+            second = text(random, length);
+        }
+
+        private static String text(Random random, int length) {
+            StringBuilder text = new StringBuilder(length);
+            while (text.length() < length) {
+                int word = 2 + random.nextInt(8);
+                for (int i = 0; i < word && text.length() < length; i++) {
+                    text.append((char) ('a' + random.nextInt(26)));
+                }
+                if (text.length() < length) {
+                    text.append(' ');
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    @Benchmark
+    public double cosineSimilarity(Vectors vectors) {
+        return Utils.Math.cosineSimilarity(vectors.first, vectors.second);
+    }
+
+    @Benchmark
+    public double dotProductSimilarity(Vectors vectors) {
+        return Utils.Math.dotProductSimilarity(vectors.first, vectors.second);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int longestCommonSubsequence(Texts texts) {
+        return Utils.Math.longestCommonSubsequence(texts.first, texts.second);
+    }
+}
@@ -0,0 +1,66 @@
+package com.questionbank.QuestionBank.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Bounded thread pools for background media and grading work
+@Configuration
+public class ExecutorConfig {
+
+    @Bean(name = "archiveExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService archiveExecutor(@Value("${media.archive.parallelism:4}") int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, namedThreadFactory("archive-"));
+    }
+
+    @Bean(name = "modelInitExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService modelInitExecutor(@Value("${onnx.init.parallelism:2}") int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, namedThreadFactory("model-init-"));
+    }
+
+    @Bean(name = "backfillExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService backfillExecutor(@Value("${embedding.backfill.parallelism:4}") int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, namedThreadFactory("backfill-"));
+    }
+
+    @Bean(name = "backfillCoordinator", destroyMethod = "shutdownNow")
+    public ExecutorService backfillCoordinator() {
+        return Executors.newSingleThreadExecutor(namedThreadFactory("backfill-coordinator-"));
+    }
+
+    @Bean(name = "rescoreExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService rescoreExecutor(@Value("${correction.rescore.parallelism:4}") int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, namedThreadFactory("rescore-"));
+    }
+
+    @Bean(name = "rescoreCoordinator", destroyMethod = "shutdownNow")
+    public ExecutorService rescoreCoordinator() {
+        return Executors.newSingleThreadExecutor(namedThreadFactory("rescore-coordinator-"));
+    }
+
+    // Batch coordinators only load answers and pace requests; the Mistral calls themselves are non-blocking
+    @Bean(name = "aiBatchCoordinator", destroyMethod = "shutdownNow")
+    public ExecutorService aiBatchCoordinator(@Value("${ai.correction.batch.concurrent-batches:2}") int batches) {
+        return Executors.newFixedThreadPool(batches, namedThreadFactory("ai-batch-"));
+    }
+
+    // Each grading worker polls the job table and blocks on Judge0 and Mistral while it grades
+    @Bean(name = "gradingWorkers", destroyMethod = "shutdownNow")
+    public ExecutorService gradingWorkers(@Value("${grading.queue.workers:2}") int workers) {
+        return Executors.newFixedThreadPool(Math.max(1, workers), namedThreadFactory("grading-"));
+    }
+
+    static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
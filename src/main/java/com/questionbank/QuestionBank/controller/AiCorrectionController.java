@@ -1,15 +1,25 @@
 package com.questionbank.QuestionBank.controller;
 
+import com.questionbank.QuestionBank.dto.AiCacheStatsDTO;
+import com.questionbank.QuestionBank.dto.AiClientStatsDTO;
 import com.questionbank.QuestionBank.dto.AiCorrectionDTO;
+import com.questionbank.QuestionBank.dto.BatchCorrectionProgressDTO;
 import com.questionbank.QuestionBank.service.AiCorrectionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // REST controller for AI-based answer correction
 @RestController
@@ -38,6 +48,13 @@ public class AiCorrectionController {
             });
     }
 
+    // Emits "feedback" events with text as the model writes it, then one "result" (or "error") event with the score
+    @PostMapping(value = "/correct/{answerId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamCorrectAnswer(@PathVariable UUID answerId) {
+        return aiCorrectionService.streamCorrectAnswer(answerId)
+            .map(event -> ServerSentEvent.<Object>builder(event.getPayload()).event(event.getType()).build());
+    }
+
     @PostMapping("/correct/batch")
     public CompletableFuture<ResponseEntity<AiCorrectionDTO[]>> batchCorrectAnswers(@RequestBody UUID[] answerIds) {
 
@@ -48,4 +65,46 @@ public class AiCorrectionController {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new AiCorrectionDTO[0]);
             });
     }
+
+    // Streams a "result" event per answer as it finishes, then a "complete" event with all results in input order
+    @PostMapping(value = "/correct/batch/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBatchCorrectAnswers(@RequestBody UUID[] answerIds) {
+        SseEmitter emitter = new SseEmitter(0L);
+        AtomicInteger completed = new AtomicInteger();
+
+        aiCorrectionService.batchCorrectAnswers(answerIds, (index, result) -> {
+            try {
+                emitter.send(SseEmitter.event().name("result").data(
+                    new BatchCorrectionProgressDTO(index, completed.incrementAndGet(), answerIds.length, result),
+                    MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                // Client went away; the batch keeps running so every answer is still corrected
+                log.debug("Batch progress stream closed: {}", e.getMessage());
+            }
+        }).whenComplete((results, throwable) -> {
+            if (throwable != null) {
+                log.error("Error during streamed batch AI correction: {}", throwable.getMessage(), throwable);
+                emitter.completeWithError(throwable);
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("complete").data(results, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+
+        return emitter;
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<AiCacheStatsDTO> getResultCacheStats() {
+        return ResponseEntity.ok(aiCorrectionService.getResultCacheStats());
+    }
+
+    @GetMapping("/client/stats")
+    public ResponseEntity<AiClientStatsDTO> getClientStats() {
+        return ResponseEntity.ok(aiCorrectionService.getClientStats());
+    }
 }
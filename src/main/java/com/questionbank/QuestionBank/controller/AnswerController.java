@@ -1,7 +1,10 @@
 package com.questionbank.QuestionBank.controller;
 
 import com.questionbank.QuestionBank.dto.AnswerDTO;
+import com.questionbank.QuestionBank.dto.GradingStatusDTO;
+import com.questionbank.QuestionBank.dto.SimilarAnswerDTO;
 import com.questionbank.QuestionBank.service.AnswerService;
+import com.questionbank.QuestionBank.service.GradingQueueService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -22,10 +25,12 @@ import java.util.UUID;
 public class AnswerController {
 
     private final AnswerService answerService;
+    private final GradingQueueService gradingQueueService;
 
     @Autowired
-    public AnswerController(AnswerService answerService) {
+    public AnswerController(AnswerService answerService, GradingQueueService gradingQueueService) {
         this.answerService = answerService;
+        this.gradingQueueService = gradingQueueService;
     }
 
     @PostMapping("/submit-answer")
@@ -47,6 +52,25 @@ public class AnswerController {
         return ResponseEntity.ok(response);
     }
 
+    // Poll until gradingStatus leaves PENDING; essay and coding answers are graded in the background
+    @GetMapping("/{id}/grading")
+    public ResponseEntity<GradingStatusDTO> getGradingStatus(@PathVariable UUID id) {
+        return ResponseEntity.ok(gradingQueueService.getStatus(id));
+    }
+
+    @PostMapping("/{id}/grading/retry")
+    public ResponseEntity<GradingStatusDTO> retryGrading(@PathVariable UUID id) {
+        return ResponseEntity.accepted().body(gradingQueueService.retry(id));
+    }
+
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarAnswerDTO>> getSimilarAnswers(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "5") int k) {
+        List<SimilarAnswerDTO> response = answerService.findSimilarAnswers(id, k);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
     public ResponseEntity<Page<AnswerDTO>> getAllAnswers(
             @RequestParam(defaultValue = "0") int page,
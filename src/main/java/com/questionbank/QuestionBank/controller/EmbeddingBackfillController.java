@@ -0,0 +1,42 @@
+package com.questionbank.QuestionBank.controller;
+
+import com.questionbank.QuestionBank.dto.EmbeddingBackfillStatusDTO;
+import com.questionbank.QuestionBank.service.EmbeddingBackfillService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// REST controller for starting, pausing and monitoring the image embedding backfill
+@RestController
+@RequestMapping("/api/v1/embeddings/backfill")
+public class EmbeddingBackfillController {
+
+    private final EmbeddingBackfillService backfillService;
+
+    @Autowired
+    public EmbeddingBackfillController(EmbeddingBackfillService backfillService) {
+        this.backfillService = backfillService;
+    }
+
+    @PostMapping
+    public ResponseEntity<EmbeddingBackfillStatusDTO> startBackfill() {
+        EmbeddingBackfillStatusDTO response = backfillService.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<EmbeddingBackfillStatusDTO> stopBackfill() {
+        EmbeddingBackfillStatusDTO response = backfillService.stop();
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping
+    public ResponseEntity<EmbeddingBackfillStatusDTO> getBackfillStatus() {
+        EmbeddingBackfillStatusDTO response = backfillService.getStatus();
+        return ResponseEntity.ok(response);
+    }
+}
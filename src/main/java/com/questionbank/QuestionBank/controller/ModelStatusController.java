@@ -0,0 +1,49 @@
+package com.questionbank.QuestionBank.controller;
+
+import com.questionbank.QuestionBank.dto.ModelStatusDTO;
+import com.questionbank.QuestionBank.service.ai.LocalGrader;
+import com.questionbank.QuestionBank.service.plagiarism.ImageEmbedder;
+import com.questionbank.QuestionBank.service.plagiarism.ModelLoader;
+import com.questionbank.QuestionBank.service.plagiarism.ModelState;
+import com.questionbank.QuestionBank.service.plagiarism.TextEmbedder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// REST controller reporting background model initialization, usable as a readiness probe
+@RestController
+@RequestMapping("/api/v1/models")
+public class ModelStatusController {
+
+    private final TextEmbedder textEmbedder;
+    private final ImageEmbedder imageEmbedder;
+    private final LocalGrader localGrader;
+
+    @Autowired
+    public ModelStatusController(TextEmbedder textEmbedder, ImageEmbedder imageEmbedder, LocalGrader localGrader) {
+        this.textEmbedder = textEmbedder;
+        this.imageEmbedder = imageEmbedder;
+        this.localGrader = localGrader;
+    }
+
+    // 503 while any enabled model is still loading or has failed
+    @GetMapping("/status")
+    public ResponseEntity<List<ModelStatusDTO>> getModelStatus() {
+        List<ModelLoader> loaders = List.of(textEmbedder.getModelLoader(), imageEmbedder.getModelLoader(),
+                localGrader.getModelLoader());
+
+        List<ModelStatusDTO> statuses = loaders.stream()
+                .map(loader -> new ModelStatusDTO(loader.getName(), loader.getState().name(),
+                        loader.getFailureReason(), loader.getLoadTimeMillis()))
+                .toList();
+
+        boolean ready = loaders.stream()
+                .allMatch(loader -> loader.getState() == ModelState.READY || loader.getState() == ModelState.DISABLED);
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(statuses);
+    }
+}
@@ -1,8 +1,10 @@
 package com.questionbank.QuestionBank.controller;
 
 import com.questionbank.QuestionBank.dto.QuestionDTO;
+import com.questionbank.QuestionBank.dto.RescoreStatusDTO;
 import com.questionbank.QuestionBank.entity.QuestionType;
 import com.questionbank.QuestionBank.service.QuestionService;
+import com.questionbank.QuestionBank.service.RescoreService;
 import com.questionbank.QuestionBank.util.Utils;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,10 +27,12 @@ import java.util.UUID;
 public class QuestionController {
 
     private final QuestionService questionService;
+    private final RescoreService rescoreService;
 
     @Autowired
-    public QuestionController(QuestionService questionService) {
+    public QuestionController(QuestionService questionService, RescoreService rescoreService) {
         this.questionService = questionService;
+        this.rescoreService = rescoreService;
     }
 
     @PostMapping
@@ -81,6 +85,21 @@ public class QuestionController {
         return ResponseEntity.noContent().build();
     }
 
+    // Re-score every stored answer against the question's current answer key
+    @PostMapping("/{id}/rescore")
+    public ResponseEntity<RescoreStatusDTO> rescoreAnswers(@PathVariable UUID id) {
+
+        RescoreStatusDTO response = rescoreService.start(id);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping("/{id}/rescore")
+    public ResponseEntity<RescoreStatusDTO> getRescoreStatus(@PathVariable UUID id) {
+
+        RescoreStatusDTO response = rescoreService.getStatus(id);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
     public ResponseEntity<Page<QuestionDTO>> getAllQuestions(
             @RequestParam(defaultValue = "0") int page,
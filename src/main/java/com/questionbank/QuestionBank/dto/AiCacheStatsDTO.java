@@ -0,0 +1,124 @@
+package com.questionbank.QuestionBank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Data transfer object for AI result cache effectiveness since startup
+@Schema(description = "Hit rate and size of the AI correction result cache")
+public class AiCacheStatsDTO {
+
+    @Schema(description = "Whether results are read from and written to the cache")
+    private Boolean enabled;
+
+    @Schema(description = "Lookups answered from the cache since startup")
+    private Long hits;
+
+    @Schema(description = "Lookups that had to call the AI model since startup")
+    private Long misses;
+
+    @Schema(description = "Corrections that skipped the cache because no stable key could be built")
+    private Long bypassed;
+
+    @Schema(description = "Hits divided by lookups", example = "0.42")
+    private Double hitRate;
+
+    @Schema(description = "Rows removed by expiry, size trimming or question changes since startup")
+    private Long evictions;
+
+    @Schema(description = "Rows currently stored")
+    private Long entries;
+
+    @Schema(description = "Configured upper bound on stored rows")
+    private Integer maxEntries;
+
+    @Schema(description = "Hours a result stays valid after it is written")
+    private Long ttlHours;
+
+    public AiCacheStatsDTO() {}
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Long getHits() {
+        return hits;
+    }
+
+    public void setHits(Long hits) {
+        this.hits = hits;
+    }
+
+    public Long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(Long misses) {
+        this.misses = misses;
+    }
+
+    public Long getBypassed() {
+        return bypassed;
+    }
+
+    public void setBypassed(Long bypassed) {
+        this.bypassed = bypassed;
+    }
+
+    public Double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(Double hitRate) {
+        this.hitRate = hitRate;
+    }
+
+    public Long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(Long evictions) {
+        this.evictions = evictions;
+    }
+
+    public Long getEntries() {
+        return entries;
+    }
+
+    public void setEntries(Long entries) {
+        this.entries = entries;
+    }
+
+    public Integer getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(Integer maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Long getTtlHours() {
+        return ttlHours;
+    }
+
+    public void setTtlHours(Long ttlHours) {
+        this.ttlHours = ttlHours;
+    }
+
+    @Override
+    public String toString() {
+        return "AiCacheStatsDTO{" +
+                "enabled=" + enabled +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", bypassed=" + bypassed +
+                ", hitRate=" + hitRate +
+                ", evictions=" + evictions +
+                ", entries=" + entries +
+                ", maxEntries=" + maxEntries +
+                ", ttlHours=" + ttlHours +
+                '}';
+    }
+}
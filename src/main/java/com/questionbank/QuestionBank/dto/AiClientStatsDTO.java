@@ -0,0 +1,172 @@
+package com.questionbank.QuestionBank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Data transfer object for Mistral client throttling and failure metrics since startup
+@Schema(description = "Adaptive concurrency limiter and circuit breaker state of the Mistral client")
+public class AiClientStatsDTO {
+
+    @Schema(description = "Current adaptive cap on concurrent Mistral requests")
+    private Integer concurrencyLimit;
+
+    @Schema(description = "Mistral requests currently in flight")
+    private Integer inFlight;
+
+    @Schema(description = "Attempts admitted by the concurrency limiter since startup")
+    private Long accepted;
+
+    @Schema(description = "Attempts refused because the concurrency limit was reached")
+    private Long limiterRejected;
+
+    @Schema(description = "Attempts that hit throttling or a timeout and shrank the limit")
+    private Long dropped;
+
+    @Schema(description = "Estimated round trip time of an unloaded Mistral request")
+    private Double noLoadRttMs;
+
+    @Schema(description = "Round trip time of the most recent successful request")
+    private Double lastRttMs;
+
+    @Schema(description = "Circuit breaker state: CLOSED, OPEN or HALF_OPEN")
+    private String circuitState;
+
+    @Schema(description = "Failure rate over the circuit breaker window")
+    private Double failureRate;
+
+    @Schema(description = "Attempts refused while the circuit was open")
+    private Long circuitRejected;
+
+    @Schema(description = "Times the circuit has opened since startup")
+    private Long circuitTrips;
+
+    @Schema(description = "Retried attempts since startup")
+    private Long retries;
+
+    @Schema(description = "Calls abandoned at the overall deadline since startup")
+    private Long deadlinesExceeded;
+
+    public AiClientStatsDTO() {}
+
+    public Integer getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public void setConcurrencyLimit(Integer concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public Integer getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(Integer inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public Long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(Long accepted) {
+        this.accepted = accepted;
+    }
+
+    public Long getLimiterRejected() {
+        return limiterRejected;
+    }
+
+    public void setLimiterRejected(Long limiterRejected) {
+        this.limiterRejected = limiterRejected;
+    }
+
+    public Long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(Long dropped) {
+        this.dropped = dropped;
+    }
+
+    public Double getNoLoadRttMs() {
+        return noLoadRttMs;
+    }
+
+    public void setNoLoadRttMs(Double noLoadRttMs) {
+        this.noLoadRttMs = noLoadRttMs;
+    }
+
+    public Double getLastRttMs() {
+        return lastRttMs;
+    }
+
+    public void setLastRttMs(Double lastRttMs) {
+        this.lastRttMs = lastRttMs;
+    }
+
+    public String getCircuitState() {
+        return circuitState;
+    }
+
+    public void setCircuitState(String circuitState) {
+        this.circuitState = circuitState;
+    }
+
+    public Double getFailureRate() {
+        return failureRate;
+    }
+
+    public void setFailureRate(Double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public Long getCircuitRejected() {
+        return circuitRejected;
+    }
+
+    public void setCircuitRejected(Long circuitRejected) {
+        this.circuitRejected = circuitRejected;
+    }
+
+    public Long getCircuitTrips() {
+        return circuitTrips;
+    }
+
+    public void setCircuitTrips(Long circuitTrips) {
+        this.circuitTrips = circuitTrips;
+    }
+
+    public Long getRetries() {
+        return retries;
+    }
+
+    public void setRetries(Long retries) {
+        this.retries = retries;
+    }
+
+    public Long getDeadlinesExceeded() {
+        return deadlinesExceeded;
+    }
+
+    public void setDeadlinesExceeded(Long deadlinesExceeded) {
+        this.deadlinesExceeded = deadlinesExceeded;
+    }
+
+    @Override
+    public String toString() {
+        return "AiClientStatsDTO{" +
+                "concurrencyLimit=" + concurrencyLimit +
+                ", inFlight=" + inFlight +
+                ", accepted=" + accepted +
+                ", limiterRejected=" + limiterRejected +
+                ", dropped=" + dropped +
+                ", noLoadRttMs=" + noLoadRttMs +
+                ", lastRttMs=" + lastRttMs +
+                ", circuitState='" + circuitState + '\'' +
+                ", failureRate=" + failureRate +
+                ", circuitRejected=" + circuitRejected +
+                ", circuitTrips=" + circuitTrips +
+                ", retries=" + retries +
+                ", deadlinesExceeded=" + deadlinesExceeded +
+                '}';
+    }
+}
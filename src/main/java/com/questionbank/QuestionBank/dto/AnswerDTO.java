@@ -2,6 +2,7 @@ package com.questionbank.QuestionBank.dto;
 
 import com.questionbank.QuestionBank.entity.Answer;
 import com.questionbank.QuestionBank.entity.AnswerType;
+import com.questionbank.QuestionBank.entity.GradingStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -84,6 +85,24 @@ public class AnswerDTO {
     @Schema(description = "Detailed plagiarism analysis results", accessMode = Schema.AccessMode.READ_ONLY)
     private String plagiarismDetails;
 
+    @JsonProperty(access = Access.READ_ONLY)
+    @Schema(description = "AI grading progress; absent when the answer was scored at submission",
+            accessMode = Schema.AccessMode.READ_ONLY, allowableValues = {"PENDING", "GRADED", "FAILED"})
+    private GradingStatus gradingStatus;
+
+    @JsonProperty(access = Access.READ_ONLY)
+    @Schema(description = "How the grade was produced", accessMode = Schema.AccessMode.READ_ONLY,
+            allowableValues = {"AI", "LOCAL", "FALLBACK", "DERIVED"})
+    private String correctionMethod;
+
+    @JsonProperty(access = Access.READ_ONLY)
+    @Schema(description = "AI-graded answer whose grade was reused; set only for DERIVED grades", accessMode = Schema.AccessMode.READ_ONLY)
+    private UUID derivedFromAnswerId;
+
+    @JsonProperty(access = Access.READ_ONLY)
+    @Schema(description = "Text similarity to the answer the grade was reused from", example = "0.97", accessMode = Schema.AccessMode.READ_ONLY)
+    private Double derivedSimilarity;
+
     public AnswerDTO() {}
 
     public AnswerDTO(UUID questionId, AnswerType type, String content) {
@@ -236,6 +255,38 @@ public class AnswerDTO {
         this.plagiarismDetails = plagiarismDetails;
     }
 
+    public GradingStatus getGradingStatus() {
+        return gradingStatus;
+    }
+
+    public void setGradingStatus(GradingStatus gradingStatus) {
+        this.gradingStatus = gradingStatus;
+    }
+
+    public String getCorrectionMethod() {
+        return correctionMethod;
+    }
+
+    public void setCorrectionMethod(String correctionMethod) {
+        this.correctionMethod = correctionMethod;
+    }
+
+    public UUID getDerivedFromAnswerId() {
+        return derivedFromAnswerId;
+    }
+
+    public void setDerivedFromAnswerId(UUID derivedFromAnswerId) {
+        this.derivedFromAnswerId = derivedFromAnswerId;
+    }
+
+    public Double getDerivedSimilarity() {
+        return derivedSimilarity;
+    }
+
+    public void setDerivedSimilarity(Double derivedSimilarity) {
+        this.derivedSimilarity = derivedSimilarity;
+    }
+
     public static AnswerDTO from(Answer answer) {
         AnswerDTO dto = new AnswerDTO();
         dto.setId(answer.getId());
@@ -255,6 +306,10 @@ public class AnswerDTO {
         dto.setPlagiarismScore(answer.getPlagiarismScore());
         dto.setPlagiarized(answer.isPlagiarized());
         dto.setPlagiarismDetails(answer.getPlagiarismDetails());
+        dto.setGradingStatus(answer.getGradingStatus());
+        dto.setCorrectionMethod(answer.getCorrectionMethod());
+        dto.setDerivedFromAnswerId(answer.getDerivedFromAnswerId());
+        dto.setDerivedSimilarity(answer.getDerivedSimilarity());
         return dto;
     }
 
@@ -271,6 +326,8 @@ public class AnswerDTO {
                 ", maxScore=" + maxScore +
                 ", feedback='" + feedback + '\'' +
                 ", submittedBy='" + submittedBy + '\'' +
+                ", gradingStatus=" + gradingStatus +
+                ", correctionMethod='" + correctionMethod + '\'' +
                 ", isActive=" + isActive +
                 ", mediaFiles=" + (mediaFiles != null ? mediaFiles.size() : 0) + " files" +
                 ", createdAt=" + createdAt +
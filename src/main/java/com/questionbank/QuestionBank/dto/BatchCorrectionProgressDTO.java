@@ -0,0 +1,71 @@
+package com.questionbank.QuestionBank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Data transfer object for one finished answer of a streamed batch AI correction
+@Schema(description = "Progress event of a streamed batch AI correction")
+public class BatchCorrectionProgressDTO {
+
+    @Schema(description = "Position of the answer in the submitted batch")
+    private Integer index;
+
+    @Schema(description = "Answers finished so far, including this one")
+    private Integer completed;
+
+    @Schema(description = "Answers in the batch")
+    private Integer total;
+
+    @Schema(description = "Correction result for the answer at this position")
+    private AiCorrectionDTO result;
+
+    public BatchCorrectionProgressDTO() {}
+
+    public BatchCorrectionProgressDTO(Integer index, Integer completed, Integer total, AiCorrectionDTO result) {
+        this.index = index;
+        this.completed = completed;
+        this.total = total;
+        this.result = result;
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public Integer getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Integer completed) {
+        this.completed = completed;
+    }
+
+    public Integer getTotal() {
+        return total;
+    }
+
+    public void setTotal(Integer total) {
+        this.total = total;
+    }
+
+    public AiCorrectionDTO getResult() {
+        return result;
+    }
+
+    public void setResult(AiCorrectionDTO result) {
+        this.result = result;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchCorrectionProgressDTO{" +
+                "index=" + index +
+                ", completed=" + completed +
+                ", total=" + total +
+                ", result=" + result +
+                '}';
+    }
+}
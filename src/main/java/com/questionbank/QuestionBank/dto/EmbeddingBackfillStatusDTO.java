@@ -0,0 +1,124 @@
+package com.questionbank.QuestionBank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Data transfer object for re-embedding backfill progress
+@Schema(description = "Progress of the image embedding backfill")
+public class EmbeddingBackfillStatusDTO {
+
+    @Schema(description = "Job state", example = "RUNNING", allowableValues = {"IDLE", "RUNNING", "PAUSED", "STAGED", "COMPLETED", "FAILED"})
+    private String state;
+
+    @Schema(description = "Target model version the vectors are being re-embedded with")
+    private String modelVersion;
+
+    @Schema(description = "Answers re-embedded in this run")
+    private Long processed;
+
+    @Schema(description = "Answers already on the target version")
+    private Long skipped;
+
+    @Schema(description = "Answers whose media could not be re-embedded")
+    private Long failed;
+
+    @Schema(description = "Questions whose staged vectors were promoted to live")
+    private Long promotedQuestions;
+
+    @Schema(description = "Re-embedding throughput since the run started")
+    private Double answersPerSecond;
+
+    @Schema(description = "Checkpoint cursor: last answer written")
+    private String lastAnswerId;
+
+    @Schema(description = "Failure reason when the state is FAILED")
+    private String error;
+
+    public EmbeddingBackfillStatusDTO() {}
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public void setModelVersion(String modelVersion) {
+        this.modelVersion = modelVersion;
+    }
+
+    public Long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(Long processed) {
+        this.processed = processed;
+    }
+
+    public Long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(Long skipped) {
+        this.skipped = skipped;
+    }
+
+    public Long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Long failed) {
+        this.failed = failed;
+    }
+
+    public Long getPromotedQuestions() {
+        return promotedQuestions;
+    }
+
+    public void setPromotedQuestions(Long promotedQuestions) {
+        this.promotedQuestions = promotedQuestions;
+    }
+
+    public Double getAnswersPerSecond() {
+        return answersPerSecond;
+    }
+
+    public void setAnswersPerSecond(Double answersPerSecond) {
+        this.answersPerSecond = answersPerSecond;
+    }
+
+    public String getLastAnswerId() {
+        return lastAnswerId;
+    }
+
+    public void setLastAnswerId(String lastAnswerId) {
+        this.lastAnswerId = lastAnswerId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "EmbeddingBackfillStatusDTO{" +
+                "state='" + state + '\'' +
+                ", modelVersion='" + modelVersion + '\'' +
+                ", processed=" + processed +
+                ", skipped=" + skipped +
+                ", failed=" + failed +
+                ", promotedQuestions=" + promotedQuestions +
+                ", answersPerSecond=" + answersPerSecond +
+                ", lastAnswerId='" + lastAnswerId + '\'' +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
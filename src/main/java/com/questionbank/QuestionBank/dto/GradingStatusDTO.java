@@ -0,0 +1,128 @@
+package com.questionbank.QuestionBank.dto;
+
+import com.questionbank.QuestionBank.entity.GradingStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Data transfer object for the background grading progress of one answer
+@Schema(description = "Progress of the queued AI grading for an answer")
+public class GradingStatusDTO {
+
+    @Schema(description = "Answer being graded")
+    private UUID answerId;
+
+    @Schema(description = "Grading status stored on the answer", example = "PENDING")
+    private GradingStatus gradingStatus;
+
+    @Schema(description = "Queue state of the latest grading job", example = "QUEUED")
+    private String jobStatus;
+
+    @Schema(description = "Attempts made so far, including one currently running")
+    private Integer attempts;
+
+    @Schema(description = "Attempts allowed before the job is dead-lettered")
+    private Integer maxAttempts;
+
+    @Schema(description = "Earliest time a worker may pick the job up again")
+    private LocalDateTime nextAttemptAt;
+
+    @Schema(description = "Error from the most recent failed attempt")
+    private String lastError;
+
+    @Schema(description = "Score once grading has finished")
+    private Double score;
+
+    @Schema(description = "Maximum achievable score")
+    private Double maxScore;
+
+    public GradingStatusDTO() {}
+
+    public UUID getAnswerId() {
+        return answerId;
+    }
+
+    public void setAnswerId(UUID answerId) {
+        this.answerId = answerId;
+    }
+
+    public GradingStatus getGradingStatus() {
+        return gradingStatus;
+    }
+
+    public void setGradingStatus(GradingStatus gradingStatus) {
+        this.gradingStatus = gradingStatus;
+    }
+
+    public String getJobStatus() {
+        return jobStatus;
+    }
+
+    public void setJobStatus(String jobStatus) {
+        this.jobStatus = jobStatus;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public Integer getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(Integer maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public Double getMaxScore() {
+        return maxScore;
+    }
+
+    public void setMaxScore(Double maxScore) {
+        this.maxScore = maxScore;
+    }
+
+    @Override
+    public String toString() {
+        return "GradingStatusDTO{" +
+                "answerId=" + answerId +
+                ", gradingStatus=" + gradingStatus +
+                ", jobStatus='" + jobStatus + '\'' +
+                ", attempts=" + attempts +
+                ", maxAttempts=" + maxAttempts +
+                ", nextAttemptAt=" + nextAttemptAt +
+                ", lastError='" + lastError + '\'' +
+                ", score=" + score +
+                ", maxScore=" + maxScore +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package com.questionbank.QuestionBank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Data transfer object for the load state of a background-initialized model
+@Schema(description = "Load state of an inference model")
+public class ModelStatusDTO {
+
+    @Schema(description = "Model name", example = "text-embedding")
+    private String name;
+
+    @Schema(description = "Lifecycle state", example = "READY", allowableValues = {"DISABLED", "PENDING", "LOADING", "READY", "FAILED"})
+    private String state;
+
+    @Schema(description = "Failure reason when the state is FAILED")
+    private String error;
+
+    @Schema(description = "Time spent loading and warming up the model in milliseconds")
+    private Long loadTimeMillis;
+
+    public ModelStatusDTO() {}
+
+    public ModelStatusDTO(String name, String state, String error, Long loadTimeMillis) {
+        this.name = name;
+        this.state = state;
+        this.error = error;
+        this.loadTimeMillis = loadTimeMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Long getLoadTimeMillis() {
+        return loadTimeMillis;
+    }
+
+    public void setLoadTimeMillis(Long loadTimeMillis) {
+        this.loadTimeMillis = loadTimeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ModelStatusDTO{" +
+                "name='" + name + '\'' +
+                ", state='" + state + '\'' +
+                ", error='" + error + '\'' +
+                ", loadTimeMillis=" + loadTimeMillis +
+                '}';
+    }
+}
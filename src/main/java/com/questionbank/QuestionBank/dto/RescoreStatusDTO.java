@@ -0,0 +1,199 @@
+package com.questionbank.QuestionBank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Data transfer object for bulk re-scoring progress and the resulting score shift
+@Schema(description = "Progress and score-distribution diff of a question re-scoring job")
+public class RescoreStatusDTO {
+
+    @Schema(description = "Question being rescored")
+    private String questionId;
+
+    @Schema(description = "Job state", example = "RUNNING", allowableValues = {"QUEUED", "RUNNING", "COMPLETED", "FAILED"})
+    private String state;
+
+    @Schema(description = "Active answers to rescore")
+    private Long total;
+
+    @Schema(description = "Answers rescored so far")
+    private Long processed;
+
+    @Schema(description = "Answers whose score, correctness or feedback changed")
+    private Long changed;
+
+    @Schema(description = "Rescoring throughput since the job started")
+    private Double answersPerSecond;
+
+    @Schema(description = "Processed answers marked correct before rescoring")
+    private Long correctBefore;
+
+    @Schema(description = "Processed answers marked correct after rescoring")
+    private Long correctAfter;
+
+    @Schema(description = "Average score of processed answers before rescoring")
+    private Double averageScoreBefore;
+
+    @Schema(description = "Average score of processed answers after rescoring")
+    private Double averageScoreAfter;
+
+    @Schema(description = "Processed answers per score band (percent of max score) before rescoring")
+    private Map<String, Long> distributionBefore;
+
+    @Schema(description = "Processed answers per score band (percent of max score) after rescoring")
+    private Map<String, Long> distributionAfter;
+
+    @Schema(description = "When the job started running")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "When the job finished")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Failure reason when the state is FAILED")
+    private String error;
+
+    public RescoreStatusDTO() {}
+
+    public String getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(String questionId) {
+        this.questionId = questionId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public Long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(Long processed) {
+        this.processed = processed;
+    }
+
+    public Long getChanged() {
+        return changed;
+    }
+
+    public void setChanged(Long changed) {
+        this.changed = changed;
+    }
+
+    public Double getAnswersPerSecond() {
+        return answersPerSecond;
+    }
+
+    public void setAnswersPerSecond(Double answersPerSecond) {
+        this.answersPerSecond = answersPerSecond;
+    }
+
+    public Long getCorrectBefore() {
+        return correctBefore;
+    }
+
+    public void setCorrectBefore(Long correctBefore) {
+        this.correctBefore = correctBefore;
+    }
+
+    public Long getCorrectAfter() {
+        return correctAfter;
+    }
+
+    public void setCorrectAfter(Long correctAfter) {
+        this.correctAfter = correctAfter;
+    }
+
+    public Double getAverageScoreBefore() {
+        return averageScoreBefore;
+    }
+
+    public void setAverageScoreBefore(Double averageScoreBefore) {
+        this.averageScoreBefore = averageScoreBefore;
+    }
+
+    public Double getAverageScoreAfter() {
+        return averageScoreAfter;
+    }
+
+    public void setAverageScoreAfter(Double averageScoreAfter) {
+        this.averageScoreAfter = averageScoreAfter;
+    }
+
+    public Map<String, Long> getDistributionBefore() {
+        return distributionBefore;
+    }
+
+    public void setDistributionBefore(Map<String, Long> distributionBefore) {
+        this.distributionBefore = distributionBefore;
+    }
+
+    public Map<String, Long> getDistributionAfter() {
+        return distributionAfter;
+    }
+
+    public void setDistributionAfter(Map<String, Long> distributionAfter) {
+        this.distributionAfter = distributionAfter;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "RescoreStatusDTO{" +
+                "questionId='" + questionId + '\'' +
+                ", state='" + state + '\'' +
+                ", total=" + total +
+                ", processed=" + processed +
+                ", changed=" + changed +
+                ", answersPerSecond=" + answersPerSecond +
+                ", correctBefore=" + correctBefore +
+                ", correctAfter=" + correctAfter +
+                ", averageScoreBefore=" + averageScoreBefore +
+                ", averageScoreAfter=" + averageScoreAfter +
+                ", distributionBefore=" + distributionBefore +
+                ", distributionAfter=" + distributionAfter +
+                ", startedAt=" + startedAt +
+                ", finishedAt=" + finishedAt +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
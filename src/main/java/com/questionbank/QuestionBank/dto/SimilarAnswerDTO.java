@@ -0,0 +1,73 @@
+package com.questionbank.QuestionBank.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+// Data transfer object for a single similar-answer hit
+@Schema(description = "Answer similar to a given answer, ranked by similarity")
+public class SimilarAnswerDTO {
+
+    @Schema(description = "ID of the similar answer")
+    private UUID answerId;
+
+    @Schema(description = "Similarity score (0-1)")
+    private Double score;
+
+    @Schema(description = "Detection modality that produced the score", example = "text")
+    private String modality;
+
+    @Schema(description = "Time spent on the lookup for this modality in microseconds")
+    private Long searchTimeMicros;
+
+    public SimilarAnswerDTO() {}
+
+    public SimilarAnswerDTO(UUID answerId, Double score, String modality, Long searchTimeMicros) {
+        this.answerId = answerId;
+        this.score = score;
+        this.modality = modality;
+        this.searchTimeMicros = searchTimeMicros;
+    }
+
+    public UUID getAnswerId() {
+        return answerId;
+    }
+
+    public void setAnswerId(UUID answerId) {
+        this.answerId = answerId;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public String getModality() {
+        return modality;
+    }
+
+    public void setModality(String modality) {
+        this.modality = modality;
+    }
+
+    public Long getSearchTimeMicros() {
+        return searchTimeMicros;
+    }
+
+    public void setSearchTimeMicros(Long searchTimeMicros) {
+        this.searchTimeMicros = searchTimeMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "SimilarAnswerDTO{" +
+                "answerId=" + answerId +
+                ", score=" + score +
+                ", modality='" + modality + '\'' +
+                ", searchTimeMicros=" + searchTimeMicros +
+                '}';
+    }
+}
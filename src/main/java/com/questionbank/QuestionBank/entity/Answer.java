@@ -65,6 +65,17 @@ public class Answer {
     @Column(name = "image_embeddings", columnDefinition = "TEXT")
     private String imageEmbeddings;
 
+    // Re-embedded vectors staged by the backfill until the whole question is migrated
+    @Column(name = "image_embeddings_next", columnDefinition = "TEXT")
+    private String imageEmbeddingsNext;
+
+    @Column(name = "audio_fingerprint", columnDefinition = "TEXT")
+    private String audioFingerprint;
+
+    // Text vector of the indexed content, tagged with the text model version like imageEmbeddings
+    @Column(name = "text_embedding", columnDefinition = "TEXT")
+    private String textEmbedding;
+
     @Column(name = "plagiarism_score")
     private Double plagiarismScore;
 
@@ -74,6 +85,22 @@ public class Answer {
     @Column(name = "plagiarism_details", columnDefinition = "TEXT")
     private String plagiarismDetails;
 
+    // Set only for answers graded by the background AI grading queue
+    @Enumerated(EnumType.STRING)
+    @Column(name = "grading_status", length = 20)
+    private GradingStatus gradingStatus;
+
+    // How the grade was produced (AI, LOCAL, FALLBACK or DERIVED); DERIVED grades were copied from the
+    // answer in derivedFromAnswerId, whose text embedding matched with derivedSimilarity
+    @Column(name = "correction_method", length = 20)
+    private String correctionMethod;
+
+    @Column(name = "derived_from_answer_id")
+    private UUID derivedFromAnswerId;
+
+    @Column(name = "derived_similarity")
+    private Double derivedSimilarity;
+
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
@@ -228,6 +255,30 @@ public class Answer {
         this.imageEmbeddings = imageEmbeddings;
     }
 
+    public String getImageEmbeddingsNext() {
+        return imageEmbeddingsNext;
+    }
+
+    public void setImageEmbeddingsNext(String imageEmbeddingsNext) {
+        this.imageEmbeddingsNext = imageEmbeddingsNext;
+    }
+
+    public String getAudioFingerprint() {
+        return audioFingerprint;
+    }
+
+    public void setAudioFingerprint(String audioFingerprint) {
+        this.audioFingerprint = audioFingerprint;
+    }
+
+    public String getTextEmbedding() {
+        return textEmbedding;
+    }
+
+    public void setTextEmbedding(String textEmbedding) {
+        this.textEmbedding = textEmbedding;
+    }
+
     public Double getPlagiarismScore() {
         return plagiarismScore;
     }
@@ -252,6 +303,38 @@ public class Answer {
         this.plagiarismDetails = plagiarismDetails;
     }
 
+    public GradingStatus getGradingStatus() {
+        return gradingStatus;
+    }
+
+    public void setGradingStatus(GradingStatus gradingStatus) {
+        this.gradingStatus = gradingStatus;
+    }
+
+    public String getCorrectionMethod() {
+        return correctionMethod;
+    }
+
+    public void setCorrectionMethod(String correctionMethod) {
+        this.correctionMethod = correctionMethod;
+    }
+
+    public UUID getDerivedFromAnswerId() {
+        return derivedFromAnswerId;
+    }
+
+    public void setDerivedFromAnswerId(UUID derivedFromAnswerId) {
+        this.derivedFromAnswerId = derivedFromAnswerId;
+    }
+
+    public Double getDerivedSimilarity() {
+        return derivedSimilarity;
+    }
+
+    public void setDerivedSimilarity(Double derivedSimilarity) {
+        this.derivedSimilarity = derivedSimilarity;
+    }
+
     @Override
     public String toString() {
         return "Answer{" +
@@ -0,0 +1,144 @@
+package com.questionbank.QuestionBank.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Entity recording how far a re-embedding backfill has progressed for one target model version
+@Entity
+@Table(name = "embedding_backfill_checkpoints")
+public class EmbeddingBackfillCheckpoint {
+
+    @Id
+    @Column(name = "model_version", nullable = false, length = 200)
+    private String modelVersion;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "last_question_id")
+    private UUID lastQuestionId;
+
+    @Column(name = "last_answer_id")
+    private UUID lastAnswerId;
+
+    @Column(name = "processed", nullable = false)
+    private long processed;
+
+    @Column(name = "skipped", nullable = false)
+    private long skipped;
+
+    @Column(name = "failed", nullable = false)
+    private long failed;
+
+    @Column(name = "promoted_questions", nullable = false)
+    private long promotedQuestions;
+
+    // JSON array of questions with an answer that failed to re-embed in this pass; they are not promoted
+    @Column(name = "failed_question_ids", columnDefinition = "TEXT")
+    private String failedQuestionIds;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public EmbeddingBackfillCheckpoint() {}
+
+    public EmbeddingBackfillCheckpoint(String modelVersion) {
+        this.modelVersion = modelVersion;
+        this.status = "RUNNING";
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = this.startedAt;
+    }
+
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public void setModelVersion(String modelVersion) {
+        this.modelVersion = modelVersion;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public UUID getLastQuestionId() {
+        return lastQuestionId;
+    }
+
+    public void setLastQuestionId(UUID lastQuestionId) {
+        this.lastQuestionId = lastQuestionId;
+    }
+
+    public UUID getLastAnswerId() {
+        return lastAnswerId;
+    }
+
+    public void setLastAnswerId(UUID lastAnswerId) {
+        this.lastAnswerId = lastAnswerId;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getPromotedQuestions() {
+        return promotedQuestions;
+    }
+
+    public void setPromotedQuestions(long promotedQuestions) {
+        this.promotedQuestions = promotedQuestions;
+    }
+
+    public String getFailedQuestionIds() {
+        return failedQuestionIds;
+    }
+
+    public void setFailedQuestionIds(String failedQuestionIds) {
+        this.failedQuestionIds = failedQuestionIds;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.questionbank.QuestionBank.entity;
+
+// Enum for where an answer is in asynchronous AI grading; null on answers scored at submission
+public enum GradingStatus {
+    PENDING,
+    GRADED,
+    FAILED
+}
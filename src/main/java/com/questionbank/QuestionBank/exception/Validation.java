@@ -1,8 +1,14 @@
 package com.questionbank.QuestionBank.exception;
 
+import com.questionbank.QuestionBank.service.correction.AnswerKey;
+
 // Validation utility class with static methods for input validation
 public class Validation {
 
+    // Upper bound on per-blank typo tolerance; larger values accept unrelated short words
+    public static final int MAX_BLANK_TOLERANCE = 3;
+    public static final int MAX_RUBRIC_POINTS = 20;
+
     public static void notNullOrEmpty(String value, String fieldName) {
         if (value == null || value.trim().isEmpty()) {
             throw new ValidationException(String.format("%s cannot be null or empty", fieldName));
@@ -200,6 +206,27 @@ public class Validation {
                 throw new ValidationException("AI feedback level must be 'detailed', 'brief', or 'minimal'");
             }
         }
+
+        // Optional reference material for offline grading of short essays
+        if (config.has("referenceAnswer")) {
+            if (!config.get("referenceAnswer").isTextual() || config.get("referenceAnswer").asText().trim().isEmpty()) {
+                throw new ValidationException("Essay referenceAnswer must be a non-empty string");
+            }
+            maxLength(config.get("referenceAnswer").asText(), "referenceAnswer", 10000);
+        }
+
+        if (config.has("rubric")) {
+            com.fasterxml.jackson.databind.JsonNode rubric = config.get("rubric");
+            if (!rubric.isArray() || rubric.size() > MAX_RUBRIC_POINTS) {
+                throw new ValidationException("Essay rubric must be an array of at most " + MAX_RUBRIC_POINTS + " points");
+            }
+            for (com.fasterxml.jackson.databind.JsonNode point : rubric) {
+                if (!point.isTextual() || point.asText().trim().isEmpty()) {
+                    throw new ValidationException("Essay rubric points must be non-empty strings");
+                }
+                maxLength(point.asText(), "rubric point", 500);
+            }
+        }
     }
 
     private static void validateFillInBlankConfiguration(com.fasterxml.jackson.databind.JsonNode config) {
@@ -237,6 +264,15 @@ public class Validation {
             if (blank.get("correctAnswers").size() == 0) {
                 throw new ValidationException("Each blank must have at least one correct answer");
             }
+
+            if (blank.has("tolerance")) {
+                com.fasterxml.jackson.databind.JsonNode tolerance = blank.get("tolerance");
+                if (!tolerance.canConvertToInt() || !tolerance.isIntegralNumber()
+                        || tolerance.asInt() < 0 || tolerance.asInt() > MAX_BLANK_TOLERANCE) {
+                    throw new ValidationException("Blank tolerance must be a whole number of edits between 0 and "
+                        + MAX_BLANK_TOLERANCE);
+                }
+            }
         }
 
         if (config.has("blankCount")) {
@@ -311,6 +347,14 @@ public class Validation {
                 throw new ValidationException("Item count mismatch");
             }
         }
+
+        if (config.has("scoringMode")) {
+            // Accept exactly the modes the scorer can parse, so a new mode needs no change here
+            if (AnswerKey.OrderScoring.fromConfig(config.get("scoringMode").asText()) == null) {
+                throw new ValidationException("Rearrange scoring mode must be one of: " + java.util.Arrays.stream(AnswerKey.OrderScoring.values())
+                    .map(mode -> "'" + mode.getConfigValue() + "'").collect(java.util.stream.Collectors.joining(", ")));
+            }
+        }
     }
 
     private static void validateSliderConfiguration(com.fasterxml.jackson.databind.JsonNode config) {
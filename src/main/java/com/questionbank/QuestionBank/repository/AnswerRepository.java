@@ -4,8 +4,11 @@ import com.questionbank.QuestionBank.entity.Answer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,4 +29,37 @@ public interface AnswerRepository extends JpaRepository<Answer, UUID> {
     Page<Answer> findByIsCorrectFalse(Pageable pageable);
 
     Page<Answer> findByIsActiveTrue(Pageable pageable);
+
+    long countByQuestionIdAndIsActiveTrue(UUID questionId);
+
+    // Keyset page over answers with stored image vectors, ordered so each question's answers are contiguous
+    @Query("SELECT a FROM Answer a WHERE a.isActive = true AND a.imageEmbeddings IS NOT NULL " +
+           "AND (a.questionId > :questionId OR (a.questionId = :questionId AND a.id > :answerId)) " +
+           "ORDER BY a.questionId, a.id")
+    List<Answer> findEmbeddedAfter(@Param("questionId") UUID questionId,
+                                   @Param("answerId") UUID answerId,
+                                   Pageable pageable);
+
+    // Fingerprinted answers to a question stored after the given time, for catching up a node's audio index
+    @Query("SELECT a FROM Answer a WHERE a.questionId = :questionId AND a.isActive = true " +
+           "AND a.audioFingerprint IS NOT NULL AND a.createdAt > :since")
+    List<Answer> findFingerprintedSince(@Param("questionId") UUID questionId,
+                                        @Param("since") LocalDateTime since);
+
+    // Keyset page over a question's active answers with only the columns auto-scoring reads and writes
+    @Query("SELECT a.id AS id, a.content AS content, a.isCorrect AS correct, a.score AS score, " +
+           "a.maxScore AS maxScore, a.feedback AS feedback FROM Answer a " +
+           "WHERE a.questionId = :questionId AND a.isActive = true AND a.id > :answerId ORDER BY a.id")
+    List<ScoringRow> findScoringRowsAfter(@Param("questionId") UUID questionId,
+                                          @Param("answerId") UUID answerId,
+                                          Pageable pageable);
+
+    interface ScoringRow {
+        UUID getId();
+        String getContent();
+        Boolean getCorrect();
+        Double getScore();
+        Double getMaxScore();
+        String getFeedback();
+    }
 }
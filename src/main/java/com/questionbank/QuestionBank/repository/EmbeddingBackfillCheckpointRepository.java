@@ -0,0 +1,10 @@
+package com.questionbank.QuestionBank.repository;
+
+import com.questionbank.QuestionBank.entity.EmbeddingBackfillCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// Repository for re-embedding backfill checkpoints
+@Repository
+public interface EmbeddingBackfillCheckpointRepository extends JpaRepository<EmbeddingBackfillCheckpoint, String> {
+}
@@ -0,0 +1,31 @@
+package com.questionbank.QuestionBank.repository;
+
+import com.questionbank.QuestionBank.entity.GradingJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Repository for the AI grading job queue
+@Repository
+public interface GradingJobRepository extends JpaRepository<GradingJob, UUID> {
+
+    // Due jobs plus RUNNING jobs whose worker stopped renewing its lease; rows locked by another node are
+    // skipped rather than waited on, so any number of workers can poll the same table
+    @Query(value = "SELECT * FROM grading_jobs " +
+                   "WHERE (status = 'QUEUED' AND available_at <= :now) " +
+                   "OR (status = 'RUNNING' AND locked_at < :staleBefore) " +
+                   "ORDER BY available_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<GradingJob> lockClaimable(@Param("now") LocalDateTime now,
+                                   @Param("staleBefore") LocalDateTime staleBefore,
+                                   @Param("limit") int limit);
+
+    Optional<GradingJob> findFirstByAnswerIdOrderByCreatedAtDesc(UUID answerId);
+
+    long countByStatus(String status);
+}
@@ -3,26 +3,59 @@ package com.questionbank.QuestionBank.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.questionbank.QuestionBank.dto.AiCacheStatsDTO;
+import com.questionbank.QuestionBank.dto.AiClientStatsDTO;
 import com.questionbank.QuestionBank.dto.AiCorrectionDTO;
-import com.questionbank.QuestionBank.dto.AnswerDTO;
-import com.questionbank.QuestionBank.dto.QuestionDTO;
 import com.questionbank.QuestionBank.entity.Answer;
 import com.questionbank.QuestionBank.entity.Question;
 import com.questionbank.QuestionBank.entity.QuestionType;
+import com.questionbank.QuestionBank.service.ai.AdaptiveConcurrencyLimiter;
+import com.questionbank.QuestionBank.service.ai.AiResultCache;
+import com.questionbank.QuestionBank.service.ai.FeedbackStreamParser;
+import com.questionbank.QuestionBank.service.ai.GradingBatchLoader;
+import com.questionbank.QuestionBank.service.ai.LocalGrader;
+import com.questionbank.QuestionBank.service.ai.MistralCircuitBreaker;
+import com.questionbank.QuestionBank.service.ai.MistralRateLimiter;
+import com.questionbank.QuestionBank.service.ai.MistralUnavailableException;
 import com.questionbank.QuestionBank.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 // Service for AI-based answer evaluation using Mistral API
 @Service
@@ -30,10 +63,31 @@ public class AiCorrectionService {
 
     private static final Logger log = LoggerFactory.getLogger(AiCorrectionService.class);
 
+    private static final String MISTRAL_MODEL = "mistral-medium-latest";
+    private static final double TEMPERATURE = 0.1;
+
+    // Bump when buildPrompt changes so cached results from the old prompt are no longer found
+    private static final int PROMPT_VERSION = 1;
+
+    private static final long REGRADE_POLL_MS = 100;
+
+    // How often a call waiting for a concurrency limiter slot checks again
+    private static final long PERMIT_POLL_MS = 50;
+
+    private static final String LOCAL_METHOD = "LOCAL";
+
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
-    private final AnswerService answerService;
-    private final QuestionService questionService;
+    private final GradingBatchLoader batchLoader;
+    private final MistralRateLimiter rateLimiter;
+    private final AiResultCache resultCache;
+    private final ExecutorService batchCoordinator;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final MistralCircuitBreaker circuitBreaker;
+    private final LocalGrader localGrader;
+
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong deadlinesExceeded = new AtomicLong();
 
     @Value("${ai.mistral.api.key}")
     private String mistralApiKey;
@@ -47,14 +101,53 @@ public class AiCorrectionService {
     @Value("${ai.correction.max-tokens:1000}")
     private int maxTokens;
 
+    @Value("${ai.correction.batch.max-in-flight:2}")
+    private int batchMaxInFlight;
+
+    @Value("${ai.correction.group.enabled:true}")
+    private boolean groupingEnabled;
+
+    @Value("${ai.correction.group.max-answers:8}")
+    private int groupMaxAnswers;
+
+    @Value("${ai.correction.group.result-tokens:150}")
+    private int groupResultTokens;
+
+    @Value("${ai.correction.group.max-input-tokens:4000}")
+    private int groupMaxInputTokens;
+
+    @Value("${ai.mistral.timeout.attempt-ms:20000}")
+    private long attemptTimeoutMs;
+
+    @Value("${ai.mistral.timeout.deadline-ms:45000}")
+    private long deadlineMs;
+
+    @Value("${ai.mistral.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${ai.mistral.retry.backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${ai.mistral.retry.max-backoff-ms:8000}")
+    private long retryMaxBackoffMs;
+
     @Autowired
-    public AiCorrectionService(ObjectMapper objectMapper, AnswerService answerService, QuestionService questionService) {
+    public AiCorrectionService(ObjectMapper objectMapper, GradingBatchLoader batchLoader,
+                               MistralRateLimiter rateLimiter, AiResultCache resultCache,
+                               @Qualifier("aiBatchCoordinator") ExecutorService batchCoordinator,
+                               AdaptiveConcurrencyLimiter concurrencyLimiter, MistralCircuitBreaker circuitBreaker,
+                               LocalGrader localGrader) {
         this.webClient = WebClient.builder()
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .build();
         this.objectMapper = objectMapper;
-        this.answerService = answerService;
-        this.questionService = questionService;
+        this.batchLoader = batchLoader;
+        this.rateLimiter = rateLimiter;
+        this.resultCache = resultCache;
+        this.batchCoordinator = batchCoordinator;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.localGrader = localGrader;
     }
 
     public CompletableFuture<AiCorrectionDTO> correctAnswerById(UUID answerId) {
@@ -62,11 +155,9 @@ public class AiCorrectionService {
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                AnswerDTO answerResponse = answerService.getAnswerById(answerId);
-                QuestionDTO questionResponse = questionService.getQuestionById(answerResponse.getQuestionId());
-
-                Question question = convertToQuestionEntity(questionResponse);
-                Answer answer = convertToAnswerEntity(answerResponse);
+                GradingBatchLoader.GradingBatch batch = batchLoader.load(List.of(answerId));
+                Answer answer = batch.getAnswer(answerId);
+                Question question = batch.getQuestion(answer);
                 AiCorrectionResult result = correctAnswer(question, answer).get();
                 AiCorrectionDTO response = convertToResponseDTO(result, startTime);
 
@@ -87,82 +178,354 @@ public class AiCorrectionService {
         });
     }
 
+    // Feedback text is relayed while Mistral writes it; the scored result follows as soon as the JSON object
+    // closes. Database work runs on boundedElastic, so no request or event-loop thread is held
+    public Flux<CorrectionEvent> streamCorrectAnswer(UUID answerId) {
+        long startTime = System.currentTimeMillis();
+
+        return Mono.fromCallable(() -> {
+                BatchItem item = loadBatchItem(0, answerId, batchLoader.load(List.of(answerId)));
+                if (item.loadError != null) {
+                    throw item.loadError;
+                }
+                return item;
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMapMany(item -> streamCorrection(item.question, item.answer, startTime))
+            .onErrorResume(e -> {
+                log.error("Error during streamed AI correction for answer ID {}: {}", answerId, e.getMessage(), e);
+                AiCorrectionDTO errorResponse = new AiCorrectionDTO(answerId, "AI correction failed: " + e.getMessage());
+                errorResponse.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+                return Flux.just(CorrectionEvent.error(errorResponse));
+            });
+    }
+
+    private Flux<CorrectionEvent> streamCorrection(Question question, Answer answer, long startTime) {
+        if (!isQuestionTypeSupported(question.getType())) {
+            return Flux.just(CorrectionEvent.result(convertToResponseDTO(createFallbackResult(answer), startTime)));
+        }
+
+        AiCorrectionResult local = gradeLocallyFirst(question, answer);
+        if (local != null) {
+            return Flux.just(CorrectionEvent.feedback(local.getFeedback()),
+                             CorrectionEvent.result(convertToResponseDTO(local, startTime)));
+        }
+
+        String cacheKey = resultCacheKey(question, answer);
+        AiCorrectionResult cached = readCachedResult(cacheKey, answer);
+        if (cached != null) {
+            return Flux.just(CorrectionEvent.feedback(cached.getFeedback()),
+                             CorrectionEvent.result(convertToResponseDTO(cached, startTime)));
+        }
+
+        FeedbackStreamParser parser = new FeedbackStreamParser();
+        AtomicBoolean resultSent = new AtomicBoolean();
+
+        return streamMistralApi(buildPrompt(question, answer))
+            .onErrorResume(MistralUnavailableException.class, e -> {
+                log.debug("Skipping Mistral stream for {}: {}", question.getType(), e.getMessage());
+                return Flux.empty();
+            })
+            // A stream cut off at the deadline ends with the fallback result instead of a truncated one
+            .onErrorResume(TimeoutException.class, e -> Flux.empty())
+            .concatMap(chunk -> {
+                String feedback = parser.accept(chunk);
+                List<CorrectionEvent> events = new ArrayList<>(2);
+                if (!feedback.isEmpty()) {
+                    events.add(CorrectionEvent.feedback(feedback));
+                }
+                if (parser.isComplete() && resultSent.compareAndSet(false, true)) {
+                    AiCorrectionResult result = parseStreamedResult(parser.getJson(), answer, question);
+                    writeCachedResultAsync(cacheKey, question, result);
+                    events.add(CorrectionEvent.result(convertToResponseDTO(result, startTime)));
+                }
+                return Flux.fromIterable(events);
+            })
+            .concatWith(Mono.defer(() -> resultSent.compareAndSet(false, true)
+                ? Mono.fromCallable(() -> CorrectionEvent.result(convertToResponseDTO(localOrFallback(question, answer), startTime)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                : Mono.empty()));
+    }
+
+    private AiCorrectionResult parseStreamedResult(String json, Answer answer, Question question) {
+        try {
+            return readResultNode(objectMapper.readTree(json), answer, question);
+        } catch (Exception e) {
+            log.error("Error parsing streamed AI response for {}: {}", question.getType(), e.getMessage());
+            return createFallbackResult(answer);
+        }
+    }
+
+    public AiCacheStatsDTO getResultCacheStats() {
+        return resultCache.getStats();
+    }
+
+    public AiClientStatsDTO getClientStats() {
+        AiClientStatsDTO stats = new AiClientStatsDTO();
+        stats.setConcurrencyLimit(concurrencyLimiter.getLimit());
+        stats.setInFlight(concurrencyLimiter.getInFlight());
+        stats.setAccepted(concurrencyLimiter.getAccepted());
+        stats.setLimiterRejected(concurrencyLimiter.getRejected());
+        stats.setDropped(concurrencyLimiter.getDropped());
+        stats.setNoLoadRttMs(concurrencyLimiter.getNoLoadRttMs());
+        stats.setLastRttMs(concurrencyLimiter.getLastRttMs());
+        stats.setCircuitState(circuitBreaker.getState().name());
+        stats.setFailureRate(circuitBreaker.getFailureRate());
+        stats.setCircuitRejected(circuitBreaker.getRejected());
+        stats.setCircuitTrips(circuitBreaker.getTrips());
+        stats.setRetries(retries.get());
+        stats.setDeadlinesExceeded(deadlinesExceeded.get());
+        return stats;
+    }
+
     public CompletableFuture<AiCorrectionDTO[]> batchCorrectAnswers(UUID[] answerIds) {
+        return batchCorrectAnswers(answerIds, null);
+    }
+
+    // Fans the batch out with at most batchMaxInFlight Mistral requests pending and calls paced by the rate limiter;
+    // short essays to the same question share grouped prompts. Results keep input order, and onResult sees each
+    // one (index, result) as it finishes
+    public CompletableFuture<AiCorrectionDTO[]> batchCorrectAnswers(UUID[] answerIds,
+                                                                   BiConsumer<Integer, AiCorrectionDTO> onResult) {
         long startTime = System.currentTimeMillis();
 
         return CompletableFuture.supplyAsync(() -> {
-            try {
-                AiCorrectionDTO[] responses = new AiCorrectionDTO[answerIds.length];
+            AiCorrectionDTO[] responses = new AiCorrectionDTO[answerIds.length];
+            List<CompletableFuture<?>> pending = new ArrayList<>();
+            // Never more pending than the limiter currently admits, so queued calls do not wait out their deadline
+            Semaphore inFlight = new Semaphore(Math.max(1, Math.min(batchMaxInFlight, concurrencyLimiter.getLimit())));
+            BlockingQueue<BatchItem> regrade = new LinkedBlockingQueue<>();
+            AtomicInteger openGroups = new AtomicInteger();
+
+            BiConsumer<BatchItem, AiCorrectionDTO> deliver = (item, response) -> {
+                responses[item.index] = response;
+                if (onResult != null) {
+                    try {
+                        onResult.accept(item.index, response);
+                    } catch (RuntimeException e) {
+                        log.warn("Batch progress listener failed at index {}: {}", item.index, e.getMessage());
+                    }
+                }
+            };
 
+            try {
+                GradingBatchLoader.GradingBatch batch = batchLoader.load(Arrays.asList(answerIds));
+                List<BatchItem> singles = new ArrayList<>();
+                Map<UUID, List<BatchItem>> shortEssays = new LinkedHashMap<>();
                 for (int i = 0; i < answerIds.length; i++) {
-                    try {
-                        AnswerDTO answerResponse = answerService.getAnswerById(answerIds[i]);
-                        QuestionDTO questionResponse = questionService.getQuestionById(answerResponse.getQuestionId());
-                        Question question = convertToQuestionEntity(questionResponse);
-                        Answer answer = convertToAnswerEntity(answerResponse);
-                        AiCorrectionResult result = correctAnswer(question, answer).get();
-                        responses[i] = convertToResponseDTO(result, startTime);
-                    } catch (Exception e) {
-                        log.error("Error during AI correction for answer ID {}: {}",
-                                   answerIds[i], e.getMessage(), e);
-
-                        responses[i] = new AiCorrectionDTO(
-                            answerIds[i],
-                            "AI correction failed: " + e.getMessage()
-                        );
-                        responses[i].setProcessingTimeMs(System.currentTimeMillis() - startTime);
+                    BatchItem item = loadBatchItem(i, answerIds[i], batch);
+                    if (groupingEnabled && item.isGroupable()) {
+                        shortEssays.computeIfAbsent(item.question.getId(), id -> new ArrayList<>()).add(item);
+                    } else {
+                        singles.add(item);
                     }
                 }
 
+                for (List<BatchItem> sameQuestion : shortEssays.values()) {
+                    List<BatchItem> misses = new ArrayList<>();
+                    for (BatchItem item : sameQuestion) {
+                        AiCorrectionResult settled = gradeLocallyFirst(item.question, item.answer);
+                        if (settled == null) {
+                            settled = readCachedResult(item.cacheKey, item.answer);
+                        }
+                        if (settled != null) {
+                            deliver.accept(item, toBatchResponse(item, settled, null, startTime));
+                        } else {
+                            misses.add(item);
+                        }
+                    }
+                    for (List<BatchItem> group : packGroups(misses)) {
+                        if (group.size() == 1) {
+                            singles.add(group.get(0));
+                            continue;
+                        }
+                        drainRegrades(regrade, pending, inFlight, deliver, startTime);
+                        inFlight.acquire();
+                        openGroups.incrementAndGet();
+                        pending.add(requestGroupCorrection(group)
+                            .whenComplete((results, error) -> {
+                                // The coordinator waits on openGroups, so it must drop even if delivery throws
+                                try {
+                                    for (int g = 0; g < group.size(); g++) {
+                                        BatchItem item = group.get(g);
+                                        if (error != null) {
+                                            deliver.accept(item, toBatchResponse(item, null, error, startTime));
+                                        } else if (results.get(g) != null) {
+                                            deliver.accept(item, toBatchResponse(item, results.get(g), null, startTime));
+                                        } else {
+                                            regrade.add(item);
+                                        }
+                                    }
+                                } finally {
+                                    inFlight.release();
+                                    openGroups.decrementAndGet();
+                                }
+                            }));
+                    }
+                }
+
+                for (BatchItem item : singles) {
+                    drainRegrades(regrade, pending, inFlight, deliver, startTime);
+                    dispatchSingle(item, pending, inFlight, deliver, startTime);
+                }
+
+                // Answers a grouped reply left out are graded one by one once their group has finished
+                while (openGroups.get() > 0 || !regrade.isEmpty()) {
+                    BatchItem item = regrade.poll(REGRADE_POLL_MS, TimeUnit.MILLISECONDS);
+                    if (item != null) {
+                        dispatchSingle(item, pending, inFlight, deliver, startTime);
+                    }
+                }
+
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
                 return responses;
 
-            } catch (Exception e) {
-                log.error("Error during batch AI correction: {}", e.getMessage(), e);
-                throw new RuntimeException("Batch AI correction failed", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException("Batch AI correction interrupted", e);
             }
-        });
+        }, batchCoordinator);
     }
 
-    private Question convertToQuestionEntity(QuestionDTO questionResponse) {
-        Question question = new Question(
-            questionResponse.getTitle(),
-            questionResponse.getType(),
-            questionResponse.getModule(),
-            questionResponse.getUnit(),
-            questionResponse.getContent(),
-            questionResponse.getMediaFilePaths(),
-            questionResponse.getAllowMediaInsertion(),
-            questionResponse.getAllowedMediaTypes(),
-            questionResponse.getDifficultyLevel(),
-            questionResponse.getPoints(),
-            questionResponse.getTimeLimitMinutes(),
-            questionResponse.getConfigurationData(),
-            questionResponse.isActive(),
-            questionResponse.getCreatedBy(),
-            questionResponse.getUpdatedBy()
-        );
-        question.setId(questionResponse.getId());
-        return question;
-    }
-
-    private Answer convertToAnswerEntity(AnswerDTO answerResponse) {
-        Answer answer = new Answer(
-            answerResponse.getQuestionId(),
-            answerResponse.getType(),
-            answerResponse.getContent(),
-            answerResponse.getMediaFilePaths(),
-            answerResponse.getLanguage(),
-            answerResponse.isCorrect(),
-            answerResponse.getScore(),
-            answerResponse.getMaxScore(),
-            answerResponse.getFeedback(),
-            answerResponse.getSubmittedBy(),
-            answerResponse.isActive(),
-            answerResponse.getCreatedAt(),
-            answerResponse.getUpdatedAt()
+    private void drainRegrades(BlockingQueue<BatchItem> regrade, List<CompletableFuture<?>> pending, Semaphore inFlight,
+                               BiConsumer<BatchItem, AiCorrectionDTO> deliver, long startTime) throws InterruptedException {
+        BatchItem item;
+        while ((item = regrade.poll()) != null) {
+            dispatchSingle(item, pending, inFlight, deliver, startTime);
+        }
+    }
+
+    private void dispatchSingle(BatchItem item, List<CompletableFuture<?>> pending, Semaphore inFlight,
+                                BiConsumer<BatchItem, AiCorrectionDTO> deliver, long startTime) throws InterruptedException {
+        inFlight.acquire();
+        pending.add(correctBatchItem(item)
+            .whenComplete((result, error) -> {
+                inFlight.release();
+                deliver.accept(item, toBatchResponse(item, result, error, startTime));
+            }));
+    }
+
+    // Load failures are kept on the item and reported at its position instead of failing the batch
+    private BatchItem loadBatchItem(int index, UUID answerId, GradingBatchLoader.GradingBatch batch) {
+        BatchItem item = new BatchItem(index, answerId);
+        try {
+            item.answer = batch.getAnswer(answerId);
+            item.question = batch.getQuestion(item.answer);
+            if (isQuestionTypeSupported(item.question.getType())) {
+                item.cacheKey = resultCacheKey(item.question, item.answer);
+            }
+        } catch (Exception e) {
+            item.loadError = e;
+        }
+        return item;
+    }
+
+    private CompletableFuture<AiCorrectionResult> correctBatchItem(BatchItem item) {
+        if (item.loadError != null) {
+            return CompletableFuture.failedFuture(item.loadError);
+        }
+        try {
+            if (!isQuestionTypeSupported(item.question.getType())) {
+                return correctAnswer(item.question, item.answer);
+            }
+            // Only answers that reach Mistral spend quota
+            AiCorrectionResult local = gradeLocallyFirst(item.question, item.answer);
+            if (local != null) {
+                return CompletableFuture.completedFuture(local);
+            }
+            AiCorrectionResult cached = readCachedResult(item.cacheKey, item.answer);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            return requestCorrection(item.question, item.answer, item.cacheKey);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // A result that cannot be converted is reported at its index like any other per-answer failure
+    private AiCorrectionDTO toBatchResponse(BatchItem item, AiCorrectionResult result, Throwable error, long startTime) {
+        if (error == null) {
+            try {
+                return convertToResponseDTO(result, startTime);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        log.error("Error during AI correction for answer ID {}: {}", item.answerId, cause.getMessage(), cause);
+
+        AiCorrectionDTO errorResponse = new AiCorrectionDTO(
+            item.answerId,
+            "AI correction failed: " + cause.getMessage()
         );
-        answer.setId(answerResponse.getId());
-        return answer;
+        errorResponse.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        return errorResponse;
+    }
+
+    // Greedy packing in submission order: a group closes when it reaches groupMaxAnswers, when the expected reply
+    // would no longer fit in max-tokens, or when the answers themselves exceed the input budget
+    private List<List<BatchItem>> packGroups(List<BatchItem> items) {
+        int maxByOutput = Math.max(1, maxTokens / Math.max(1, groupResultTokens));
+        int maxAnswers = Math.max(1, Math.min(groupMaxAnswers, maxByOutput));
+
+        List<List<BatchItem>> groups = new ArrayList<>();
+        List<BatchItem> current = new ArrayList<>();
+        int inputTokens = 0;
+        for (BatchItem item : items) {
+            int tokens = estimateTokens(item.answer.getContent());
+            if (!current.isEmpty() && (current.size() >= maxAnswers || inputTokens + tokens > groupMaxInputTokens)) {
+                groups.add(current);
+                current = new ArrayList<>();
+                inputTokens = 0;
+            }
+            current.add(item);
+            inputTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            groups.add(current);
+        }
+        return groups;
+    }
+
+    // Roughly four characters per token for English prose
+    private static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+
+    // Results are aligned with the group; null marks an answer the reply did not grade usably
+    private CompletableFuture<List<AiCorrectionResult>> requestGroupCorrection(List<BatchItem> group) {
+        Question question = group.get(0).question;
+        try {
+            String prompt = buildGroupPrompt(question, group);
+
+            return callMistralApi(prompt)
+                    .map(response -> {
+                        List<AiCorrectionResult> results = parseGroupCorrectionResponse(response, question, group);
+                        int graded = 0;
+                        for (int g = 0; g < group.size(); g++) {
+                            if (results.get(g) != null) {
+                                writeCachedResultAsync(group.get(g).cacheKey, question, results.get(g));
+                                graded++;
+                            }
+                        }
+                        log.debug("Grouped prompt graded {} of {} answers for question {}", graded, group.size(), question.getId());
+                        return results;
+                    })
+                    .onErrorResume(MistralUnavailableException.class, e -> {
+                        log.debug("Skipping Mistral for grouped {}: {}", question.getType(), e.getMessage());
+                        return Mono.fromCallable(() -> {
+                            List<AiCorrectionResult> fallbacks = new ArrayList<>(group.size());
+                            for (BatchItem item : group) {
+                                fallbacks.add(localOrFallback(question, item.answer));
+                            }
+                            return fallbacks;
+                        }).subscribeOn(Schedulers.boundedElastic());
+                    })
+                    .toFuture();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
     private AiCorrectionDTO convertToResponseDTO(AiCorrectionResult result, long startTime) {
@@ -175,15 +538,20 @@ public class AiCorrectionService {
         );
 
         response.setCorrectionMethod(result.getCorrectionMethod());
-        response.setStrengths(java.util.Arrays.asList(result.getStrengths()));
-        response.setWeaknesses(java.util.Arrays.asList(result.getWeaknesses()));
+        response.setStrengths(toList(result.getStrengths()));
+        response.setWeaknesses(toList(result.getWeaknesses()));
         response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
-        response.setAiModel("mistral-medium-latest");
+        response.setAiModel(LOCAL_METHOD.equals(result.getCorrectionMethod()) ? localModelName() : MISTRAL_MODEL);
         response.setStatus("SUCCESS");
 
         return response;
     }
 
+    // Fallback results and replies without the field carry no strengths or weaknesses
+    private static List<String> toList(String[] values) {
+        return values != null ? Arrays.asList(values) : new ArrayList<>();
+    }
+
     public CompletableFuture<AiCorrectionResult> correctAnswer(Question question, Answer answer) {
 
         if (!isQuestionTypeSupported(question.getType())) {
@@ -191,6 +559,74 @@ public class AiCorrectionService {
             return CompletableFuture.completedFuture(createFallbackResult(answer));
         }
 
+        AiCorrectionResult local = gradeLocallyFirst(question, answer);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+
+        String cacheKey = resultCacheKey(question, answer);
+        AiCorrectionResult cached = readCachedResult(cacheKey, answer);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return requestCorrection(question, answer, cacheKey);
+    }
+
+    // The local model's grade under the primary and prescreen modes; null sends the answer on to Mistral, as does
+    // a prescreen grade below the confidence bar
+    private AiCorrectionResult gradeLocallyFirst(Question question, Answer answer) {
+        LocalGrader.Mode mode = localGrader.getMode();
+        if (mode != LocalGrader.Mode.PRIMARY && mode != LocalGrader.Mode.PRESCREEN) {
+            return null;
+        }
+        LocalGrader.LocalGrade grade = localGrader.grade(question, answer);
+        if (grade == null) {
+            return null;
+        }
+        if (mode == LocalGrader.Mode.PRESCREEN && grade.getConfidence() < localGrader.getMinConfidence()) {
+            log.debug("Local grade confidence {} below {}, escalating to Mistral", grade.getConfidence(), localGrader.getMinConfidence());
+            return null;
+        }
+        return toLocalResult(grade, answer);
+    }
+
+    // Stands in for Mistral while the circuit is open or a stream gets no limiter slot, when the local model can grade the answer
+    private AiCorrectionResult localOrFallback(Question question, Answer answer) {
+        LocalGrader.LocalGrade grade = localGrader.grade(question, answer);
+        return grade != null ? toLocalResult(grade, answer) : createFallbackResult(answer);
+    }
+
+    private AiCorrectionResult toLocalResult(LocalGrader.LocalGrade grade, Answer answer) {
+        StringBuilder feedback = new StringBuilder("Graded offline against the reference material");
+        if (grade.getReferenceMatch() != null) {
+            feedback.append(String.format(java.util.Locale.ROOT, " (%.0f%% match with the reference answer)", grade.getReferenceMatch() * 100));
+        }
+        feedback.append('.');
+        if (!grade.getCovered().isEmpty()) {
+            feedback.append(" Covers: ").append(String.join("; ", grade.getCovered())).append('.');
+        }
+        if (!grade.getMissing().isEmpty()) {
+            feedback.append(" Missing: ").append(String.join("; ", grade.getMissing())).append('.');
+        }
+
+        AiCorrectionResult result = new AiCorrectionResult();
+        result.setAnswerId(answer.getId() != null ? answer.getId().toString() : "pending");
+        result.setScore(grade.getScore());
+        result.setMaxScore(grade.getMaxScore());
+        result.setCorrect(grade.isCorrect());
+        result.setFeedback(feedback.toString());
+        result.setCorrectionMethod(LOCAL_METHOD);
+        result.setStrengths(grade.getCovered().toArray(new String[0]));
+        result.setWeaknesses(grade.getMissing().toArray(new String[0]));
+        return result;
+    }
+
+    private String localModelName() {
+        String version = localGrader.getModelVersion();
+        return version != null ? version : localGrader.getModelLoader().getName();
+    }
+
+    private CompletableFuture<AiCorrectionResult> requestCorrection(Question question, Answer answer, String cacheKey) {
         try {
             String prompt = buildPrompt(question, answer);
 
@@ -198,12 +634,19 @@ public class AiCorrectionService {
                     .map(response -> {
                         try {
                             log.debug("Raw AI response: {}", response);
-                            return parseAiCorrectionResponse(response, answer, question);
+                            AiCorrectionResult result = parseAiCorrectionResponse(response, answer, question);
+                            writeCachedResultAsync(cacheKey, question, result);
+                            return result;
                         } catch (Exception e) {
                             log.error("Error parsing AI response for {}: {}", question.getType(), e.getMessage());
                             return createFallbackResult(answer);
                         }
                     })
+                    .onErrorResume(MistralUnavailableException.class, e -> {
+                        log.debug("Skipping Mistral for {}: {}", question.getType(), e.getMessage());
+                        return Mono.fromCallable(() -> localOrFallback(question, answer))
+                            .subscribeOn(Schedulers.boundedElastic());
+                    })
                     .toFuture();
         } catch (Exception e) {
             String answerId = answer.getId() != null ? answer.getId().toString() : "pending";
@@ -212,6 +655,72 @@ public class AiCorrectionService {
         }
     }
 
+    // Digest of every prompt input plus the sampling settings; null when the question has no stable revision
+    private String resultCacheKey(Question question, Answer answer) {
+        if (!resultCache.isEnabled()) {
+            return null;
+        }
+        if (question.getId() == null || question.getUpdatedAt() == null) {
+            resultCache.recordBypass();
+            return null;
+        }
+        return AiResultCache.digest(
+            PROMPT_VERSION, MISTRAL_MODEL, TEMPERATURE, maxTokens,
+            question.getId(), question.getUpdatedAt(), question.getType(),
+            answer.getLanguage(),
+            normalizeForCache(answer.getContent(), question.getType()),
+            normalizeForCache(getAdditionalInfoForQuestionType(question, answer), question.getType()));
+    }
+
+    // Whitespace never changes a grade; case only matters in code
+    private String normalizeForCache(String text, QuestionType questionType) {
+        if (text == null) {
+            return "";
+        }
+        String collapsed = text.replaceAll("\\s+", " ").trim();
+        return questionType == QuestionType.CODING ? collapsed : collapsed.toLowerCase(java.util.Locale.ROOT);
+    }
+
+    private AiCorrectionResult readCachedResult(String cacheKey, Answer answer) {
+        if (cacheKey == null) {
+            return null;
+        }
+        String json = resultCache.get(cacheKey);
+        if (json == null) {
+            return null;
+        }
+        try {
+            AiCorrectionResult result = objectMapper.readValue(json, AiCorrectionResult.class);
+            result.setAnswerId(answer.getId() != null ? answer.getId().toString() : "pending");
+            return result;
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable cached AI result: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Replies arrive on the WebClient event loop, which must never run the blocking JDBC write
+    private void writeCachedResultAsync(String cacheKey, Question question, AiCorrectionResult result) {
+        if (cacheKey == null) {
+            return;
+        }
+        Mono.fromRunnable(() -> writeCachedResult(cacheKey, question, result))
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe();
+    }
+
+    // Only real model grades are cached; fallbacks must be retried on the next attempt
+    private void writeCachedResult(String cacheKey, Question question, AiCorrectionResult result) {
+        if (cacheKey == null || !"AI".equals(result.getCorrectionMethod())) {
+            return;
+        }
+        try {
+            resultCache.put(cacheKey, question.getId(), objectMapper.writeValueAsString(result));
+        } catch (Exception e) {
+            log.warn("Could not cache AI result for question {}: {}", question.getId(), e.getMessage());
+        }
+    }
+
     private boolean isQuestionTypeSupported(QuestionType questionType) {
         switch (questionType) {
             case ESSAY_SHORT:
@@ -223,31 +732,121 @@ public class AiCorrectionService {
         }
     }
 
+    // Content deltas of a streamed completion. Not retried, since text may already have reached the client; the
+    // attempt timeout bounds the gap between chunks, and the deadline truncates the stream
+    private Flux<String> streamMistralApi(String prompt) {
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        requestBody.put("model", MISTRAL_MODEL);
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("role", "user");
+        message.put("content", prompt);
+        requestBody.set("messages", objectMapper.createArrayNode().add(message));
+        requestBody.put("max_tokens", maxTokens);
+        requestBody.put("temperature", TEMPERATURE);
+        requestBody.put("top_p", 0.9);
+        requestBody.put("stream", true);
+        String body = requestBody.toString();
+
+        // Nothing has reached the client while waiting for a permit, so a stream that gets none falls back
+        Mono<Void> permit = acquireCallPermit()
+            .timeout(Duration.ofMillis(deadlineMs))
+            .onErrorMap(TimeoutException.class, e -> new MistralUnavailableException("concurrency limit reached"));
+
+        return permit.then(Mono.defer(this::awaitQuotaToken)).thenMany(Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicLong firstChunkNanos = new AtomicLong();
+            AtomicBoolean settled = new AtomicBoolean();
+            AtomicBoolean finished = new AtomicBoolean();
+            return webClient.post()
+                    .uri(mistralApiUrl)
+                    .header("Authorization", "Bearer " + mistralApiKey)
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .bodyValue(body)
+                    .retrieve()
+                    .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                    .timeout(Duration.ofMillis(attemptTimeoutMs))
+                    .takeUntil(event -> "[DONE]".equals(event.data()))
+                    .filter(event -> event.data() != null && !"[DONE]".equals(event.data()))
+                    .map(event -> streamedDelta(event.data()))
+                    .doOnNext(delta -> firstChunkNanos.compareAndSet(0, System.nanoTime() - start))
+                    .doOnComplete(() -> finished.set(true))
+                    .take(Duration.ofMillis(deadlineMs))
+                    // take() ends the stream quietly at the deadline; report the cut-off as a timeout like the buffered path
+                    .concatWith(Flux.defer(() -> {
+                        if (finished.get()) {
+                            return Flux.empty();
+                        }
+                        deadlinesExceeded.incrementAndGet();
+                        return Flux.error(new TimeoutException("Mistral stream missed its " + deadlineMs + " ms deadline"));
+                    }))
+                    .doOnComplete(() -> {
+                        // Time to first token is the latency signal; stream length depends on the answer
+                        if (settled.compareAndSet(false, true)) {
+                            long rtt = firstChunkNanos.get() > 0 ? firstChunkNanos.get() : System.nanoTime() - start;
+                            concurrencyLimiter.onSuccess(rtt);
+                            circuitBreaker.onSuccess();
+                        }
+                    })
+                    .doOnError(error -> {
+                        log.error("Mistral streaming error: {}", error.getMessage());
+                        if (settled.compareAndSet(false, true)) {
+                            recordFailedAttempt(error);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        // The client went away, which says nothing about Mistral
+                        if (settled.compareAndSet(false, true)) {
+                            concurrencyLimiter.onIgnored();
+                            circuitBreaker.onIgnored();
+                        }
+                    });
+        }));
+    }
+
+    private String streamedDelta(String data) {
+        try {
+            return objectMapper.readTree(data).path("choices").path(0).path("delta").path("content").asText("");
+        } catch (Exception e) {
+            log.debug("Skipping unreadable Mistral stream chunk: {}", e.getMessage());
+            return "";
+        }
+    }
+
+    // Each attempt has its own timeout and needs a circuit breaker and limiter permit; 429, 5xx, timeouts and
+    // connection errors are retried with jittered exponential backoff until the overall deadline passes
     private Mono<String> callMistralApi(String prompt) {
         try {
             ObjectNode requestBody = objectMapper.createObjectNode();
-            requestBody.put("model", "mistral-medium-latest");
+            requestBody.put("model", MISTRAL_MODEL);
             ObjectNode message = objectMapper.createObjectNode();
             message.put("role", "user");
             message.put("content", prompt);
             requestBody.set("messages", objectMapper.createArrayNode().add(message));
             requestBody.put("max_tokens", maxTokens);
-            requestBody.put("temperature", 0.1);
+            requestBody.put("temperature", TEMPERATURE);
             requestBody.put("top_p", 0.9);
             requestBody.put("stream", false);
-
-            return webClient.post()
-                    .uri(mistralApiUrl)
-                    .header("Authorization", "Bearer " + mistralApiKey)
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody.toString())
-                    .retrieve()
-                    .bodyToMono(String.class)
+            String body = requestBody.toString();
+
+            return Mono.defer(() -> attemptMistralCall(body))
+                    .retryWhen(Retry.backoff(Math.max(0, maxAttempts - 1), Duration.ofMillis(retryBackoffMs))
+                        .maxBackoff(Duration.ofMillis(retryMaxBackoffMs))
+                        .jitter(0.5)
+                        .filter(this::isRetryable)
+                        .doBeforeRetry(signal -> {
+                            retries.incrementAndGet();
+                            log.warn("Retrying Mistral call (retry {}): {}", signal.totalRetries() + 1, signal.failure().getMessage());
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .timeout(Duration.ofMillis(deadlineMs))
                     .doOnError(error -> {
                         if (error instanceof WebClientResponseException) {
                             WebClientResponseException wcre = (WebClientResponseException) error;
                             log.error("Mistral API error: {} - {}", wcre.getStatusCode(), wcre.getResponseBodyAsString());
-                        } else {
+                        } else if (error instanceof TimeoutException) {
+                            deadlinesExceeded.incrementAndGet();
+                            log.error("Mistral call missed its {} ms deadline", deadlineMs);
+                        } else if (!(error instanceof MistralUnavailableException)) {
                             log.error("Error calling Mistral API: {}", error.getMessage());
                         }
                     });
@@ -257,6 +856,110 @@ public class AiCorrectionService {
         }
     }
 
+    // Every admitted attempt reports its outcome exactly once
+    private Mono<String> attemptMistralCall(String body) {
+        return acquireCallPermit()
+            .then(Mono.defer(this::awaitQuotaToken))
+            .then(Mono.defer(() -> sendMistralRequest(body)));
+    }
+
+    // Every request, whichever caller sends it, spends a token of the shared quota. The token is taken once the
+    // request holds a limiter permit and the wait runs on a timer; a caller cancelled while waiting returns the permit
+    private Mono<Void> awaitQuotaToken() {
+        long waitNanos = rateLimiter.reserve();
+        if (waitNanos <= 0) {
+            return Mono.empty();
+        }
+        return Mono.delay(Duration.ofNanos(waitNanos))
+            .then()
+            .doOnCancel(() -> {
+                concurrencyLimiter.onIgnored();
+                circuitBreaker.onIgnored();
+            });
+    }
+
+    // An open circuit fails fast; a full limiter is waited out on a timer, bounded by the caller's deadline, since
+    // it only means this node already has enough calls pending
+    private Mono<Void> acquireCallPermit() {
+        AtomicBoolean firstTry = new AtomicBoolean(true);
+        return Mono.<Void>defer(() -> {
+                if (!circuitBreaker.tryAcquire()) {
+                    return Mono.error(new MistralUnavailableException("circuit open"));
+                }
+                if (!concurrencyLimiter.tryAcquire(firstTry.getAndSet(false))) {
+                    circuitBreaker.onIgnored();
+                    return Mono.error(new LimiterFullException());
+                }
+                return Mono.empty();
+            })
+            .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofMillis(PERMIT_POLL_MS))
+                .filter(error -> error instanceof LimiterFullException));
+    }
+
+    private Mono<String> sendMistralRequest(String body) {
+        long start = System.nanoTime();
+        AtomicBoolean settled = new AtomicBoolean();
+        return webClient.post()
+                .uri(mistralApiUrl)
+                .header("Authorization", "Bearer " + mistralApiKey)
+                .header("Content-Type", "application/json")
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(Duration.ofMillis(attemptTimeoutMs))
+                .doOnSuccess(response -> {
+                    if (settled.compareAndSet(false, true)) {
+                        concurrencyLimiter.onSuccess(System.nanoTime() - start);
+                        circuitBreaker.onSuccess();
+                    }
+                })
+                .doOnError(error -> {
+                    if (settled.compareAndSet(false, true)) {
+                        recordFailedAttempt(error);
+                    }
+                })
+                .doOnCancel(() -> {
+                    // Only the overall deadline cancels an attempt, so treat it like a timeout
+                    if (settled.compareAndSet(false, true)) {
+                        concurrencyLimiter.onDropped();
+                        circuitBreaker.onFailure();
+                    }
+                });
+    }
+
+    // Throttling and timeouts shrink the concurrency limit; other upstream failures only count against the circuit
+    private void recordFailedAttempt(Throwable error) {
+        if (isOverload(error)) {
+            concurrencyLimiter.onDropped();
+            circuitBreaker.onFailure();
+        } else if (isRetryable(error)) {
+            concurrencyLimiter.onIgnored();
+            circuitBreaker.onFailure();
+        } else {
+            concurrencyLimiter.onIgnored();
+            circuitBreaker.onIgnored();
+        }
+    }
+
+    private boolean isOverload(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return true;
+        }
+        if (error instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) error).getStatusCode().value();
+            return status == 429 || status == 503;
+        }
+        return false;
+    }
+
+    private boolean isRetryable(Throwable error) {
+        if (isOverload(error) || error instanceof WebClientRequestException) {
+            return true;
+        }
+        return error instanceof WebClientResponseException
+            && ((WebClientResponseException) error).getStatusCode().is5xxServerError();
+    }
+
     // Build AI prompt with question context and answer content
     private String buildPrompt(Question question, Answer answer) {
         String role = getRoleForQuestionType(question.getType());
@@ -323,6 +1026,58 @@ public class AiCorrectionService {
         );
     }
 
+    // One prompt grading several short answers to the same question, so the question context is sent once
+    private String buildGroupPrompt(Question question, List<BatchItem> group) {
+        StringBuilder answers = new StringBuilder();
+        for (int g = 0; g < group.size(); g++) {
+            answers.append("<answer id=\"").append(groupLabel(g)).append("\">\n")
+                   .append(group.get(g).answer.getContent())
+                   .append("\n</answer>\n\n");
+        }
+
+        String promptTemplate = """
+            You are a high school %s evaluating %d student answers to the same %s question.
+            Grade each answer independently; do not compare answers with each other.
+
+            Question: %s
+            Question Content: %s
+            Max Score: %s
+
+            %s
+            Respond with only a JSON array holding one object per answer:
+            [
+                {
+                    "id": "<answer id, e.g. A1>",
+                    "score": <score out of %s>,
+                    "maxScore": %s,
+                    "isCorrect": <true if score >= 70%% of max score>,
+                    "feedback": "<one or two sentences of constructive feedback>",
+                    "strengths": ["<strength>"],
+                    "weaknesses": ["<area for improvement>"]
+                }
+            ]
+
+            Consider: %s. Provide encouraging feedback suitable for high school students.
+            """;
+
+        return String.format(promptTemplate,
+            getRoleForQuestionType(question.getType()),
+            group.size(),
+            question.getType().toString().toLowerCase().replace("_", " "),
+            question.getTitle(),
+            question.getContent(),
+            question.getPoints(),
+            answers,
+            question.getPoints(),
+            question.getPoints(),
+            getConsiderationsForQuestionType(question.getType())
+        );
+    }
+
+    private static String groupLabel(int position) {
+        return "A" + (position + 1);
+    }
+
     private String getRoleForQuestionType(QuestionType questionType) {
         switch (questionType) {
             case CODING:
@@ -384,21 +1139,7 @@ public class AiCorrectionService {
             log.debug("Parsed response node keys: {}", responseNode.fieldNames());
 
             if (responseNode.has("score") || responseNode.has("feedback")) {
-                AiCorrectionResult result = new AiCorrectionResult();
-                result.setAnswerId(answer.getId() != null ? answer.getId().toString() : "pending");
-                result.setScore(responseNode.path("score").asDouble(0.0));
-                result.setMaxScore(responseNode.path("maxScore").asDouble(question.getPoints()));
-                result.setCorrect(responseNode.path("isCorrect").asBoolean(false));
-                result.setFeedback(responseNode.path("feedback").asText(""));
-                result.setCorrectionMethod("AI");
-
-                if (responseNode.has("strengths")) {
-                    result.setStrengths(parseStringArray(responseNode.get("strengths")));
-                }
-                if (responseNode.has("weaknesses")) {
-                    result.setWeaknesses(parseStringArray(responseNode.get("weaknesses")));
-                }
-
+                AiCorrectionResult result = readResultNode(responseNode, answer, question);
                 log.debug("Successfully parsed AI response as direct JSON object");
                 return result;
             }
@@ -411,22 +1152,7 @@ public class AiCorrectionService {
 
                 JsonNode contentNode = objectMapper.readTree(content);
 
-                AiCorrectionResult result = new AiCorrectionResult();
-                result.setAnswerId(answer.getId() != null ? answer.getId().toString() : "pending");
-                result.setScore(contentNode.path("score").asDouble(0.0));
-                result.setMaxScore(contentNode.path("maxScore").asDouble(question.getPoints()));
-                result.setCorrect(contentNode.path("isCorrect").asBoolean(false));
-                result.setFeedback(contentNode.path("feedback").asText(""));
-                result.setCorrectionMethod("AI");
-
-                if (contentNode.has("strengths")) {
-                    result.setStrengths(parseStringArray(contentNode.get("strengths")));
-                }
-                if (contentNode.has("weaknesses")) {
-                    result.setWeaknesses(parseStringArray(contentNode.get("weaknesses")));
-                }
-
-                return result;
+                return readResultNode(contentNode, answer, question);
             } else {
                 log.warn("No valid choices found in AI response. Response structure: {}", responseNode.toPrettyString());
                 return createFallbackResult(answer);
@@ -438,6 +1164,78 @@ public class AiCorrectionService {
         }
     }
 
+    private AiCorrectionResult readResultNode(JsonNode node, Answer answer, Question question) {
+        AiCorrectionResult result = new AiCorrectionResult();
+        result.setAnswerId(answer.getId() != null ? answer.getId().toString() : "pending");
+        result.setScore(node.path("score").asDouble(0.0));
+        result.setMaxScore(node.path("maxScore").asDouble(question.getPoints()));
+        result.setCorrect(node.path("isCorrect").asBoolean(false));
+        result.setFeedback(node.path("feedback").asText(""));
+        result.setCorrectionMethod("AI");
+
+        if (node.has("strengths")) {
+            result.setStrengths(parseStringArray(node.get("strengths")));
+        }
+        if (node.has("weaknesses")) {
+            result.setWeaknesses(parseStringArray(node.get("weaknesses")));
+        }
+        return result;
+    }
+
+    // Maps a grouped reply back to the group by answer id; an unreadable reply or entry leaves null slots,
+    // which the batch then grades one by one
+    private List<AiCorrectionResult> parseGroupCorrectionResponse(String aiResponse, Question question, List<BatchItem> group) {
+        List<AiCorrectionResult> results = new ArrayList<>(group.size());
+        for (int g = 0; g < group.size(); g++) {
+            results.add(null);
+        }
+        try {
+            JsonNode responseNode = objectMapper.readTree(aiResponse);
+            String content = responseNode.path("choices").path(0).path("message").path("content").asText("");
+            JsonNode entries = objectMapper.readTree(cleanAiArrayResponse(content));
+            if (entries.isObject()) {
+                entries = entries.path("results");
+            }
+            if (!entries.isArray()) {
+                log.warn("Grouped AI response for question {} held no result array", question.getId());
+                return results;
+            }
+
+            Map<String, Integer> positions = new HashMap<>();
+            for (int g = 0; g < group.size(); g++) {
+                positions.put(groupLabel(g), g);
+            }
+            for (JsonNode entry : entries) {
+                Integer position = positions.remove(entry.path("id").asText("").trim());
+                if (position == null || !entry.path("score").isNumber()) {
+                    continue;
+                }
+                results.set(position, readResultNode(entry, group.get(position).answer, question));
+            }
+        } catch (Exception e) {
+            log.warn("Could not parse grouped AI response for question {}: {}", question.getId(), e.getMessage());
+            log.debug("Raw grouped AI response that failed to parse: {}", aiResponse);
+        }
+        return results;
+    }
+
+    // Like cleanAiResponse, but keeps a top-level array; a wrapping object is passed through unchanged
+    private String cleanAiArrayResponse(String content) {
+        String cleaned = content.trim()
+            .replaceAll("```json\\s*", "")
+            .replaceAll("```\\s*", "")
+            .trim();
+        int startBracket = cleaned.indexOf('[');
+        int startBrace = cleaned.indexOf('{');
+        if (startBracket >= 0 && (startBrace < 0 || startBracket < startBrace)) {
+            int endBracket = cleaned.lastIndexOf(']');
+            if (endBracket > startBracket) {
+                return cleaned.substring(startBracket, endBracket + 1);
+            }
+        }
+        return cleanAiResponse(cleaned);
+    }
+
     // Remove markdown formatting and extract JSON object from AI response
     private String cleanAiResponse(String aiResponse) {
         if (aiResponse == null || aiResponse.trim().isEmpty()) {
@@ -489,6 +1287,50 @@ public class AiCorrectionService {
         return result;
     }
 
+    // One server-sent event of a streamed correction: "feedback" carries a text delta, "result" or "error" a DTO
+    public static final class CorrectionEvent {
+        private final String type;
+        private final Object payload;
+
+        private CorrectionEvent(String type, Object payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+
+        static CorrectionEvent feedback(String text) { return new CorrectionEvent("feedback", text); }
+        static CorrectionEvent result(AiCorrectionDTO result) { return new CorrectionEvent("result", result); }
+        static CorrectionEvent error(AiCorrectionDTO error) { return new CorrectionEvent("error", error); }
+
+        public String getType() { return type; }
+        public Object getPayload() { return payload; }
+    }
+
+    // Signals a full concurrency limiter to the permit poll; never leaves acquireCallPermit
+    private static final class LimiterFullException extends RuntimeException {
+        LimiterFullException() {
+            super("concurrency limit reached", null, false, false);
+        }
+    }
+
+    // One answer of a batch; answers to the same question share one Question instance from the loader
+    private static final class BatchItem {
+        private final int index;
+        private final UUID answerId;
+        private Question question;
+        private Answer answer;
+        private String cacheKey;
+        private Exception loadError;
+
+        private BatchItem(int index, UUID answerId) {
+            this.index = index;
+            this.answerId = answerId;
+        }
+
+        private boolean isGroupable() {
+            return loadError == null && question.getType() == QuestionType.ESSAY_SHORT && question.getId() != null;
+        }
+    }
+
     public static class AiCorrectionResult {
         private String answerId;
         private double score;
@@ -496,8 +1338,8 @@ public class AiCorrectionService {
         private boolean correct;
         private String feedback;
         private String correctionMethod;
-        private String[] strengths;
-        private String[] weaknesses;
+        private String[] strengths = new String[0];
+        private String[] weaknesses = new String[0];
 
         public String getAnswerId() { return answerId; }
         public void setAnswerId(String answerId) { this.answerId = answerId; }
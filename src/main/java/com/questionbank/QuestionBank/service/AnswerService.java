@@ -2,14 +2,20 @@ package com.questionbank.QuestionBank.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.questionbank.QuestionBank.dto.AnswerDTO;
+import com.questionbank.QuestionBank.dto.SimilarAnswerDTO;
 import com.questionbank.QuestionBank.entity.Answer;
 import com.questionbank.QuestionBank.entity.AnswerType;
+import com.questionbank.QuestionBank.entity.GradingStatus;
 import com.questionbank.QuestionBank.entity.Question;
 import com.questionbank.QuestionBank.entity.QuestionType;
 import com.questionbank.QuestionBank.exception.Validation;
 import com.questionbank.QuestionBank.repository.AnswerRepository;
 import com.questionbank.QuestionBank.repository.QuestionRepository;
-import com.questionbank.QuestionBank.service.plagiarism.embedding.ImageEmbedder;
+import com.questionbank.QuestionBank.service.correction.AnswerPayload;
+import com.questionbank.QuestionBank.service.correction.AnswerPayloadReader;
+import com.questionbank.QuestionBank.service.plagiarism.AudioFingerprinter;
+import com.questionbank.QuestionBank.service.plagiarism.ImageEmbedder;
+import com.questionbank.QuestionBank.service.plagiarism.ModelNotReadyException;
 import com.questionbank.QuestionBank.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +45,10 @@ public class AnswerService {
     private final CorrectionService correctionService;
     private final ImageEmbedder imageEmbeddingService;
     private final PlagiarismService plagiarismService;
+    private final AudioFingerprinter audioFingerprinter;
+    private final ArchiveInspectionService archiveInspectionService;
+    private final AnswerPayloadReader payloadReader;
+    private final GradingQueueService gradingQueueService;
 
     @Autowired
     public AnswerService(AnswerRepository answerRepository,
@@ -47,7 +57,11 @@ public class AnswerService {
                         MediaService mediaService,
                         CorrectionService correctionService,
                         ImageEmbedder imageEmbeddingService,
-                        PlagiarismService plagiarismService) {
+                        PlagiarismService plagiarismService,
+                        AudioFingerprinter audioFingerprinter,
+                        ArchiveInspectionService archiveInspectionService,
+                        AnswerPayloadReader payloadReader,
+                        GradingQueueService gradingQueueService) {
         this.answerRepository = answerRepository;
         this.questionRepository = questionRepository;
         this.objectMapper = objectMapper;
@@ -55,6 +69,10 @@ public class AnswerService {
         this.correctionService = correctionService;
         this.imageEmbeddingService = imageEmbeddingService;
         this.plagiarismService = plagiarismService;
+        this.audioFingerprinter = audioFingerprinter;
+        this.archiveInspectionService = archiveInspectionService;
+        this.payloadReader = payloadReader;
+        this.gradingQueueService = gradingQueueService;
     }
 
     public AnswerDTO createAnswer(AnswerDTO request) {
@@ -73,10 +91,10 @@ public class AnswerService {
         Question question = questionRepository.findById(request.getQuestionId())
                 .orElseThrow(() -> new Validation.ResourceNotFoundException("Question", request.getQuestionId().toString()));
 
-        validateAnswerType(question.getType(), request.getType());
-
         Validation.maxLength(request.getContent(), "content", 10000);
 
+        AnswerPayload payload = validateAnswerType(question.getType(), request.getType(), request.getContent());
+
         Answer answer = new Answer(
                 request.getQuestionId(),
                 request.getType(),
@@ -115,9 +133,15 @@ public class AnswerService {
             }
         }
 
-        // Auto-score for preset answer types, use AI for essay/coding questions
+        // Auto-score for preset answer types, queue essay/coding questions for AI grading
         if (question.getType().requiresPresetAnswers()) {
-            correctionService.autoScoreAnswer(savedAnswer, question);
+            correctionService.autoScoreAnswer(savedAnswer, question, payload);
+            savedAnswer.setGradingStatus(GradingStatus.GRADED);
+        } else if (gradingQueueService.isEnabled()) {
+            savedAnswer.setMaxScore(question.getPoints());
+            savedAnswer.setFeedback(GradingQueueService.PENDING_FEEDBACK);
+            savedAnswer.setGradingStatus(GradingStatus.PENDING);
+            gradingQueueService.enqueue(savedAnswer.getId());
         } else {
             try {
                 correctionService.scoreAnswerWithAI(savedAnswer, question);
@@ -128,6 +152,10 @@ public class AnswerService {
                 savedAnswer.setMaxScore(question.getPoints());
                 savedAnswer.setCorrect(false);
                 savedAnswer.setFeedback("AI scoring temporarily unavailable. Please contact your instructor.");
+                savedAnswer.setGradingStatus(GradingStatus.FAILED);
+            }
+            if (savedAnswer.getGradingStatus() == null) {
+                savedAnswer.setGradingStatus(GradingStatus.GRADED);
             }
         }
 
@@ -195,6 +223,10 @@ public class AnswerService {
 
         if (request.getContent() != null) {
             Validation.maxLength(request.getContent(), "content", 10000);
+            if (!request.getContent().equals(answer.getContent())) {
+                // The stored vector no longer describes the text, so a node loading the question embeds it again
+                answer.setTextEmbedding(null);
+            }
             answer.setContent(request.getContent());
         }
 
@@ -232,16 +264,31 @@ public class AnswerService {
 
         answer.setActive(false);
         answerRepository.save(answer);
+        plagiarismService.removeFromIndex(answer.getQuestionId(), answer.getId());
     }
 
     public void hardDeleteAnswer(UUID id) {
-        if (!answerRepository.existsById(id)) {
-            throw new Validation.ResourceNotFoundException("Answer", id.toString());
-        }
+        Answer answer = answerRepository.findById(id)
+                .orElseThrow(() -> new Validation.ResourceNotFoundException("Answer", id.toString()));
         answerRepository.deleteById(id);
+        plagiarismService.removeFromIndex(answer.getQuestionId(), id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SimilarAnswerDTO> findSimilarAnswers(UUID id, int k) {
+        Validation.inRange(k, "k", 1, 100);
+
+        Answer answer = answerRepository.findById(id)
+                .orElseThrow(() -> new Validation.ResourceNotFoundException("Answer", id.toString()));
+
+        return plagiarismService.findSimilarAnswers(answer.getQuestionId(), answer.getId(), k)
+                .stream()
+                .map(hit -> new SimilarAnswerDTO(hit.getAnswerId(), hit.getScore(), hit.getModality(), hit.getSearchTimeMicros()))
+                .collect(Collectors.toList());
     }
 
-    private void validateAnswerType(QuestionType questionType, AnswerType answerType) {
+    // Check the answer type and parse auto-scored content once, rejecting malformed payloads before any write
+    private AnswerPayload validateAnswerType(QuestionType questionType, AnswerType answerType, String content) {
         switch (questionType) {
             case MCQ:
                 if (answerType != AnswerType.MULTIPLE_CHOICE) {
@@ -313,6 +360,8 @@ public class AnswerService {
                 log.warn("Unknown question type: {}. Allowing answer type: {}", questionType, answerType);
                 break;
         }
+
+        return questionType.requiresPresetAnswers() ? payloadReader.readValid(questionType, content) : null;
     }
 
     private boolean hasTextContent(AnswerType answerType) {
@@ -332,6 +381,7 @@ public class AnswerService {
                     answer.getContent(),
                     answer.getQuestionId(),
                     answer.getId());
+            answer.setTextEmbedding(plagiarismService.serializeTextEmbedding(answer.getContent()));
 
             if (result.isPlagiarized()) {
                 answer.setPlagiarismScore(result.getSimilarityScore());
@@ -371,7 +421,7 @@ public class AnswerService {
                         if (combinedEmbeddings == null) {
                             combinedEmbeddings = embeddings;
                         } else {
-                            combinedEmbeddings = combineEmbeddings(combinedEmbeddings, embeddings);
+                            combinedEmbeddings = imageEmbeddingService.combineEmbeddings(combinedEmbeddings, embeddings);
                         }
 
                         PlagiarismService.PlagiarismResult currentResult =
@@ -382,6 +432,10 @@ public class AnswerService {
                             plagiarismResult = currentResult;
                         }
 
+                    } catch (ModelNotReadyException e) {
+                        if (plagiarismResult == null) {
+                            plagiarismResult = plagiarismService.createModelNotReadyResult(e, "image");
+                        }
                     } catch (Exception e) {
                         log.error("Failed to process image file {}: {}", file.getOriginalFilename(), e.getMessage());
                     }
@@ -395,7 +449,7 @@ public class AnswerService {
                             if (combinedEmbeddings == null) {
                                 combinedEmbeddings = embeddings;
                             } else {
-                                combinedEmbeddings = combineEmbeddings(combinedEmbeddings, embeddings);
+                                combinedEmbeddings = imageEmbeddingService.combineEmbeddings(combinedEmbeddings, embeddings);
                             }
 
                             PlagiarismService.PlagiarismResult currentResult =
@@ -406,9 +460,34 @@ public class AnswerService {
                                 plagiarismResult = currentResult;
                             }
                         }
+                    } catch (ModelNotReadyException e) {
+                        if (plagiarismResult == null) {
+                            plagiarismResult = plagiarismService.createModelNotReadyResult(e, "image");
+                        }
                     } catch (Exception e) {
                         log.error("Failed to process video file {}: {}", file.getOriginalFilename(), e.getMessage());
                     }
+                } else if (Utils.Files.isAudioFile(file) && audioFingerprinter.isEnabled()) {
+                    try {
+                        AudioFingerprinter.Stream stream = audioFingerprinter.newStream();
+                        mediaService.streamAudioSamples(file, AudioFingerprinter.SAMPLE_RATE,
+                            audioFingerprinter.getMaxSamples(), stream::accept);
+                        int[] fingerprint = stream.finish();
+
+                        if (fingerprint.length > 0) {
+                            answer.setAudioFingerprint(AudioFingerprinter.encode(fingerprint));
+
+                            PlagiarismService.PlagiarismResult currentResult =
+                                plagiarismService.detectAudioPlagiarism(
+                                    fingerprint, answer.getQuestionId(), answer.getId());
+
+                            if (plagiarismResult == null || currentResult.getSimilarityScore() > plagiarismResult.getSimilarityScore()) {
+                                plagiarismResult = currentResult;
+                            }
+                        }
+                    } catch (Exception e) {
+                        log.error("Failed to process audio file {}: {}", file.getOriginalFilename(), e.getMessage());
+                    }
                 } else if (Utils.Files.isPdfFile(file)) {
                     try {
 
@@ -419,7 +498,7 @@ public class AnswerService {
                             if (combinedEmbeddings == null) {
                                 combinedEmbeddings = embeddings;
                             } else {
-                                combinedEmbeddings = combineEmbeddings(combinedEmbeddings, embeddings);
+                                combinedEmbeddings = imageEmbeddingService.combineEmbeddings(combinedEmbeddings, embeddings);
                             }
 
                             PlagiarismService.PlagiarismResult currentResult =
@@ -430,6 +509,10 @@ public class AnswerService {
                                 plagiarismResult = currentResult;
                             }
                         }
+                    } catch (ModelNotReadyException e) {
+                        if (plagiarismResult == null) {
+                            plagiarismResult = plagiarismService.createModelNotReadyResult(e, "image");
+                        }
                     } catch (Exception e) {
                         log.error("Failed to process PDF file {}: {}", file.getOriginalFilename(), e.getMessage());
                     }
@@ -444,6 +527,7 @@ public class AnswerService {
                                     combinedContent,
                                     answer.getQuestionId(),
                                     answer.getId());
+                            answer.setTextEmbedding(plagiarismService.serializeTextEmbedding(combinedContent));
 
                             if (textResult != null && (plagiarismResult == null || textResult.getSimilarityScore() > plagiarismResult.getSimilarityScore())) {
                                 plagiarismResult = textResult;
@@ -452,12 +536,33 @@ public class AnswerService {
                     } catch (Exception e) {
                         log.error("Failed to process DOCX file {}: {}", file.getOriginalFilename(), e.getMessage());
                     }
+                } else if (Utils.Files.isZipFile(file) || Utils.Files.isRarFile(file)) {
+                    try {
+                        ArchiveInspectionService.ArchiveResult archiveResult =
+                            archiveInspectionService.inspect(file, answer);
+
+                        for (double[] embeddings : archiveResult.getImageEmbeddings()) {
+                            if (combinedEmbeddings == null) {
+                                combinedEmbeddings = embeddings;
+                            } else {
+                                combinedEmbeddings = imageEmbeddingService.combineEmbeddings(combinedEmbeddings, embeddings);
+                            }
+                        }
+
+                        PlagiarismService.PlagiarismResult currentResult = archiveResult.getPlagiarismResult();
+                        if (currentResult != null && (plagiarismResult == null || currentResult.getSimilarityScore() > plagiarismResult.getSimilarityScore())) {
+                            plagiarismResult = currentResult;
+                        }
+                    } catch (Exception e) {
+                        log.error("Failed to process archive file {}: {}", file.getOriginalFilename(), e.getMessage());
+                    }
                 }
             }
 
             if (combinedEmbeddings != null) {
                 String embeddingsJson = imageEmbeddingService.serializeEmbeddings(combinedEmbeddings);
                 answer.setImageEmbeddings(embeddingsJson);
+                plagiarismService.indexImageEmbeddings(answer.getQuestionId(), answer.getId(), combinedEmbeddings);
 
                 log.info("Saving embeddings for answer {} (dimensions: {})",
                            answer.getId(), combinedEmbeddings.length);
@@ -517,19 +622,4 @@ public class AnswerService {
             log.error("Error during plagiarism check for answer {}: {}", answer.getId(), e.getMessage());
         }
     }
-
-    // Average two embedding vectors element-wise
-    private double[] combineEmbeddings(double[] embedding1, double[] embedding2) {
-        if (embedding1.length != embedding2.length) {
-            log.warn("Embedding dimensions mismatch: {} vs {}", embedding1.length, embedding2.length);
-            return embedding1;
-        }
-
-        double[] combined = new double[embedding1.length];
-        for (int i = 0; i < embedding1.length; i++) {
-            combined[i] = (embedding1[i] + embedding2[i]) / 2.0;
-        }
-        return combined;
-    }
-
 }
@@ -0,0 +1,346 @@
+package com.questionbank.QuestionBank.service;
+
+import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.service.plagiarism.ImageEmbedder;
+import com.questionbank.QuestionBank.util.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Streams zip uploads entry by entry in memory and runs plagiarism analysis on their contents
+@Service
+public class ArchiveInspectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveInspectionService.class);
+
+    private final PlagiarismService plagiarismService;
+    private final MediaService mediaService;
+    private final ImageEmbedder imageEmbedder;
+    private final ExecutorService archiveExecutor;
+
+    @Value("${media.archive.max-entries:200}")
+    private int maxEntries;
+
+    @Value("${media.archive.max-entry-size:20971520}")
+    private long maxEntrySize;
+
+    @Value("${media.archive.max-total-size:104857600}")
+    private long maxTotalSize;
+
+    @Value("${media.archive.max-compression-ratio:100}")
+    private int maxCompressionRatio;
+
+    @Value("${media.archive.timeout-seconds:30}")
+    private int timeoutSeconds;
+
+    @Value("${media.archive.parallelism:4}")
+    private int parallelism;
+
+    @Autowired
+    public ArchiveInspectionService(PlagiarismService plagiarismService,
+                                   MediaService mediaService,
+                                   ImageEmbedder imageEmbedder,
+                                   @Qualifier("archiveExecutor") ExecutorService archiveExecutor) {
+        this.plagiarismService = plagiarismService;
+        this.mediaService = mediaService;
+        this.imageEmbedder = imageEmbedder;
+        this.archiveExecutor = archiveExecutor;
+    }
+
+    public ArchiveResult inspect(MultipartFile archive, Answer answer) {
+        ArchiveResult archiveResult = new ArchiveResult();
+
+        if (Utils.Files.isRarFile(archive)) {
+            log.warn("RAR archive {} cannot be streamed without extraction, skipping content analysis",
+                       archive.getOriginalFilename());
+            archiveResult.stopReason = "unsupported-format";
+            return archiveResult;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        // Caps in-flight entries so a fast reader cannot buffer the whole archive ahead of the workers
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        List<Future<EntryResult>> futures = new ArrayList<>();
+        long archiveSize = Math.max(1, archive.getSize());
+
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (archiveResult.entriesSeen >= maxEntries) {
+                    archiveResult.stopReason = "max-entries";
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    archiveResult.stopReason = "timeout";
+                    break;
+                }
+                archiveResult.entriesSeen++;
+
+                String name = entry.getName();
+                EntryKind kind = classify(name);
+
+                // Skipped entries are still inflated by getNextEntry, so they are drained under the same budget
+                byte[] bytes = readBounded(zip, kind != null, deadline, archiveSize, archiveResult);
+                if (archiveResult.stopReason != null) {
+                    break;
+                }
+                if (bytes == null) {
+                    archiveResult.entriesSkipped++;
+                    continue;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !inFlight.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                    archiveResult.stopReason = "timeout";
+                    break;
+                }
+                futures.add(archiveExecutor.submit(() -> {
+                    try {
+                        return analyzeEntry(name, kind, bytes, answer);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            archiveResult.stopReason = "interrupted";
+        } catch (IOException e) {
+            log.error("Failed to read archive {}: {}", archive.getOriginalFilename(), e.getMessage());
+            archiveResult.stopReason = "read-error";
+        }
+
+        collect(futures, deadline, archiveResult);
+
+        log.info("Archive {} inspected: {} entries seen, {} analysed, {} skipped, {} bytes expanded{}",
+                   archive.getOriginalFilename(), archiveResult.entriesSeen, archiveResult.entriesAnalysed,
+                   archiveResult.entriesSkipped, archiveResult.expandedBytes,
+                   archiveResult.stopReason != null ? ", stopped: " + archiveResult.stopReason : "");
+        return archiveResult;
+    }
+
+    // Image content of a stored archive decoded as inspect() embeds it (images as-is, first/last PDF pages) under the
+    // same limits, so another model can re-embed it; a walk cut short by the deadline is an error, not a smaller answer
+    public List<byte[]> extractImages(MultipartFile archive) throws IOException {
+        List<byte[]> images = new ArrayList<>();
+        if (Utils.Files.isRarFile(archive)) {
+            return images;
+        }
+
+        ArchiveResult walk = new ArchiveResult();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        long archiveSize = Math.max(1, archive.getSize());
+
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (walk.entriesSeen >= maxEntries) {
+                    break;
+                }
+                walk.entriesSeen++;
+
+                String name = entry.getName();
+                EntryKind kind = classify(name);
+                byte[] bytes = readBounded(zip, kind == EntryKind.IMAGE || kind == EntryKind.PDF, deadline, archiveSize, walk);
+                if (walk.stopReason != null) {
+                    break;
+                }
+                if (bytes == null) {
+                    continue;
+                }
+                if (kind == EntryKind.IMAGE) {
+                    images.add(bytes);
+                } else {
+                    images.addAll(mediaService.extractPdfPages(Utils.Files.inMemoryFile(bytes, name, "application/pdf"), true, true));
+                }
+            }
+        }
+
+        if ("timeout".equals(walk.stopReason) || System.nanoTime() > deadline) {
+            throw new IOException("Archive " + archive.getOriginalFilename() + " could not be read within " + timeoutSeconds + "s");
+        }
+        return images;
+    }
+
+    private void collect(List<Future<EntryResult>> futures, long deadline, ArchiveResult archiveResult) {
+        for (Future<EntryResult> future : futures) {
+            long remaining = deadline - System.nanoTime();
+            try {
+                if (remaining <= 0) {
+                    throw new TimeoutException();
+                }
+                EntryResult entryResult = future.get(remaining, TimeUnit.NANOSECONDS);
+                archiveResult.entriesAnalysed++;
+                archiveResult.imageEmbeddings.addAll(entryResult.imageEmbeddings);
+                if (entryResult.result != null && (archiveResult.best == null ||
+                        entryResult.result.getSimilarityScore() > archiveResult.best.getSimilarityScore())) {
+                    archiveResult.best = entryResult.result;
+                    archiveResult.bestEntry = entryResult.name;
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                archiveResult.stopReason = "timeout";
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.warn("Archive entry analysis failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+        }
+    }
+
+    private EntryResult analyzeEntry(String name, EntryKind kind, byte[] bytes, Answer answer) throws IOException {
+        EntryResult entryResult = new EntryResult(name);
+
+        switch (kind) {
+            case IMAGE:
+                addImage(entryResult, bytes, answer);
+                break;
+            case PDF:
+                MultipartFile pdf = Utils.Files.inMemoryFile(bytes, name, "application/pdf");
+                for (byte[] page : mediaService.extractPdfPages(pdf, true, true)) {
+                    addImage(entryResult, page, answer);
+                }
+                break;
+            case DOCX:
+                MultipartFile docx = Utils.Files.inMemoryFile(bytes, name,
+                    "application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+                addText(entryResult, mediaService.extractDocxText(docx), answer);
+                break;
+            case CODE:
+                addText(entryResult, new String(bytes, StandardCharsets.UTF_8), answer);
+                break;
+        }
+        return entryResult;
+    }
+
+    private void addImage(EntryResult entryResult, byte[] imageBytes, Answer answer) throws IOException {
+        double[] embeddings = imageEmbedder.extractImageFeatures(imageBytes);
+        entryResult.imageEmbeddings.add(embeddings);
+        entryResult.keepBest(plagiarismService.detectImagePlagiarism(embeddings, answer.getQuestionId(), answer.getId()));
+    }
+
+    private void addText(EntryResult entryResult, String text, Answer answer) {
+        if (text == null || text.trim().isEmpty()) {
+            return;
+        }
+        entryResult.keepBest(plagiarismService.detectTextPlagiarism(text, answer.getQuestionId(), answer.getId(), false));
+    }
+
+    // Inflate one entry, charging every byte to the archive's total size, compression ratio and deadline.
+    // Returns the entry when it is kept and fits maxEntrySize; otherwise it is drained and null is returned.
+    // Exceeding an archive-wide limit sets the stop reason
+    private byte[] readBounded(InputStream in, boolean keep, long deadline, long archiveSize,
+                               ArchiveResult archiveResult) throws IOException {
+        ByteArrayOutputStream out = keep ? new ByteArrayOutputStream() : null;
+        byte[] buffer = new byte[8192];
+        long entryBytes = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            entryBytes += read;
+            archiveResult.expandedBytes += read;
+            if (archiveResult.expandedBytes > maxTotalSize) {
+                archiveResult.stopReason = "max-expanded-size";
+                return null;
+            }
+            if (archiveResult.expandedBytes / archiveSize > maxCompressionRatio) {
+                archiveResult.stopReason = "compression-ratio";
+                return null;
+            }
+            if (System.nanoTime() > deadline) {
+                archiveResult.stopReason = "timeout";
+                return null;
+            }
+            if (out != null) {
+                if (entryBytes > maxEntrySize) {
+                    out = null;
+                } else {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }
+        return out != null ? out.toByteArray() : null;
+    }
+
+    private EntryKind classify(String name) {
+        String lowerName = name.toLowerCase();
+        if (Utils.Files.isImageFile(lowerName)) return EntryKind.IMAGE;
+        if (lowerName.endsWith(".pdf")) return EntryKind.PDF;
+        if (lowerName.endsWith(".docx")) return EntryKind.DOCX;
+        if (Utils.Files.isCodeFile(lowerName)) return EntryKind.CODE;
+        return null;
+    }
+
+    private enum EntryKind {
+        IMAGE, PDF, DOCX, CODE
+    }
+
+    private static class EntryResult {
+        private final String name;
+        private final List<double[]> imageEmbeddings = new ArrayList<>();
+        private PlagiarismService.PlagiarismResult result;
+
+        private EntryResult(String name) {
+            this.name = name;
+        }
+
+        private void keepBest(PlagiarismService.PlagiarismResult candidate) {
+            if (candidate != null && (result == null || candidate.getSimilarityScore() > result.getSimilarityScore())) {
+                result = candidate;
+            }
+        }
+    }
+
+    public static class ArchiveResult {
+        private final List<double[]> imageEmbeddings = new ArrayList<>();
+        private PlagiarismService.PlagiarismResult best;
+        private String bestEntry;
+        private int entriesSeen;
+        private int entriesAnalysed;
+        private int entriesSkipped;
+        private long expandedBytes;
+        private String stopReason;
+
+        public List<double[]> getImageEmbeddings() { return imageEmbeddings; }
+        public String getStopReason() { return stopReason; }
+
+        // Best entry's plagiarism result, annotated with a summary of the archive walk
+        public PlagiarismService.PlagiarismResult getPlagiarismResult() {
+            if (best == null) {
+                return null;
+            }
+            Map<String, Object> archiveDetails = new HashMap<>();
+            archiveDetails.put("matchedEntry", bestEntry);
+            archiveDetails.put("entriesSeen", entriesSeen);
+            archiveDetails.put("entriesAnalysed", entriesAnalysed);
+            archiveDetails.put("entriesSkipped", entriesSkipped);
+            archiveDetails.put("expandedBytes", expandedBytes);
+            if (stopReason != null) {
+                archiveDetails.put("stopReason", stopReason);
+            }
+
+            Map<String, Object> details = new HashMap<>(best.getDetails());
+            details.put("archive", archiveDetails);
+            return new PlagiarismService.PlagiarismResult(best.getSimilarityScore(), best.isPlagiarized(), details);
+        }
+    }
+}
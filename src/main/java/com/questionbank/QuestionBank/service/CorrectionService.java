@@ -1,11 +1,15 @@
 package com.questionbank.QuestionBank.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.questionbank.QuestionBank.entity.Answer;
 import com.questionbank.QuestionBank.entity.Question;
 import com.questionbank.QuestionBank.entity.QuestionType;
-import com.questionbank.QuestionBank.util.Utils;
+import com.questionbank.QuestionBank.service.ai.DerivedGrader;
+import com.questionbank.QuestionBank.service.correction.AnswerKey;
+import com.questionbank.QuestionBank.service.correction.AnswerKeyCache;
+import com.questionbank.QuestionBank.service.correction.AnswerPayload;
+import com.questionbank.QuestionBank.service.correction.AnswerPayloadReader;
+import com.questionbank.QuestionBank.service.correction.Bitmask;
+import com.questionbank.QuestionBank.service.correction.OrderMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +17,6 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -24,17 +27,23 @@ public class CorrectionService {
 
     private static final Logger log = LoggerFactory.getLogger(CorrectionService.class);
 
-    private final ObjectMapper objectMapper;
     private final CodeCompilationService codeCompilationService;
     private final AiCorrectionService aiCorrectionService;
+    private final AnswerKeyCache answerKeyCache;
+    private final AnswerPayloadReader payloadReader;
+    private final DerivedGrader derivedGrader;
 
     @Autowired
-    public CorrectionService(ObjectMapper objectMapper,
-                           CodeCompilationService codeCompilationService,
-                           @Lazy AiCorrectionService aiCorrectionService) {
-        this.objectMapper = objectMapper;
+    public CorrectionService(CodeCompilationService codeCompilationService,
+                           @Lazy AiCorrectionService aiCorrectionService,
+                           AnswerKeyCache answerKeyCache,
+                           AnswerPayloadReader payloadReader,
+                           DerivedGrader derivedGrader) {
         this.codeCompilationService = codeCompilationService;
         this.aiCorrectionService = aiCorrectionService;
+        this.answerKeyCache = answerKeyCache;
+        this.payloadReader = payloadReader;
+        this.derivedGrader = derivedGrader;
     }
 
     private void setAnswerResult(Answer answer, boolean isCorrect, double score, double maxScore, String feedback) {
@@ -72,64 +81,60 @@ public class CorrectionService {
         return feedback.toString().trim();
     }
 
-    // Parse JSON array or fallback to comma-separated values
-    private List<String> parseJsonArray(String content) {
-        List<String> result = new ArrayList<>();
-        try {
-            JsonNode node = objectMapper.readTree(content.trim());
-            if (node.isArray()) {
-                for (JsonNode item : node) {
-                    result.add(item.asText().trim());
-                }
-            } else {
-                result.add(node.asText().trim());
-            }
-        } catch (Exception e) {
-            for (String part : content.split(",")) {
-                result.add(part.trim());
-            }
+    // Order-based modes credit relative order, so only the misplaced positions are listed
+    private String buildOrderFeedback(String summary, double score, double maxScore, List<String> incorrectDetails) {
+        StringBuilder feedback = new StringBuilder(summary);
+        feedback.append(String.format(" Score: %.1f/%.1f\n", score, maxScore));
+        if (!incorrectDetails.isEmpty()) {
+            feedback.append("Misplaced: ").append(String.join(", ", incorrectDetails));
         }
-        return result;
+        return feedback.toString().trim();
     }
 
     private double calculatePartialScore(int correctCount, int totalCount, double maxPoints) {
         return (double) correctCount / totalCount * maxPoints;
     }
 
-    private JsonNode parseConfig(Question question) throws Exception {
-        JsonNode config = Utils.Json.parseConfigurationData(question.getConfigurationData(), objectMapper);
-        if (config == null) {
-            throw new IllegalArgumentException("Invalid configuration");
-        }
-        return config;
+    public void autoScoreAnswer(Answer answer, Question question) {
+        autoScoreAnswer(answer, question, answerKeyCache.get(question));
     }
 
-    public void autoScoreAnswer(Answer answer, Question question) {
+    // Score a submission whose content was already parsed while validating it
+    public void autoScoreAnswer(Answer answer, Question question, AnswerPayload payload) {
+        autoScoreAnswer(answer, question, answerKeyCache.get(question), payload);
+    }
+
+    // Score against an already compiled key, e.g. when rescoring many answers to the same question
+    public void autoScoreAnswer(Answer answer, Question question, AnswerKey key) {
+        autoScoreAnswer(answer, question, key, payloadReader.read(question.getType(), answer.getContent()));
+    }
+
+    public void autoScoreAnswer(Answer answer, Question question, AnswerKey key, AnswerPayload payload) {
         try {
             switch (question.getType()) {
                 case MCQ:
-                    scoreMCQAnswer(answer, question);
+                    scoreMCQAnswer(answer, question, key, payload);
                     break;
                 case TRUE_FALSE:
-                    scoreTrueFalseAnswer(answer, question);
+                    scoreTrueFalseAnswer(answer, question, key);
                     break;
                 case MATCHING:
-                    scoreMatchingAnswer(answer, question);
+                    scoreMatchingAnswer(answer, question, key, payload);
                     break;
                 case FILL_IN_BLANK:
-                    scoreFillInBlankAnswer(answer, question);
+                    scoreFillInBlankAnswer(answer, question, key, payload);
                     break;
                 case REARRANGE:
-                    scoreRearrangeAnswer(answer, question);
+                    scoreRearrangeAnswer(answer, question, key, payload);
                     break;
                 case SLIDER:
-                    scoreSliderAnswer(answer, question);
+                    scoreSliderAnswer(answer, question, key, payload);
                     break;
                 case PUZZLE:
-                    scorePuzzleAnswer(answer, question);
+                    scorePuzzleAnswer(answer, question, key, payload);
                     break;
                 case SELECT_ON_PHOTO:
-                    scoreSelectOnPhotoAnswer(answer, question);
+                    scoreSelectOnPhotoAnswer(answer, question, key, payload);
                     break;
                 default:
                     break;
@@ -141,112 +146,77 @@ public class CorrectionService {
     }
 
     // Score MCQ answers with partial credit for multi-select questions
-    private void scoreMCQAnswer(Answer answer, Question question) {
+    private void scoreMCQAnswer(Answer answer, Question question, AnswerKey key, AnswerPayload payload) {
         try {
-            JsonNode configNode = parseConfig(question);
-            JsonNode optionsNode = configNode.get("options");
-            if (optionsNode == null || !optionsNode.isObject()) return;
-
-            List<String> correctChoiceIds = new ArrayList<>();
-            List<String> correctAnswerTexts = new ArrayList<>();
-            Map<String, String> choiceIdToTextMap = new HashMap<>();
-            Map<String, String> textToChoiceIdMap = new HashMap<>();
-
-            optionsNode.fields().forEachRemaining(entry -> {
-                String choiceId = entry.getKey();
-                JsonNode option = entry.getValue();
-                String optionText = option.get("text").asText();
-
-                choiceIdToTextMap.put(choiceId, optionText);
-                textToChoiceIdMap.put(optionText, choiceId);
-
-                if (option.has("correct") && option.get("correct").asBoolean()) {
-                    correctChoiceIds.add(choiceId);
-                    correctAnswerTexts.add(optionText);
+            if (key.isMalformed()) {
+                throw new IllegalArgumentException("Invalid configuration");
+            }
+            AnswerKey.Choices choices = key.getChoices();
+            if (choices == null || choices.getCorrectCount() == 0) return;
+
+            long[] selected = choices.newSelection();
+            List<String> unknownIds = new ArrayList<>(0);
+            int selectionCount = 0;
+            for (int i = 0; i < payload.size(); i++) {
+                String value = payload.value(i);
+                int index = choices.indexOfId(value);
+                if (index < 0 && !payload.isJson()) {
+                    // Comma-separated answers may name options by text; unknown entries are ignored
+                    index = choices.indexOfText(value);
+                    if (index < 0) continue;
                 }
-            });
-
-            if (correctChoiceIds.isEmpty()) return;
-
-            List<String> studentChoiceIds = new ArrayList<>();
-            try {
-                JsonNode studentAnswerArray = objectMapper.readTree(answer.getContent().trim());
-                if (studentAnswerArray.isArray()) {
-                    studentAnswerArray.forEach(node -> studentChoiceIds.add(node.asText()));
+                selectionCount++;
+                if (index >= 0) {
+                    Bitmask.set(selected, index);
                 } else {
-                    studentChoiceIds.add(studentAnswerArray.asText());
-                }
-            } catch (Exception e) {
-                for (String studentAns : answer.getContent().split(",")) {
-                    String trimmed = studentAns.trim();
-                    if (choiceIdToTextMap.containsKey(trimmed)) {
-                        studentChoiceIds.add(trimmed);
-                    } else if (textToChoiceIdMap.containsKey(trimmed)) {
-                        studentChoiceIds.add(textToChoiceIdMap.get(trimmed));
-                    }
+                    unknownIds.add(value);
                 }
             }
 
-            // Single-select MCQ: all or nothing scoring
-            if (correctChoiceIds.size() == 1) {
-                boolean isCorrect = studentChoiceIds.size() == 1 &&
-                                  studentChoiceIds.get(0).equals(correctChoiceIds.get(0));
-                setAnswerResult(answer, isCorrect, isCorrect ? question.getPoints() : 0.0,
-                    question.getPoints(), isCorrect ? "Correct answer!" :
-                    "Incorrect answer. The correct answer is: " + correctAnswerTexts.get(0));
-            } else {
-                // Multi-select MCQ: partial credit based on correct selections
-                int correctCount = 0;
-                List<String> correctAnswers = new ArrayList<>();
-                List<String> incorrectAnswers = new ArrayList<>();
-                List<String> missingAnswers = new ArrayList<>();
-
-                for (String studentId : studentChoiceIds) {
-                    if (correctChoiceIds.contains(studentId)) {
-                        correctCount++;
-                        correctAnswers.add(choiceIdToTextMap.get(studentId));
-                    } else {
-                        incorrectAnswers.add(choiceIdToTextMap.get(studentId));
-                    }
-                }
+            double points = question.getPoints();
 
-                for (String correctId : correctChoiceIds) {
-                    if (!studentChoiceIds.contains(correctId)) {
-                        missingAnswers.add(choiceIdToTextMap.get(correctId));
-                    }
-                }
+            // Single-select MCQ: all or nothing scoring, and exactly one selection even if it repeats the right option
+            if (choices.getCorrectCount() == 1) {
+                boolean isCorrect = selectionCount == 1 && choices.isExactly(selected);
+                setAnswerResult(answer, isCorrect, isCorrect ? points : 0.0, points, isCorrect ? "Correct answer!" :
+                    "Incorrect answer. The correct answer is: " + choices.getCorrectTexts().get(0));
+                return;
+            }
 
-                double score = calculatePartialScore(correctCount, correctChoiceIds.size(), question.getPoints());
-                boolean fullyCorrect = correctCount == correctChoiceIds.size() && incorrectAnswers.isEmpty();
+            // Multi-select MCQ: partial credit based on correct selections
+            int total = choices.getCorrectCount();
+            int correctCount = choices.countCorrect(selected);
+            int incorrectCount = choices.countIncorrect(selected) + unknownIds.size();
+            double score = calculatePartialScore(correctCount, total, points);
 
-                if (fullyCorrect) {
-                    setAnswerResult(answer, true, score, question.getPoints(), "Perfect! All answers are correct.");
-                } else if (correctCount > 0) {
-                    String feedback = buildPartialFeedback(correctCount, correctChoiceIds.size(), score,
-                        question.getPoints(), correctAnswers, incorrectAnswers, missingAnswers);
-                    setAnswerResult(answer, false, score, question.getPoints(), feedback);
-                } else {
-                    setAnswerResult(answer, false, 0.0, question.getPoints(),
-                        "Incorrect. The correct answers are: " + String.join(", ", correctAnswerTexts));
-                }
+            if (correctCount == total && incorrectCount == 0) {
+                setAnswerResult(answer, true, score, points, "Perfect! All answers are correct.");
+            } else if (correctCount > 0) {
+                List<String> incorrectAnswers = choices.incorrectTexts(selected);
+                incorrectAnswers.addAll(unknownIds);
+                setAnswerResult(answer, false, score, points, buildPartialFeedback(correctCount, total, score, points,
+                    choices.correctTexts(selected), incorrectAnswers, choices.missingTexts(selected)));
+            } else {
+                setAnswerResult(answer, false, 0.0, points,
+                    "Incorrect. The correct answers are: " + String.join(", ", choices.getCorrectTexts()));
             }
         } catch (Exception e) {
             handleScoringError(answer, question, "MCQ");
         }
     }
 
-    private void scoreTrueFalseAnswer(Answer answer, Question question) {
-        String correctAnswer = extractCorrectAnswersFromQuestion(question);
-        if (correctAnswer == null || correctAnswer.trim().isEmpty()) {
+    private void scoreTrueFalseAnswer(Answer answer, Question question, AnswerKey key) {
+        AnswerKey.Statements statements = key.getStatements();
+        if (statements == null) {
             return;
         }
 
+        String correctAnswer = statements.getRaw();
         String studentAnswer = answer.getContent().trim();
 
-        String[] correctAnswers = correctAnswer.split(",");
         String[] studentAnswers = studentAnswer.split(",");
 
-        if (correctAnswers.length == 1) {
+        if (statements.size() == 1) {
             boolean isCorrect = studentAnswer.equalsIgnoreCase(correctAnswer.trim());
             answer.setCorrect(isCorrect);
             answer.setScore(isCorrect ? question.getPoints() : 0.0);
@@ -256,8 +226,8 @@ public class CorrectionService {
             boolean allCorrect = true;
             List<String> incorrectStatementDetails = new ArrayList<>();
 
-            for (int i = 0; i < Math.min(correctAnswers.length, studentAnswers.length); i++) {
-                String correctAns = correctAnswers[i].trim();
+            for (int i = 0; i < Math.min(statements.size(), studentAnswers.length); i++) {
+                String correctAns = statements.get(i);
                 String studentAns = studentAnswers[i].trim();
 
                 if (!correctAns.equalsIgnoreCase(studentAns)) {
@@ -285,41 +255,36 @@ public class CorrectionService {
         }
     }
 
-    private void scoreMatchingAnswer(Answer answer, Question question) {
+    private void scoreMatchingAnswer(Answer answer, Question question, AnswerKey key, AnswerPayload payload) {
         try {
-            JsonNode configNode = parseConfig(question);
-            JsonNode pairsNode = configNode.get("pairs");
-            if (pairsNode == null || !pairsNode.isArray()) return;
-
-            JsonNode studentAnswerNode;
-            try {
-                studentAnswerNode = objectMapper.readTree(answer.getContent().trim());
-            } catch (Exception e) {
+            if (key.isMalformed()) {
+                throw new IllegalArgumentException("Invalid configuration");
+            }
+            AnswerKey.Pairs pairs = key.getPairs();
+            if (pairs == null) return;
+
+            if (!payload.isJson()) {
                 setAnswerResult(answer, false, 0.0, question.getPoints(), "Invalid answer format. Expected JSON format.");
                 return;
             }
 
-            Map<Integer, JsonNode> correctPairsMap = new HashMap<>();
-            pairsNode.forEach(pairNode -> correctPairsMap.put(pairNode.get("pairNumber").asInt(), pairNode));
-
             int correctMatches = 0;
             List<String> correctDetails = new ArrayList<>();
             List<String> incorrectDetails = new ArrayList<>();
 
-            for (Map.Entry<Integer, JsonNode> entry : correctPairsMap.entrySet()) {
-                int pairNum = entry.getKey();
-                JsonNode correctPair = entry.getValue();
-                JsonNode studentPair = studentAnswerNode.get(String.valueOf(pairNum));
+            for (int i = 0; i < pairs.size(); i++) {
+                int pairNum = pairs.getNumber(i);
+                String[] studentPair = payload.getPair(String.valueOf(pairNum));
 
-                String correctCol1 = correctPair.get("column_1").asText();
-                String correctCol2 = correctPair.get("column_2").asText();
-                boolean hasCol3 = correctPair.has("column_3");
-                String correctCol3 = hasCol3 ? correctPair.get("column_3").asText() : "";
+                String correctCol1 = pairs.getColumn(i, 0);
+                String correctCol2 = pairs.getColumn(i, 1);
+                boolean hasCol3 = pairs.hasThirdColumn(i);
+                String correctCol3 = pairs.getColumn(i, 2);
 
-                if (studentPair != null && studentPair.isObject()) {
-                    String studentCol1 = studentPair.has("column_1") ? studentPair.get("column_1").asText() : "";
-                    String studentCol2 = studentPair.has("column_2") ? studentPair.get("column_2").asText() : "";
-                    String studentCol3 = studentPair.has("column_3") ? studentPair.get("column_3").asText() : "";
+                if (studentPair != null) {
+                    String studentCol1 = studentPair[0];
+                    String studentCol2 = studentPair[1];
+                    String studentCol3 = studentPair[2];
 
                     boolean matches = hasCol3 ?
                         (correctCol1.equalsIgnoreCase(studentCol1) && correctCol2.equalsIgnoreCase(studentCol2) && correctCol3.equalsIgnoreCase(studentCol3)) :
@@ -340,136 +305,107 @@ public class CorrectionService {
                 }
             }
 
-            double score = calculatePartialScore(correctMatches, correctPairsMap.size(), question.getPoints());
-            String feedback = buildPartialFeedback(correctMatches, correctPairsMap.size(), score,
+            double score = calculatePartialScore(correctMatches, pairs.size(), question.getPoints());
+            String feedback = buildPartialFeedback(correctMatches, pairs.size(), score,
                 question.getPoints(), correctDetails, incorrectDetails, null);
-            setAnswerResult(answer, correctMatches == correctPairsMap.size(), score, question.getPoints(), feedback);
+            setAnswerResult(answer, correctMatches == pairs.size(), score, question.getPoints(), feedback);
 
         } catch (Exception e) {
             handleScoringError(answer, question, "matching");
         }
     }
 
-    private void scoreFillInBlankAnswer(Answer answer, Question question) {
-        String correctAnswers = extractCorrectAnswersFromQuestion(question);
-        if (correctAnswers == null || correctAnswers.trim().isEmpty()) return;
-
-        String[] correctOptions = correctAnswers.split(",");
-        List<String> studentAnswers = new ArrayList<>();
-
-        try {
-            JsonNode studentNode = objectMapper.readTree(answer.getContent().trim());
-            if (studentNode.isObject()) {
-                for (int i = 0; i < correctOptions.length; i++) {
-                    JsonNode answerNode = studentNode.get(String.valueOf(i));
-                    studentAnswers.add(answerNode != null && answerNode.isTextual() ? answerNode.asText().trim() : "");
-                }
-            } else {
-                throw new Exception("Not JSON object");
-            }
-        } catch (Exception e) {
-            for (String ans : answer.getContent().split(",")) {
-                studentAnswers.add(ans.trim());
-            }
-        }
-
-        while (studentAnswers.size() < correctOptions.length) {
-            studentAnswers.add("");
-        }
+    private void scoreFillInBlankAnswer(Answer answer, Question question, AnswerKey key, AnswerPayload payload) {
+        AnswerKey.Blanks blanks = key.getBlanks();
+        if (blanks == null) return;
 
         int correctCount = 0;
         List<String> correctDetails = new ArrayList<>();
         List<String> incorrectDetails = new ArrayList<>();
 
-        for (int i = 0; i < correctOptions.length; i++) {
-            String correctOption = correctOptions[i].trim();
-            String studentAnswer = studentAnswers.get(i);
-
-            boolean isCorrect = correctOption.contains("|") ?
-                java.util.Arrays.stream(correctOption.split("\\|")).anyMatch(opt -> studentAnswer.equalsIgnoreCase(opt.trim())) :
-                studentAnswer.equalsIgnoreCase(correctOption);
+        for (int i = 0; i < blanks.size(); i++) {
+            String studentAnswer = payload.value(i);
 
-            if (isCorrect) {
+            if (blanks.accepts(i, studentAnswer)) {
                 correctCount++;
                 correctDetails.add(String.format("Blank %d: %s", i + 1, studentAnswer));
             } else {
                 incorrectDetails.add(studentAnswer.isEmpty() ?
-                    String.format("Blank %d: (empty) - expected: %s", i + 1, correctOption.replace("|", " or ")) :
-                    String.format("Blank %d: %s - expected: %s", i + 1, studentAnswer, correctOption.replace("|", " or ")));
+                    String.format("Blank %d: (empty) - expected: %s", i + 1, blanks.getExpected(i)) :
+                    String.format("Blank %d: %s - expected: %s", i + 1, studentAnswer, blanks.getExpected(i)));
             }
         }
 
-        double score = calculatePartialScore(correctCount, correctOptions.length, question.getPoints());
-        boolean fullyCorrect = correctCount == correctOptions.length;
+        double score = calculatePartialScore(correctCount, blanks.size(), question.getPoints());
+        boolean fullyCorrect = correctCount == blanks.size();
 
         if (fullyCorrect) {
             setAnswerResult(answer, true, score, question.getPoints(), "Perfect! All answers are correct.");
         } else if (correctCount > 0) {
-            String feedback = buildPartialFeedback(correctCount, correctOptions.length, score,
+            String feedback = buildPartialFeedback(correctCount, blanks.size(), score,
                 question.getPoints(), correctDetails, incorrectDetails, null);
             setAnswerResult(answer, false, score, question.getPoints(), feedback);
         } else {
             setAnswerResult(answer, false, 0.0, question.getPoints(),
-                "Incorrect. The correct answers are: " + correctAnswers.replace(",", ", ").replace("|", " or "));
+                "Incorrect. The correct answers are: " + blanks.getSummary());
         }
     }
 
-    private void scoreRearrangeAnswer(Answer answer, Question question) {
-        String correctOrder = extractCorrectAnswersFromQuestion(question);
-        if (correctOrder == null || correctOrder.trim().isEmpty()) return;
+    private void scoreRearrangeAnswer(Answer answer, Question question, AnswerKey key, AnswerPayload payload) {
+        AnswerKey.Sequence sequence = key.getSequence();
+        if (sequence == null) return;
 
         try {
-            List<String> correctItems = java.util.Arrays.stream(correctOrder.split(","))
-                .map(String::trim).collect(java.util.stream.Collectors.toList());
-
-            List<String> studentItems = new ArrayList<>();
-            try {
-                JsonNode studentArray = objectMapper.readTree(answer.getContent().trim());
-                if (studentArray.isArray()) {
-                    List<JsonNode> sortedItems = new ArrayList<>();
-                    studentArray.forEach(sortedItems::add);
-                    sortedItems.sort((a, b) -> Integer.compare(
-                        a.has("position") ? a.get("position").asInt() : 0,
-                        b.has("position") ? b.get("position").asInt() : 0));
-
-                    sortedItems.forEach(item -> studentItems.add(
-                        item.has("item") ? item.get("item").asText().trim() : ""));
-                } else {
-                    throw new Exception("Not JSON array");
-                }
-            } catch (Exception e) {
-                for (String item : answer.getContent().split(",")) {
-                    studentItems.add(item.trim());
-                }
-            }
-
+            int[] positions = sequence.permutation(payload);
             int correctCount = 0;
             List<String> correctDetails = new ArrayList<>();
             List<String> incorrectDetails = new ArrayList<>();
 
-            for (int i = 0; i < Math.min(correctItems.size(), studentItems.size()); i++) {
-                if (correctItems.get(i).equalsIgnoreCase(studentItems.get(i))) {
+            for (int i = 0; i < Math.min(sequence.size(), payload.size()); i++) {
+                if (sequence.matchesAt(i, positions[i])) {
                     correctCount++;
-                    correctDetails.add(String.format("Position %d: '%s'", i + 1, correctItems.get(i)));
+                    correctDetails.add(String.format("Position %d: '%s'", i + 1, sequence.get(i)));
                 } else {
                     incorrectDetails.add(String.format("Position %d: Expected '%s', Got '%s'",
-                        i + 1, correctItems.get(i), studentItems.get(i)));
+                        i + 1, sequence.get(i), payload.value(i)));
                 }
             }
 
-            double score = calculatePartialScore(correctCount, correctItems.size(), question.getPoints());
-            String feedback = buildPartialFeedback(correctCount, correctItems.size(), score,
-                question.getPoints(), correctDetails, incorrectDetails, null);
-            setAnswerResult(answer, correctCount == correctItems.size(), score, question.getPoints(), feedback);
+            boolean fullyCorrect = correctCount == sequence.size();
+            switch (sequence.getScoring()) {
+                case LIS: {
+                    int inOrder = OrderMetrics.longestIncreasingSubsequence(sequence.ranks(payload), sequence.size());
+                    double score = fullyCorrect ? question.getPoints() :
+                        calculatePartialScore(inOrder, sequence.size(), question.getPoints());
+                    String feedback = buildOrderFeedback(String.format("%d of %d items are in the correct relative order.",
+                        inOrder, sequence.size()), score, question.getPoints(), incorrectDetails);
+                    setAnswerResult(answer, fullyCorrect, score, question.getPoints(), feedback);
+                    break;
+                }
+                case KENDALL: {
+                    double agreement = OrderMetrics.kendallAgreement(sequence.ranks(payload), sequence.size());
+                    double score = fullyCorrect ? question.getPoints() : agreement * question.getPoints();
+                    String feedback = buildOrderFeedback(String.format("%.0f%% of item pairs are in the correct order.",
+                        agreement * 100), score, question.getPoints(), incorrectDetails);
+                    setAnswerResult(answer, fullyCorrect, score, question.getPoints(), feedback);
+                    break;
+                }
+                default: {
+                    double score = calculatePartialScore(correctCount, sequence.size(), question.getPoints());
+                    String feedback = buildPartialFeedback(correctCount, sequence.size(), score,
+                        question.getPoints(), correctDetails, incorrectDetails, null);
+                    setAnswerResult(answer, fullyCorrect, score, question.getPoints(), feedback);
+                }
+            }
 
         } catch (Exception e) {
             handleScoringError(answer, question, "rearrange");
         }
     }
 
-    private void scoreSliderAnswer(Answer answer, Question question) {
-        String correctValue = extractCorrectAnswersFromQuestion(question);
-        if (correctValue == null || correctValue.trim().isEmpty()) {
+    private void scoreSliderAnswer(Answer answer, Question question, AnswerKey key, AnswerPayload payload) {
+        AnswerKey.Range slider = key.getRange();
+        if (slider == null) {
             answer.setCorrect(false);
             answer.setScore(0.0);
             answer.setMaxScore(question.getPoints());
@@ -478,14 +414,19 @@ public class CorrectionService {
         }
 
         try {
-            double studentValue = Double.parseDouble(answer.getContent().trim());
-            double correctValueDouble = Double.parseDouble(correctValue.trim());
+            if (payload.getNumber() == null) {
+                throw new NumberFormatException(payload.getError());
+            }
+            double studentValue = payload.getNumber();
+            if (slider.getCorrect() == null) {
+                throw new NumberFormatException("Invalid correct value: " + slider.getCorrectValue());
+            }
+            double correctValueDouble = slider.getCorrect();
 
-            JsonNode configNode = Utils.Json.parseConfigurationData(question.getConfigurationData(), objectMapper);
-            double minValue = configNode.has("minValue") ? configNode.get("minValue").asDouble() : 0;
-            double maxValue = configNode.has("maxValue") ? configNode.get("maxValue").asDouble() : 100;
-            double step = configNode.has("step") ? configNode.get("step").asDouble() : 1.0;
-            String unit = configNode.has("unit") ? configNode.get("unit").asText() : "";
+            double minValue = slider.getMinValue();
+            double maxValue = slider.getMaxValue();
+            double step = slider.getStep();
+            String unit = slider.getUnit();
 
             double range = maxValue - minValue;
             double tolerance = Math.max(
@@ -536,43 +477,39 @@ public class CorrectionService {
         }
     }
 
-    private void scorePuzzleAnswer(Answer answer, Question question) {
-        String correctOrder = extractCorrectAnswersFromQuestion(question);
-        if (correctOrder == null || correctOrder.trim().isEmpty()) {
+    private void scorePuzzleAnswer(Answer answer, Question question, AnswerKey key, AnswerPayload payload) {
+        AnswerKey.Sequence sequence = key.getSequence();
+        if (sequence == null) {
             setAnswerResult(answer, false, 0.0, question.getPoints(), "No correct puzzle configuration found.");
             return;
         }
 
         try {
-            List<String> correctPieces = java.util.Arrays.stream(correctOrder.split(","))
-                .map(String::trim).collect(java.util.stream.Collectors.toList());
-            List<String> studentPieces = java.util.Arrays.stream(answer.getContent().split(","))
-                .map(String::trim).collect(java.util.stream.Collectors.toList());
-
-            if (studentPieces.size() != correctPieces.size()) {
+            if (payload.size() != sequence.size()) {
                 setAnswerResult(answer, false, 0.0, question.getPoints(),
-                    String.format("Incorrect number of pieces. Expected %d, got %d.", correctPieces.size(), studentPieces.size()));
+                    String.format("Incorrect number of pieces. Expected %d, got %d.", sequence.size(), payload.size()));
                 return;
             }
 
+            int[] positions = sequence.permutation(payload);
             int correctCount = 0;
             List<String> correctDetails = new ArrayList<>();
             List<String> incorrectDetails = new ArrayList<>();
 
-            for (int i = 0; i < correctPieces.size(); i++) {
-                if (correctPieces.get(i).equals(studentPieces.get(i))) {
+            for (int i = 0; i < sequence.size(); i++) {
+                if (sequence.matchesAt(i, positions[i])) {
                     correctCount++;
-                    correctDetails.add(String.format("Position %d: %s", i + 1, correctPieces.get(i)));
+                    correctDetails.add(String.format("Position %d: %s", i + 1, sequence.get(i)));
                 } else {
                     incorrectDetails.add(String.format("Position %d: Expected %s, got %s",
-                        i + 1, correctPieces.get(i), studentPieces.get(i)));
+                        i + 1, sequence.get(i), payload.value(i)));
                 }
             }
 
-            double score = calculatePartialScore(correctCount, correctPieces.size(), question.getPoints());
-            String feedback = buildPartialFeedback(correctCount, correctPieces.size(), score,
+            double score = calculatePartialScore(correctCount, sequence.size(), question.getPoints());
+            String feedback = buildPartialFeedback(correctCount, sequence.size(), score,
                 question.getPoints(), correctDetails, incorrectDetails, null);
-            setAnswerResult(answer, correctCount == correctPieces.size(), score, question.getPoints(), feedback);
+            setAnswerResult(answer, correctCount == sequence.size(), score, question.getPoints(), feedback);
 
         } catch (Exception e) {
             handleScoringError(answer, question, "puzzle");
@@ -586,6 +523,11 @@ public class CorrectionService {
         Boolean compilerIsCorrect = null;
         String compilerFeedback = null;
 
+        // A re-grade must not keep the audit trail of an earlier grade
+        answer.setCorrectionMethod(null);
+        answer.setDerivedFromAnswerId(null);
+        answer.setDerivedSimilarity(null);
+
         try {
 
             // For coding questions, compile and test code first
@@ -693,6 +635,16 @@ public class CorrectionService {
                 }
             }
 
+            // Near-paraphrases of an already AI-graded short essay reuse its grade instead of calling Mistral again
+            DerivedGrader.DerivedGrade derived = derivedGrader.derive(question, answer);
+            if (derived != null) {
+                setAnswerResult(answer, derived.isCorrect(), derived.getScore(), derived.getMaxScore(), derived.getFeedback());
+                answer.setCorrectionMethod(DerivedGrader.METHOD);
+                answer.setDerivedFromAnswerId(derived.getSourceAnswerId());
+                answer.setDerivedSimilarity(derived.getSimilarity());
+                return;
+            }
+
             // Get AI evaluation
             AiCorrectionService.AiCorrectionResult result = aiCorrectionService.correctAnswer(question, answer).get();
 
@@ -713,6 +665,7 @@ public class CorrectionService {
                 answer.setScore(result.getScore());
                 answer.setMaxScore(result.getMaxScore());
                 answer.setCorrect(result.isCorrect());
+                answer.setCorrectionMethod(result.getCorrectionMethod());
 
                 String currentFeedback = answer.getFeedback() != null ? answer.getFeedback() : "";
 
@@ -742,139 +695,42 @@ public class CorrectionService {
         }
     }
 
-    // Extract correct answers from question configuration based on question type
-    private String extractCorrectAnswersFromQuestion(Question question) {
-        if (question.getConfigurationData() == null || question.getConfigurationData().isEmpty()) return null;
-
+    private void scoreSelectOnPhotoAnswer(Answer answer, Question question, AnswerKey key, AnswerPayload payload) {
         try {
-            JsonNode config = Utils.Json.parseConfigurationData(question.getConfigurationData(), objectMapper);
-
-            switch (question.getType()) {
-                case MCQ:
-                    JsonNode options = config.get("options");
-                    if (options != null && options.isObject()) {
-                        List<String> correct = new ArrayList<>();
-                        options.fields().forEachRemaining(entry -> {
-                            JsonNode opt = entry.getValue();
-                            if (opt.has("correct") && opt.get("correct").asBoolean()) {
-                                correct.add(opt.get("text").asText());
-                            }
-                        });
-                        return correct.isEmpty() ? null : String.join(",", correct);
-                    }
-                    break;
-
-                case TRUE_FALSE:
-                    JsonNode tfNode = config.get("correctAnswer");
-                    return tfNode != null ? tfNode.asText() : null;
-
-                case SLIDER:
-                    JsonNode sliderNode = config.get("correctValue");
-                    return sliderNode != null ? sliderNode.asText() : null;
-
-                case FILL_IN_BLANK:
-                    JsonNode blanks = config.get("blanks");
-                    if (blanks != null && blanks.isArray()) {
-                        List<JsonNode> sorted = new ArrayList<>();
-                        blanks.forEach(sorted::add);
-                        sorted.sort((a, b) -> Integer.compare(
-                            a.has("index") ? a.get("index").asInt() : 0,
-                            b.has("index") ? b.get("index").asInt() : 0));
-
-                        List<String> results = new ArrayList<>();
-                        for (JsonNode blank : sorted) {
-                            JsonNode answers = blank.get("correctAnswers");
-                            if (answers != null && answers.isArray() && answers.size() > 0) {
-                                results.add(joinJsonArray(answers, "|"));
-                            }
-                        }
-                        return results.isEmpty() ? null : String.join(",", results);
-                    }
-                    break;
-
-                case REARRANGE:
-                    JsonNode orderNode = config.get("correctOrder");
-                    return (orderNode != null && orderNode.isArray()) ? joinJsonArray(orderNode, ",") : null;
-
-                case PUZZLE:
-                    JsonNode puzzleNode = config.get("correctAnswer");
-                    return (puzzleNode != null && puzzleNode.isArray()) ? joinJsonArray(puzzleNode, ",") : null;
-
-                case SELECT_ON_PHOTO:
-                    JsonNode blocksNode = config.get("selectedBlocks");
-                    return (blocksNode != null && blocksNode.isArray()) ? joinJsonArray(blocksNode, ",") : null;
-
-                default:
-                    break;
+            if (key.isMalformed()) {
+                throw new IllegalArgumentException("Invalid configuration");
             }
+            AnswerKey.Selection selection = key.getSelection();
+            if (selection == null) return;
 
-        } catch (Exception e) {
-            log.error("Error parsing question configuration: {}", e.getMessage());
-        }
-
-        return null;
-    }
-
-    private String joinJsonArray(JsonNode arrayNode, String delimiter) {
-        List<String> items = new ArrayList<>();
-        arrayNode.forEach(item -> items.add(item.asText()));
-        return String.join(delimiter, items);
-    }
-
-    private void scoreSelectOnPhotoAnswer(Answer answer, Question question) {
-        try {
-            JsonNode configNode = parseConfig(question);
-            JsonNode correctBlocksNode = configNode.get("selectedBlocks");
-            if (correctBlocksNode == null || !correctBlocksNode.isArray()) return;
-
-            List<String> correctBlocks = new ArrayList<>();
-            correctBlocksNode.forEach(block -> correctBlocks.add(block.asText()));
-
-            List<String> studentBlocks = new ArrayList<>();
-            try {
-                JsonNode studentNode = objectMapper.readTree(answer.getContent().trim());
-                if (studentNode.isArray()) {
-                    studentNode.forEach(block -> studentBlocks.add(block.asText()));
-                }
-            } catch (Exception e) {
+            long[] selected = selection.newSelection();
+            List<String> incorrectSelections = new ArrayList<>(0);
+            if (!payload.isJson()) {
                 setAnswerResult(answer, false, 0.0, question.getPoints(), "Invalid answer format");
                 return;
             }
-
-            int correctCount = 0;
-            List<String> correctSelections = new ArrayList<>();
-            List<String> incorrectSelections = new ArrayList<>();
-            List<String> missedSelections = new ArrayList<>();
-
-            for (String studentBlock : studentBlocks) {
-                if (correctBlocks.contains(studentBlock)) {
-                    correctCount++;
-                    correctSelections.add(studentBlock);
+            for (int i = 0; i < payload.size(); i++) {
+                int index = selection.indexOf(payload.value(i));
+                if (index >= 0) {
+                    Bitmask.set(selected, index);
                 } else {
-                    incorrectSelections.add(studentBlock);
-                }
-            }
-
-            for (String correctBlock : correctBlocks) {
-                if (!studentBlocks.contains(correctBlock)) {
-                    missedSelections.add(correctBlock);
+                    incorrectSelections.add(payload.value(i));
                 }
             }
 
-            double score;
-            boolean isCorrect = correctCount == correctBlocks.size() && incorrectSelections.isEmpty();
+            double points = question.getPoints();
+            int total = selection.size();
+            int correctCount = Bitmask.count(selected);
 
-            if (isCorrect) {
-                score = question.getPoints();
-                setAnswerResult(answer, true, score, question.getPoints(), "Perfect! All blocks selected correctly.");
+            if (correctCount == total && incorrectSelections.isEmpty()) {
+                setAnswerResult(answer, true, points, points, "Perfect! All blocks selected correctly.");
             } else if (correctCount > 0) {
-                double ratio = Math.max(0, (double)(correctCount - incorrectSelections.size()) / correctBlocks.size());
-                score = ratio * question.getPoints();
-                String feedback = buildPartialFeedback(correctCount, correctBlocks.size(), score,
-                    question.getPoints(), correctSelections, incorrectSelections, missedSelections);
-                setAnswerResult(answer, false, score, question.getPoints(), feedback);
+                double ratio = Math.max(0, (double)(correctCount - incorrectSelections.size()) / total);
+                double score = ratio * points;
+                setAnswerResult(answer, false, score, points, buildPartialFeedback(correctCount, total, score,
+                    points, selection.selectedBlocks(selected), incorrectSelections, selection.missingBlocks(selected)));
             } else {
-                setAnswerResult(answer, false, 0.0, question.getPoints(), "No correct blocks selected.");
+                setAnswerResult(answer, false, 0.0, points, "No correct blocks selected.");
             }
 
         } catch (Exception e) {
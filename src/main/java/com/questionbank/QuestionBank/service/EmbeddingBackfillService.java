@@ -0,0 +1,398 @@
+package com.questionbank.QuestionBank.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionbank.QuestionBank.dto.EmbeddingBackfillStatusDTO;
+import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.entity.EmbeddingBackfillCheckpoint;
+import com.questionbank.QuestionBank.exception.Validation;
+import com.questionbank.QuestionBank.repository.AnswerRepository;
+import com.questionbank.QuestionBank.repository.EmbeddingBackfillCheckpointRepository;
+import com.questionbank.QuestionBank.service.plagiarism.ImageEmbedder;
+import com.questionbank.QuestionBank.service.plagiarism.ModelState;
+import com.questionbank.QuestionBank.service.plagiarism.SimilarityIndex;
+import com.questionbank.QuestionBank.util.Utils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Resumable job that re-embeds stored image vectors with a target model, staging them until each question is complete
+@Service
+public class EmbeddingBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingBackfillService.class);
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    // A finished run whose target was not the live model; its vectors wait in image_embeddings_next
+    private static final String STAGED = "STAGED";
+
+    private static final long READY_POLL_MS = 1000;
+
+    private final AnswerRepository answerRepository;
+    private final EmbeddingBackfillCheckpointRepository checkpointRepository;
+    private final MediaService mediaService;
+    private final ArchiveInspectionService archiveInspectionService;
+    private final ImageEmbedder imageEmbedder;
+    private final SimilarityIndex similarityIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService workers;
+    private final ExecutorService coordinator;
+
+    @Value("${embedding.backfill.page-size:200}")
+    private int pageSize;
+
+    @Value("${embedding.backfill.max-answers-per-second:50}")
+    private int maxAnswersPerSecond;
+
+    @Value("${embedding.backfill.target.image.model.path:}")
+    private String targetModelPath;
+
+    @Value("${embedding.backfill.target.image.variant:fp32}")
+    private String targetVariant;
+
+    @Value("${embedding.backfill.promote-staged-on-ready:true}")
+    private boolean promoteStagedOnReady;
+
+    private volatile boolean running = false;
+    private volatile boolean stopRequested = false;
+    private volatile EmbeddingBackfillCheckpoint current;
+    private volatile long runStartNanos;
+    private volatile long runProcessed;
+    private volatile String lastError;
+
+    @Autowired
+    public EmbeddingBackfillService(AnswerRepository answerRepository,
+                                    EmbeddingBackfillCheckpointRepository checkpointRepository,
+                                    MediaService mediaService,
+                                    ArchiveInspectionService archiveInspectionService,
+                                    ImageEmbedder imageEmbedder,
+                                    SimilarityIndex similarityIndex,
+                                    JdbcTemplate jdbcTemplate,
+                                    ObjectMapper objectMapper,
+                                    @Qualifier("backfillExecutor") ExecutorService workers,
+                                    @Qualifier("backfillCoordinator") ExecutorService coordinator) {
+        this.answerRepository = answerRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.mediaService = mediaService;
+        this.archiveInspectionService = archiveInspectionService;
+        this.imageEmbedder = imageEmbedder;
+        this.similarityIndex = similarityIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.workers = workers;
+        this.coordinator = coordinator;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (promoteStagedOnReady) {
+            coordinator.submit(this::promoteStagedWhenReady);
+        }
+    }
+
+    public synchronized EmbeddingBackfillStatusDTO start() {
+        if (running) {
+            throw new Validation.ValidationException("Embedding backfill is already running");
+        }
+        running = true;
+        stopRequested = false;
+        lastError = null;
+        coordinator.submit(() -> run(targetModelPath, targetVariant));
+        return getStatus();
+    }
+
+    // Promotion step for a run staged against a model that was not live: once that model is serving, the run is
+    // replayed against it, which skips the staged answers and swaps each complete question's vectors in
+    private void promoteStagedWhenReady() {
+        try {
+            ModelState state;
+            while (!(state = imageEmbedder.getModelLoader().getState()).isReady()) {
+                // A manually started run is queued behind this task, so stop waiting for it
+                if (state == ModelState.DISABLED || state == ModelState.FAILED || running) {
+                    return;
+                }
+                Thread.sleep(READY_POLL_MS);
+            }
+
+            String liveVersion = imageEmbedder.getModelVersion();
+            boolean staged = checkpointRepository.findById(liveVersion)
+                .map(checkpoint -> STAGED.equals(checkpoint.getStatus()))
+                .orElse(false);
+            if (!staged) {
+                return;
+            }
+            synchronized (this) {
+                if (running) {
+                    return;
+                }
+                running = true;
+                stopRequested = false;
+                lastError = null;
+            }
+            log.info("Image model {} is live with staged backfill vectors, promoting them", liveVersion);
+            // A blank path targets the live model, whatever its variant
+            run("", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Could not check for staged backfill vectors: {}", e.getMessage());
+        }
+    }
+
+    // The running page finishes and is checkpointed; a later start resumes from the cursor
+    public EmbeddingBackfillStatusDTO stop() {
+        stopRequested = true;
+        return getStatus();
+    }
+
+    public EmbeddingBackfillStatusDTO getStatus() {
+        EmbeddingBackfillStatusDTO status = new EmbeddingBackfillStatusDTO();
+        EmbeddingBackfillCheckpoint checkpoint = current;
+        if (checkpoint == null) {
+            status.setState(running ? "RUNNING" : "IDLE");
+            status.setError(lastError);
+            return status;
+        }
+
+        status.setState(running ? "RUNNING" : checkpoint.getStatus());
+        status.setModelVersion(checkpoint.getModelVersion());
+        status.setProcessed(checkpoint.getProcessed());
+        status.setSkipped(checkpoint.getSkipped());
+        status.setFailed(checkpoint.getFailed());
+        status.setPromotedQuestions(checkpoint.getPromotedQuestions());
+        status.setLastAnswerId(checkpoint.getLastAnswerId() != null ? checkpoint.getLastAnswerId().toString() : null);
+        status.setError(lastError);
+
+        double elapsedSeconds = (System.nanoTime() - runStartNanos) / 1e9;
+        status.setAnswersPerSecond(running && elapsedSeconds > 0 ? runProcessed / elapsedSeconds : 0.0);
+        return status;
+    }
+
+    private void run(String modelPath, String variant) {
+        try (ImageEmbedder.Target target = imageEmbedder.openTarget(modelPath, variant)) {
+            // Staged vectors go live only when the target is the model detection currently runs on; otherwise the
+            // run ends STAGED and promoteStagedWhenReady replays it once that model is live
+            boolean promote = target.getModelVersion().equals(imageEmbedder.getModelVersion());
+
+            EmbeddingBackfillCheckpoint checkpoint = checkpointRepository.findById(target.getModelVersion())
+                .filter(existing -> !"COMPLETED".equals(existing.getStatus()))
+                .orElseGet(() -> new EmbeddingBackfillCheckpoint(target.getModelVersion()));
+            if (STAGED.equals(checkpoint.getStatus())) {
+                // Replay from the start: staged answers are skipped cheaply, and failures are judged afresh
+                checkpoint.setLastQuestionId(null);
+                checkpoint.setLastAnswerId(null);
+                checkpoint.setFailedQuestionIds(null);
+            }
+            checkpoint.setStatus("RUNNING");
+            current = checkpointRepository.save(checkpoint);
+            runStartNanos = System.nanoTime();
+            runProcessed = 0;
+
+            log.info("Embedding backfill started for {} (promote={}, resume from {})",
+                       target.getModelVersion(), promote, checkpoint.getLastAnswerId());
+
+            UUID lastQuestionId = checkpoint.getLastQuestionId() != null ? checkpoint.getLastQuestionId() : MIN_UUID;
+            UUID lastAnswerId = checkpoint.getLastAnswerId() != null ? checkpoint.getLastAnswerId() : MIN_UUID;
+            UUID openQuestion = checkpoint.getLastQuestionId();
+            // Persisted so a resumed run still refuses to promote questions that failed before the pause
+            Set<UUID> questionsWithFailures = readFailedQuestions(checkpoint);
+
+            while (!stopRequested) {
+                long pageStart = System.nanoTime();
+                List<Answer> page = answerRepository.findEmbeddedAfter(lastQuestionId, lastAnswerId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                List<Future<String>> futures = new ArrayList<>(page.size());
+                for (Answer answer : page) {
+                    futures.add(workers.submit(() -> reembed(answer, target)));
+                }
+
+                List<Object[]> batch = new ArrayList<>();
+                List<UUID> completedQuestions = new ArrayList<>();
+                for (int i = 0; i < page.size(); i++) {
+                    Answer answer = page.get(i);
+                    if (openQuestion != null && !openQuestion.equals(answer.getQuestionId())) {
+                        completedQuestions.add(openQuestion);
+                    }
+                    openQuestion = answer.getQuestionId();
+
+                    try {
+                        String embeddingsJson = futures.get(i).get();
+                        if (embeddingsJson == null) {
+                            checkpoint.setSkipped(checkpoint.getSkipped() + 1);
+                        } else {
+                            batch.add(new Object[]{embeddingsJson, answer.getId()});
+                            checkpoint.setProcessed(checkpoint.getProcessed() + 1);
+                            runProcessed++;
+                        }
+                    } catch (Exception e) {
+                        checkpoint.setFailed(checkpoint.getFailed() + 1);
+                        questionsWithFailures.add(answer.getQuestionId());
+                        log.warn("Backfill failed for answer {}: {}", answer.getId(),
+                                   e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate("UPDATE answers SET image_embeddings_next = ? WHERE id = ?", batch);
+                }
+                for (UUID questionId : completedQuestions) {
+                    finishQuestion(questionId, promote, questionsWithFailures, checkpoint);
+                }
+
+                Answer last = page.get(page.size() - 1);
+                lastQuestionId = last.getQuestionId();
+                lastAnswerId = last.getId();
+                checkpoint.setLastQuestionId(lastQuestionId);
+                checkpoint.setLastAnswerId(lastAnswerId);
+                checkpoint.setFailedQuestionIds(writeFailedQuestions(questionsWithFailures));
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                current = checkpointRepository.save(checkpoint);
+
+                throttle(page.size(), pageStart);
+            }
+
+            if (stopRequested) {
+                checkpoint.setStatus("PAUSED");
+            } else {
+                if (openQuestion != null) {
+                    finishQuestion(openQuestion, promote, questionsWithFailures, checkpoint);
+                }
+                checkpoint.setStatus(promote ? "COMPLETED" : STAGED);
+            }
+            checkpoint.setFailedQuestionIds(writeFailedQuestions(questionsWithFailures));
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            current = checkpointRepository.save(checkpoint);
+            log.info("Embedding backfill {} for {}: processed={}, skipped={}, failed={}, promotedQuestions={}",
+                       checkpoint.getStatus().toLowerCase(), checkpoint.getModelVersion(), checkpoint.getProcessed(),
+                       checkpoint.getSkipped(), checkpoint.getFailed(), checkpoint.getPromotedQuestions());
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("Embedding backfill failed: {}", e.getMessage());
+            EmbeddingBackfillCheckpoint checkpoint = current;
+            if (checkpoint != null) {
+                checkpoint.setStatus("FAILED");
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                current = checkpointRepository.save(checkpoint);
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    // Recompute one answer's combined image vector with the target model; null when already current
+    private String reembed(Answer answer, ImageEmbedder.Target target) throws Exception {
+        String version = target.getModelVersion();
+        if (version.equals(imageEmbedder.readModelVersion(answer.getImageEmbeddings()))
+                || version.equals(imageEmbedder.readModelVersion(answer.getImageEmbeddingsNext()))) {
+            return null;
+        }
+
+        List<String> paths = objectMapper.readValue(
+            Utils.Strings.defaultIfBlank(answer.getMediaFilePaths(), Utils.Constants.EMPTY_JSON_ARRAY),
+            new TypeReference<List<String>>() {});
+
+        double[] combined = null;
+        for (String path : paths) {
+            for (byte[] imageBytes : decodeMedia(path)) {
+                double[] embeddings = imageEmbedder.extractImageFeatures(imageBytes, target);
+                combined = combined == null ? embeddings : imageEmbedder.combineEmbeddings(combined, embeddings);
+            }
+        }
+
+        if (combined == null) {
+            throw new IllegalStateException("No embeddable media found");
+        }
+        return imageEmbedder.serializeEmbeddings(combined, version, target.getVariant());
+    }
+
+    // Same decoding as submission: images as-is, first/last video frames, first/last PDF pages
+    private List<byte[]> decodeMedia(String path) throws Exception {
+        Resource resource = mediaService.getFileAsResource(path);
+        byte[] bytes;
+        try (InputStream in = resource.getInputStream()) {
+            bytes = in.readAllBytes();
+        }
+        String filename = resource.getFilename();
+        MultipartFile file = Utils.Files.inMemoryFile(bytes, filename, URLConnection.guessContentTypeFromName(filename));
+
+        if (Utils.Files.isImageFile(file) || Utils.Files.isImageFile(filename)) {
+            return List.of(bytes);
+        } else if (Utils.Files.isVideoFile(file)) {
+            return mediaService.extractVideoFrames(file, true, true);
+        } else if (Utils.Files.isPdfFile(file)) {
+            return mediaService.extractPdfPages(file, true, true);
+        } else if (Utils.Files.isZipFile(file)) {
+            return archiveInspectionService.extractImages(file);
+        }
+        return Collections.emptyList();
+    }
+
+    // Swap staged vectors in for a whole question at once so detection never mixes versions within it
+    private void finishQuestion(UUID questionId, boolean promote, Set<UUID> questionsWithFailures,
+                                EmbeddingBackfillCheckpoint checkpoint) {
+        boolean failed = questionsWithFailures.remove(questionId);
+        if (!promote) {
+            if (failed) {
+                // Keep the question listed so the staged run reports it; the promotion replay re-embeds it
+                questionsWithFailures.add(questionId);
+            }
+            return;
+        }
+        if (failed) {
+            log.warn("Not promoting vectors for question {}: some answers failed to re-embed", questionId);
+            return;
+        }
+
+        int promoted = jdbcTemplate.update(
+            "UPDATE answers SET image_embeddings = image_embeddings_next, image_embeddings_next = NULL " +
+            "WHERE question_id = ? AND image_embeddings_next IS NOT NULL", questionId);
+        if (promoted > 0) {
+            similarityIndex.invalidate(questionId);
+            checkpoint.setPromotedQuestions(checkpoint.getPromotedQuestions() + 1);
+            log.info("Promoted {} re-embedded vectors for question {}", promoted, questionId);
+        }
+    }
+
+    private Set<UUID> readFailedQuestions(EmbeddingBackfillCheckpoint checkpoint) throws IOException {
+        if (checkpoint.getFailedQuestionIds() == null || checkpoint.getFailedQuestionIds().isBlank()) {
+            return new HashSet<>();
+        }
+        return objectMapper.readValue(checkpoint.getFailedQuestionIds(), new TypeReference<HashSet<UUID>>() {});
+    }
+
+    private String writeFailedQuestions(Set<UUID> questionIds) throws IOException {
+        return questionIds.isEmpty() ? null : objectMapper.writeValueAsString(questionIds);
+    }
+
+    private void throttle(int pageAnswers, long pageStartNanos) throws InterruptedException {
+        if (maxAnswersPerSecond <= 0) {
+            return;
+        }
+        long budgetMillis = pageAnswers * 1000L / maxAnswersPerSecond;
+        long elapsedMillis = (System.nanoTime() - pageStartNanos) / 1_000_000;
+        if (elapsedMillis < budgetMillis) {
+            Thread.sleep(budgetMillis - elapsedMillis);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.questionbank.QuestionBank.service;
+
+import com.questionbank.QuestionBank.dto.GradingStatusDTO;
+import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.entity.GradingJob;
+import com.questionbank.QuestionBank.entity.GradingStatus;
+import com.questionbank.QuestionBank.entity.Question;
+import com.questionbank.QuestionBank.entity.QuestionType;
+import com.questionbank.QuestionBank.exception.Validation;
+import com.questionbank.QuestionBank.repository.AnswerRepository;
+import com.questionbank.QuestionBank.repository.GradingJobRepository;
+import com.questionbank.QuestionBank.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Durable queue that grades essay and coding answers off the request thread; any node may run workers
+@Service
+public class GradingQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(GradingQueueService.class);
+
+    static final String PENDING_FEEDBACK = "Grading in progress.";
+    private static final String FAILED_FEEDBACK = "AI scoring temporarily unavailable. Please contact your instructor.";
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final GradingJobRepository gradingJobRepository;
+    private final AnswerRepository answerRepository;
+    private final QuestionRepository questionRepository;
+    private final CorrectionService correctionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final String nodeId;
+
+    private volatile boolean running;
+
+    @Value("${grading.queue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${grading.queue.workers:2}")
+    private int workerCount;
+
+    @Value("${grading.queue.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${grading.queue.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${grading.queue.backoff-base-seconds:10}")
+    private long backoffBaseSeconds;
+
+    @Value("${grading.queue.lease-minutes:10}")
+    private long leaseMinutes;
+
+    @Autowired
+    public GradingQueueService(GradingJobRepository gradingJobRepository,
+                               AnswerRepository answerRepository,
+                               QuestionRepository questionRepository,
+                               CorrectionService correctionService,
+                               TransactionTemplate transactionTemplate,
+                               @Qualifier("gradingWorkers") ExecutorService workers) {
+        this.gradingJobRepository = gradingJobRepository;
+        this.answerRepository = answerRepository;
+        this.questionRepository = questionRepository;
+        this.correctionService = correctionService;
+        this.transactionTemplate = transactionTemplate;
+        this.workers = workers;
+        this.nodeId = ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    @PostConstruct
+    public void startWorkers() {
+        if (!enabled) {
+            log.info("Grading queue disabled, essay and coding answers are graded inline");
+            return;
+        }
+        running = true;
+        for (int i = 1; i <= workerCount; i++) {
+            String workerId = nodeId + "#" + i;
+            workers.submit(() -> poll(workerId));
+        }
+        log.info("Started {} grading queue workers on {}", workerCount, nodeId);
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        running = false;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Joins the caller's transaction, so the job only becomes visible once the answer itself is committed
+    public void enqueue(UUID answerId) {
+        gradingJobRepository.save(new GradingJob(answerId, maxAttempts));
+    }
+
+    public GradingStatusDTO getStatus(UUID answerId) {
+        Answer answer = answerRepository.findById(answerId)
+            .orElseThrow(() -> new Validation.ResourceNotFoundException("Answer", answerId.toString()));
+
+        GradingStatusDTO status = new GradingStatusDTO();
+        status.setAnswerId(answerId);
+        status.setGradingStatus(answer.getGradingStatus());
+        if (answer.getGradingStatus() != GradingStatus.PENDING) {
+            status.setScore(answer.getScore());
+            status.setMaxScore(answer.getMaxScore());
+        }
+        gradingJobRepository.findFirstByAnswerIdOrderByCreatedAtDesc(answerId).ifPresent(job -> {
+            status.setJobStatus(job.getStatus());
+            status.setAttempts(job.getAttempts());
+            status.setMaxAttempts(job.getMaxAttempts());
+            status.setLastError(job.getLastError());
+            if (GradingJob.QUEUED.equals(job.getStatus())) {
+                status.setNextAttemptAt(job.getAvailableAt());
+            }
+        });
+        return status;
+    }
+
+    // Puts a dead-lettered answer back in the queue with a fresh attempt budget
+    public GradingStatusDTO retry(UUID answerId) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            GradingJob job = gradingJobRepository.findFirstByAnswerIdOrderByCreatedAtDesc(answerId)
+                .orElseThrow(() -> new Validation.ResourceNotFoundException("Grading job", answerId.toString()));
+            if (!GradingJob.DEAD.equals(job.getStatus())) {
+                throw new Validation.ValidationException("Grading for answer " + answerId + " is " + job.getStatus() + " and cannot be retried");
+            }
+            Answer answer = answerRepository.findById(answerId)
+                .orElseThrow(() -> new Validation.ResourceNotFoundException("Answer", answerId.toString()));
+
+            LocalDateTime now = LocalDateTime.now();
+            job.setStatus(GradingJob.QUEUED);
+            job.setAttempts(0);
+            job.setMaxAttempts(maxAttempts);
+            job.setAvailableAt(now);
+            job.setLockedBy(null);
+            job.setLockedAt(null);
+            job.setUpdatedAt(now);
+            gradingJobRepository.save(job);
+
+            answer.setGradingStatus(GradingStatus.PENDING);
+            answer.setFeedback(PENDING_FEEDBACK);
+            answer.setUpdatedAt(now);
+            answerRepository.save(answer);
+        });
+        return getStatus(answerId);
+    }
+
+    private void poll(String workerId) {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                Optional<GradingJob> job = claim(workerId);
+                if (job.isPresent()) {
+                    process(job.get(), workerId);
+                } else {
+                    TimeUnit.MILLISECONDS.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Keep the worker alive through database hiccups; the lease returns any claimed job to the queue
+                log.warn("Grading worker {} poll failed: {}", workerId, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // The row lock only lives for this short transaction; afterwards the RUNNING lease keeps other workers off
+    private Optional<GradingJob> claim(String workerId) {
+        return transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<GradingJob> claimable = gradingJobRepository.lockClaimable(now, now.minusMinutes(leaseMinutes), 1);
+            if (claimable.isEmpty()) {
+                return Optional.<GradingJob>empty();
+            }
+            GradingJob job = claimable.get(0);
+            job.setStatus(GradingJob.RUNNING);
+            job.setLockedBy(workerId);
+            job.setLockedAt(now);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setUpdatedAt(now);
+            return Optional.of(gradingJobRepository.save(job));
+        });
+    }
+
+    // Judge0 and Mistral are called outside any transaction so no connection is held while they run
+    private void process(GradingJob job, String workerId) {
+        Answer answer = answerRepository.findById(job.getAnswerId()).orElse(null);
+        if (answer == null) {
+            deadLetter(job, workerId, "Answer no longer exists");
+            return;
+        }
+        Question question = questionRepository.findById(answer.getQuestionId()).orElse(null);
+        if (question == null) {
+            deadLetter(job, workerId, "Question " + answer.getQuestionId() + " no longer exists");
+            return;
+        }
+
+        try {
+            // Start from a clean slate so compiler feedback from a previous attempt is not appended twice
+            answer.setFeedback(null);
+            correctionService.scoreAnswerWithAI(answer, question);
+
+            // Coding answers fall back to compiler results; other types only have the AI verdict, so retry instead
+            String feedback = answer.getFeedback() != null ? answer.getFeedback() : "";
+            if (question.getType() != QuestionType.CODING && feedback.contains("AI correction unavailable")) {
+                throw new IllegalStateException("AI correction unavailable");
+            }
+            complete(job, workerId, answer);
+        } catch (Exception e) {
+            fail(job, workerId, question, e);
+        }
+    }
+
+    private void complete(GradingJob job, String workerId, Answer graded) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            GradingJob current = ownedJob(job.getId(), workerId);
+            if (current == null) {
+                return;
+            }
+            answerRepository.findById(graded.getId()).ifPresent(answer -> {
+                answer.setScore(graded.getScore());
+                answer.setMaxScore(graded.getMaxScore());
+                answer.setCorrect(graded.isCorrect());
+                answer.setFeedback(graded.getFeedback());
+                answer.setLanguage(graded.getLanguage());
+                answer.setCorrectionMethod(graded.getCorrectionMethod());
+                answer.setDerivedFromAnswerId(graded.getDerivedFromAnswerId());
+                answer.setDerivedSimilarity(graded.getDerivedSimilarity());
+                answer.setGradingStatus(GradingStatus.GRADED);
+                answer.setUpdatedAt(LocalDateTime.now());
+                answerRepository.save(answer);
+            });
+            current.setStatus(GradingJob.DONE);
+            current.setLockedBy(null);
+            current.setLockedAt(null);
+            current.setLastError(null);
+            current.setUpdatedAt(LocalDateTime.now());
+            gradingJobRepository.save(current);
+        });
+        log.debug("Graded answer {} after {} attempt(s)", job.getAnswerId(), job.getAttempts());
+    }
+
+    // Exponential backoff between attempts; the last failure dead-letters the job and marks the answer FAILED
+    private void fail(GradingJob job, String workerId, Question question, Exception cause) {
+        String error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        if (job.getAttempts() >= job.getMaxAttempts()) {
+            log.error("Grading answer {} failed after {} attempts, dead-lettering: {}", job.getAnswerId(), job.getAttempts(), error);
+            deadLetter(job, workerId, error, question);
+            return;
+        }
+
+        long delaySeconds = backoffBaseSeconds << Math.min(job.getAttempts() - 1, 20);
+        log.warn("Grading answer {} failed on attempt {}/{}, retrying in {}s: {}",
+            job.getAnswerId(), job.getAttempts(), job.getMaxAttempts(), delaySeconds, error);
+        transactionTemplate.executeWithoutResult(tx -> {
+            GradingJob current = ownedJob(job.getId(), workerId);
+            if (current == null) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            current.setStatus(GradingJob.QUEUED);
+            current.setAvailableAt(now.plusSeconds(delaySeconds));
+            current.setLockedBy(null);
+            current.setLockedAt(null);
+            current.setLastError(truncate(error));
+            current.setUpdatedAt(now);
+            gradingJobRepository.save(current);
+        });
+    }
+
+    private void deadLetter(GradingJob job, String workerId, String error) {
+        deadLetter(job, workerId, error, null);
+    }
+
+    private void deadLetter(GradingJob job, String workerId, String error, Question question) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            GradingJob current = ownedJob(job.getId(), workerId);
+            if (current == null) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            // Reload rather than reuse the scored copy, which may hold a half-written result from the failed attempt
+            answerRepository.findById(job.getAnswerId()).ifPresent(answer -> {
+                answer.setScore(0.0);
+                if (question != null) {
+                    answer.setMaxScore(question.getPoints());
+                }
+                answer.setCorrect(false);
+                answer.setFeedback(FAILED_FEEDBACK);
+                answer.setGradingStatus(GradingStatus.FAILED);
+                answer.setUpdatedAt(now);
+                answerRepository.save(answer);
+            });
+            current.setStatus(GradingJob.DEAD);
+            current.setLockedBy(null);
+            current.setLockedAt(null);
+            current.setLastError(truncate(error));
+            current.setUpdatedAt(now);
+            gradingJobRepository.save(current);
+        });
+    }
+
+    // A worker that overran its lease may find the job reclaimed by another node; its result is then discarded
+    private GradingJob ownedJob(UUID jobId, String workerId) {
+        GradingJob current = gradingJobRepository.findById(jobId).orElse(null);
+        if (current == null || !GradingJob.RUNNING.equals(current.getStatus()) || !workerId.equals(current.getLockedBy())) {
+            log.warn("Grading job {} was reclaimed before worker {} finished, discarding its result", jobId, workerId);
+            return null;
+        }
+        return current;
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
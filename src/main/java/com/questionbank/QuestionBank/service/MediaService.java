@@ -7,6 +7,7 @@ import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.bytedeco.javacv.FFmpegFrameGrabber;
 import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.FrameGrabber;
 import org.bytedeco.javacv.Java2DFrameConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +26,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.nio.ShortBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -287,6 +289,49 @@ public class MediaService {
         return frames;
     }
 
+    @FunctionalInterface
+    public interface AudioSampleSink {
+        void accept(short[] samples, int count);
+    }
+
+    // Decode audio to mono 16-bit PCM and stream it in fixed-size chunks, stopping after maxSamples
+    public long streamAudioSamples(MultipartFile file, int sampleRate, long maxSamples, AudioSampleSink sink) {
+        long delivered = 0;
+        short[] chunk = new short[8192];
+
+        try (InputStream inputStream = file.getInputStream();
+             FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(inputStream)) {
+
+            grabber.setSampleMode(FrameGrabber.SampleMode.SHORT);
+            grabber.setSampleRate(sampleRate);
+            grabber.setAudioChannels(1);
+            grabber.start();
+
+            Frame frame;
+            while (delivered < maxSamples && (frame = grabber.grabSamples()) != null) {
+                if (frame.samples == null || frame.samples.length == 0) {
+                    continue;
+                }
+                ShortBuffer buffer = (ShortBuffer) frame.samples[0];
+                while (buffer.hasRemaining() && delivered < maxSamples) {
+                    int count = (int) Math.min(Math.min(buffer.remaining(), chunk.length), maxSamples - delivered);
+                    buffer.get(chunk, 0, count);
+                    sink.accept(chunk, count);
+                    delivered += count;
+                }
+            }
+
+            grabber.stop();
+            log.debug("Decoded {} audio samples at {} Hz", delivered, sampleRate);
+
+        } catch (Exception e) {
+            log.error("Failed to decode audio: {}", e.getMessage());
+            throw new RuntimeException("Failed to decode audio: " + e.getMessage());
+        }
+
+        return delivered;
+    }
+
     // Convert first and/or last PDF pages to images for plagiarism detection
     public List<byte[]> extractPdfPages(MultipartFile file, boolean extractFirst, boolean extractLast) {
         List<byte[]> pages = new ArrayList<>();
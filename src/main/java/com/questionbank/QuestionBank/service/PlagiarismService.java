@@ -1,20 +1,36 @@
 package com.questionbank.QuestionBank.service;
 
 import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.entity.AnswerType;
 import com.questionbank.QuestionBank.entity.Plagiarism;
 import com.questionbank.QuestionBank.repository.AnswerRepository;
 import com.questionbank.QuestionBank.repository.PlagiarismRepository;
 import com.questionbank.QuestionBank.exception.Validation;
+import com.questionbank.QuestionBank.service.plagiarism.AudioFingerprintIndex;
+import com.questionbank.QuestionBank.service.plagiarism.AudioFingerprinter;
 import com.questionbank.QuestionBank.service.plagiarism.ImageEmbedder;
+import com.questionbank.QuestionBank.service.plagiarism.ModelNotReadyException;
+import com.questionbank.QuestionBank.service.plagiarism.ModelState;
+import com.questionbank.QuestionBank.service.plagiarism.SimilarityIndex;
 import com.questionbank.QuestionBank.service.plagiarism.TextEmbedder;
 import com.questionbank.QuestionBank.util.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 // Handles plagiarism detection using ONNX embeddings for text and images
 @Service
@@ -22,10 +38,25 @@ public class PlagiarismService {
 
     private static final Logger log = LoggerFactory.getLogger(PlagiarismService.class);
 
+    // Answers are committed after their createdAt, on nodes with their own clocks, so each catch-up re-reads this
+    // much before the last one
+    private static final Duration AUDIO_REFRESH_OVERLAP = Duration.ofMinutes(5);
+
     private final PlagiarismRepository repository;
     private final AnswerRepository answerRepository;
     private final ImageEmbedder imageEmbedder;
     private final TextEmbedder textEmbedder;
+    private final SimilarityIndex similarityIndex;
+    private final AudioFingerprintIndex audioIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService textBackfill;
+
+    // Per-question index loads in progress; lookups of one question wait for its load, not for other questions
+    private final Map<UUID, CompletableFuture<Void>> indexLoads = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<Void>> audioLoads = new ConcurrentHashMap<>();
+
+    // Questions whose legacy answers are being given stored text vectors in the background
+    private final Set<UUID> textBackfills = ConcurrentHashMap.newKeySet();
 
     @Value("${plagiarism.text.threshold:0.8}")
     private double textThreshold;
@@ -33,15 +64,26 @@ public class PlagiarismService {
     @Value("${plagiarism.image.threshold:0.85}")
     private double imageThreshold;
 
+    @Value("${plagiarism.audio.threshold:0.6}")
+    private double audioThreshold;
+
     @Autowired
     public PlagiarismService(PlagiarismRepository repository,
                            AnswerRepository answerRepository,
                            ImageEmbedder imageEmbedder,
-                           TextEmbedder textEmbedder) {
+                           TextEmbedder textEmbedder,
+                           SimilarityIndex similarityIndex,
+                           AudioFingerprintIndex audioIndex,
+                           JdbcTemplate jdbcTemplate,
+                           @Qualifier("backfillExecutor") ExecutorService textBackfill) {
         this.repository = repository;
         this.answerRepository = answerRepository;
         this.imageEmbedder = imageEmbedder;
         this.textEmbedder = textEmbedder;
+        this.similarityIndex = similarityIndex;
+        this.audioIndex = audioIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.textBackfill = textBackfill;
     }
 
     public Plagiarism save(String path, String type, String user, UUID questionId, UUID answerId) {
@@ -60,7 +102,18 @@ public class PlagiarismService {
     }
 
     public PlagiarismResult detectTextPlagiarism(String content, UUID questionId, UUID currentAnswerId) {
+        return detectTextPlagiarism(content, questionId, currentAnswerId, true);
+    }
+
+    // indexContent=false checks auxiliary text (e.g. archive entries) without replacing the answer's indexed vector
+    public PlagiarismResult detectTextPlagiarism(String content, UUID questionId, UUID currentAnswerId, boolean indexContent) {
         try {
+            String normalizedContent = Utils.Text.normalize(content);
+            double[] currentEmbedding = textEmbedder.extractTextEmbedding(normalizedContent);
+            if (indexContent) {
+                similarityIndex.putText(questionId, currentAnswerId, currentEmbedding);
+            }
+
             List<Answer> existingAnswers = answerRepository.findByQuestionIdAndIsActiveTrue(questionId)
                 .stream()
                 .filter(answer -> !answer.getId().equals(currentAnswerId))
@@ -76,9 +129,12 @@ public class PlagiarismService {
                 "text",
                 answer -> {
                     if (answer.getContent() == null || answer.getContent().trim().isEmpty()) return null;
-                    return calculateTextSimilarity(content, answer.getContent());
+                    return calculateTextSimilarity(normalizedContent, currentEmbedding, answer.getContent());
                 }
             );
+        } catch (ModelNotReadyException e) {
+            log.warn("Skipping text plagiarism check for answer {}: {}", currentAnswerId, e.getMessage());
+            return createModelNotReadyResult(e, "text");
         } catch (Exception e) {
             log.error("Error during text plagiarism detection: {}", e.getMessage());
             return createErrorResult("Failed to analyze text for plagiarism: " + e.getMessage(), "text");
@@ -87,7 +143,18 @@ public class PlagiarismService {
 
     public PlagiarismResult detectImagePlagiarism(byte[] imageData, UUID questionId, UUID currentAnswerId) {
         try {
-            double[] currentEmbeddings = imageEmbedder.extractImageFeatures(imageData);
+            return detectImagePlagiarism(imageEmbedder.extractImageFeatures(imageData), questionId, currentAnswerId);
+        } catch (ModelNotReadyException e) {
+            log.warn("Skipping image plagiarism check for answer {}: {}", currentAnswerId, e.getMessage());
+            return createModelNotReadyResult(e, "image");
+        } catch (Exception e) {
+            log.error("Error during image plagiarism detection from bytes: {}", e.getMessage());
+            return createErrorResult("Failed to analyze image for plagiarism: " + e.getMessage(), "image");
+        }
+    }
+
+    public PlagiarismResult detectImagePlagiarism(double[] currentEmbeddings, UUID questionId, UUID currentAnswerId) {
+        try {
             List<Answer> existingAnswers = answerRepository.findByQuestionIdAndIsActiveTrue(questionId)
                 .stream()
                 .filter(answer -> !answer.getId().equals(currentAnswerId))
@@ -103,24 +170,111 @@ public class PlagiarismService {
                 "image",
                 answer -> {
                     if (answer.getImageEmbeddings() == null || answer.getImageEmbeddings().isEmpty()) return null;
-                    double[] existingEmbeddings = imageEmbedder.deserializeEmbeddings(answer.getImageEmbeddings());
+                    double[] existingEmbeddings = imageEmbedder.deserializeComparableEmbeddings(answer.getImageEmbeddings());
                     if (existingEmbeddings.length == 0) return null;
                     return imageEmbedder.calculateCosineSimilarity(currentEmbeddings, existingEmbeddings);
                 }
             );
         } catch (Exception e) {
-            log.error("Error during image plagiarism detection from bytes: {}", e.getMessage());
+            log.error("Error during image plagiarism detection: {}", e.getMessage());
             return createErrorResult("Failed to analyze image for plagiarism: " + e.getMessage(), "image");
         }
     }
 
+    // Look up re-used recordings through the question's inverted fingerprint index, first catching it up with
+    // recordings stored through other nodes
+    public PlagiarismResult detectAudioPlagiarism(int[] fingerprint, UUID questionId, UUID currentAnswerId) {
+        try {
+            loadOnce(audioLoads, questionId, this::refreshAudioIndex);
+
+            List<AudioFingerprintIndex.Candidate> candidates = audioIndex.search(questionId, currentAnswerId, fingerprint);
+            addAudioAfterCommit(questionId, currentAnswerId, fingerprint);
+
+            log.debug("Checking audio plagiarism for answer {} ({} sub-fingerprints), {} candidates",
+                        currentAnswerId, fingerprint.length, candidates.size());
+
+            List<Match> matches = new ArrayList<>();
+            double maxSimilarity = 0.0;
+
+            for (AudioFingerprintIndex.Candidate candidate : candidates) {
+                maxSimilarity = Math.max(maxSimilarity, candidate.getSimilarity());
+                if (candidate.getSimilarity() >= audioThreshold) {
+                    Answer existingAnswer = answerRepository.findById(candidate.getAnswerId()).orElse(null);
+                    if (existingAnswer == null || !Boolean.TRUE.equals(existingAnswer.isActive())) {
+                        continue;
+                    }
+                    matches.add(new Match(
+                        existingAnswer.getId(),
+                        existingAnswer.getSubmittedBy(),
+                        candidate.getSimilarity(),
+                        existingAnswer.getCreatedAt().toString()
+                    ));
+                    log.warn("PLAGIARISM DETECTED: {} audio similarity with answer {} (threshold: {})",
+                               candidate.getSimilarity(), existingAnswer.getId(), audioThreshold);
+                }
+            }
+
+            boolean isPlagiarized = !matches.isEmpty();
+            log.info("audio plagiarism check complete: maxSimilarity={}, isPlagiarized={}, matches={}",
+                       maxSimilarity, isPlagiarized, matches.size());
+
+            Map<String, Object> details = new HashMap<>();
+            details.put("type", "audio");
+            details.put("method", "audio-fingerprint");
+            details.put("maxSimilarity", maxSimilarity);
+            details.put("threshold", audioThreshold);
+            details.put("matchCount", matches.size());
+            details.put("matches", matches);
+            details.put("analysisTimestamp", System.currentTimeMillis());
+
+            return new PlagiarismResult(maxSimilarity, isPlagiarized, details);
+        } catch (Exception e) {
+            log.error("Error during audio plagiarism detection: {}", e.getMessage());
+            return createErrorResult("Failed to analyze audio for plagiarism: " + e.getMessage(), "audio");
+        }
+    }
+
+    // A rolled-back submission must never become a match, so the index only learns the answer once it commits
+    private void addAudioAfterCommit(UUID questionId, UUID answerId, int[] fingerprint) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            audioIndex.add(questionId, answerId, fingerprint);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                audioIndex.add(questionId, answerId, fingerprint);
+            }
+        });
+    }
+
+    // Reads every stored fingerprint the first time, then only those stored since the previous read
+    private void refreshAudioIndex(UUID questionId) {
+        LocalDateTime refreshedAt = audioIndex.getRefreshedAt(questionId);
+        LocalDateTime now = LocalDateTime.now();
+        List<Answer> answers = refreshedAt == null
+            ? answerRepository.findByQuestionIdAndIsActiveTrue(questionId)
+            : answerRepository.findFingerprintedSince(questionId, refreshedAt.minus(AUDIO_REFRESH_OVERLAP));
+
+        for (Answer answer : answers) {
+            if (answer.getAudioFingerprint() != null && !answer.getAudioFingerprint().isEmpty()) {
+                try {
+                    audioIndex.add(questionId, answer.getId(), AudioFingerprinter.decode(answer.getAudioFingerprint()));
+                } catch (Exception e) {
+                    log.warn("Skipping unreadable audio fingerprint for answer {}: {}", answer.getId(), e.getMessage());
+                }
+            }
+        }
+        audioIndex.markRefreshed(questionId, now);
+    }
+
     @FunctionalInterface
-    private interface SimilarityCalculator {
+    interface SimilarityCalculator {
         Double calculate(Answer answer);
     }
 
-    // Compares current answer against all existing answers using provided similarity calculator
-    private PlagiarismResult performBruteForceDetection(
+    // Compares current answer against all existing answers using provided similarity calculator; package-private for benchmarks
+    PlagiarismResult performBruteForceDetection(
             List<Answer> existingAnswers,
             UUID currentAnswerId,
             double threshold,
@@ -174,15 +328,13 @@ public class PlagiarismService {
         return new PlagiarismResult(maxSimilarity, isPlagiarized, details);
     }
 
-    private double calculateTextSimilarity(String text1, String text2) {
-        if (text1 == null || text2 == null || text1.trim().isEmpty() || text2.trim().isEmpty()) {
+    private double calculateTextSimilarity(String normalized1, double[] embedding1, String text2) {
+        if (normalized1.isEmpty() || text2 == null || text2.trim().isEmpty()) {
             return 0.0;
         }
 
-        String normalized1 = Utils.Text.normalize(text1);
         String normalized2 = Utils.Text.normalize(text2);
 
-        double[] embedding1 = textEmbedder.extractTextEmbedding(normalized1);
         double[] embedding2 = textEmbedder.extractTextEmbedding(normalized2);
 
         double semanticSim = textEmbedder.calculateSimilarity(embedding1, embedding2);
@@ -196,6 +348,181 @@ public class PlagiarismService {
         return semanticSim;
     }
 
+    // Serialized vector of the text just indexed for an answer, stored with it so restarts and other nodes load the
+    // vector instead of re-embedding; null while the text model is not ready
+    public String serializeTextEmbedding(String content) {
+        try {
+            return textEmbedder.serializeEmbedding(textEmbedder.extractTextEmbedding(Utils.Text.normalize(content)));
+        } catch (ModelNotReadyException e) {
+            return null;
+        }
+    }
+
+    public void indexImageEmbeddings(UUID questionId, UUID answerId, double[] embeddings) {
+        similarityIndex.putImage(questionId, answerId, embeddings);
+    }
+
+    public void removeFromIndex(UUID questionId, UUID answerId) {
+        similarityIndex.remove(questionId, answerId);
+        audioIndex.remove(questionId, answerId);
+    }
+
+    // Rank the k most similar peers of an answer across text and image vectors; a peer matched in both
+    // modalities takes one slot, with its better score
+    public List<SimilarityIndex.Hit> findSimilarAnswers(UUID questionId, UUID answerId, int k) {
+        if (!similarityIndex.isLoaded(questionId) && !textBackfills.contains(questionId)) {
+            loadOnce(indexLoads, questionId, this::warmIndex);
+        }
+
+        Map<UUID, SimilarityIndex.Hit> best = new HashMap<>();
+        List<SimilarityIndex.Hit> candidates = new ArrayList<>();
+        candidates.addAll(similarityIndex.topK(questionId, answerId, SimilarityIndex.TEXT, k));
+        candidates.addAll(similarityIndex.topK(questionId, answerId, SimilarityIndex.IMAGE, k));
+        for (SimilarityIndex.Hit hit : candidates) {
+            best.merge(hit.getAnswerId(), hit, (kept, other) -> other.getScore() > kept.getScore() ? other : kept);
+        }
+
+        List<SimilarityIndex.Hit> hits = new ArrayList<>(best.values());
+        hits.sort(Comparator.comparingDouble(SimilarityIndex.Hit::getScore).reversed());
+
+        return hits.size() > k ? new ArrayList<>(hits.subList(0, k)) : hits;
+    }
+
+    // Rank the k nearest text answers only, adding this answer first when this node has not indexed it yet;
+    // throws ModelNotReadyException while the text model is still loading
+    public List<SimilarityIndex.Hit> findSimilarTextAnswers(Answer answer, int k) {
+        UUID questionId = answer.getQuestionId();
+        if (!similarityIndex.isLoaded(questionId) && !textBackfills.contains(questionId)) {
+            loadOnce(indexLoads, questionId, this::warmIndex);
+        }
+        if (!similarityIndex.contains(questionId, answer.getId(), SimilarityIndex.TEXT)) {
+            textEmbedder.getModelLoader().requireReady();
+            double[] stored = textEmbedder.deserializeComparableEmbedding(answer.getTextEmbedding());
+            similarityIndex.putText(questionId, answer.getId(), stored.length > 0 ? stored
+                : textEmbedder.extractTextEmbedding(Utils.Text.normalize(answer.getContent())));
+        }
+        return similarityIndex.topK(questionId, answer.getId(), SimilarityIndex.TEXT, k);
+    }
+
+    // One thread loads a question while other lookups of it wait on the same future; the entry is dropped once the
+    // load ends, so a partial load is retried by the next lookup
+    private void loadOnce(Map<UUID, CompletableFuture<Void>> loads, UUID questionId, Consumer<UUID> loader) {
+        CompletableFuture<Void> load = new CompletableFuture<>();
+        CompletableFuture<Void> running = loads.putIfAbsent(questionId, load);
+        if (running != null) {
+            running.join();
+            return;
+        }
+        try {
+            loader.accept(questionId);
+            load.complete(null);
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(questionId, load);
+        }
+    }
+
+    // Loads a question's stored vectors for answers indexed by another node or before this one started. Nothing is
+    // embedded here: text answers stored without a current vector are embedded in the background
+    private void warmIndex(UUID questionId) {
+        if (similarityIndex.isLoaded(questionId)) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<Answer> answers = answerRepository.findByQuestionIdAndIsActiveTrue(questionId);
+        List<UUID> unembedded = new ArrayList<>();
+        boolean complete = true;
+
+        for (Answer answer : answers) {
+            try {
+                if (!similarityIndex.contains(questionId, answer.getId(), SimilarityIndex.IMAGE)
+                        && answer.getImageEmbeddings() != null && !answer.getImageEmbeddings().isEmpty()
+                        && imageEmbedder.getModelLoader().getState() != ModelState.DISABLED) {
+                    // Until the image model loads its version is unknown and tagged vectors deserialize as empty
+                    imageEmbedder.getModelLoader().requireReady();
+                    similarityIndex.putImage(questionId, answer.getId(),
+                        imageEmbedder.deserializeComparableEmbeddings(answer.getImageEmbeddings()));
+                }
+
+                if (!similarityIndex.contains(questionId, answer.getId(), SimilarityIndex.TEXT)
+                        && isTextAnswer(answer.getType())
+                        && answer.getContent() != null && !answer.getContent().trim().isEmpty()
+                        && textEmbedder.getModelLoader().getState() != ModelState.DISABLED) {
+                    textEmbedder.getModelLoader().requireReady();
+                    double[] stored = textEmbedder.deserializeComparableEmbedding(answer.getTextEmbedding());
+                    if (stored.length > 0) {
+                        similarityIndex.putText(questionId, answer.getId(), stored);
+                    } else {
+                        unembedded.add(answer.getId());
+                    }
+                }
+            } catch (ModelNotReadyException e) {
+                complete = false;
+            } catch (Exception e) {
+                log.warn("Skipping answer {} while warming similarity index: {}", answer.getId(), e.getMessage());
+            }
+        }
+
+        // Retry on the next lookup if vectors could not be read while a model was loading
+        if (!complete) {
+            log.info("Similarity index for question {} partially warmed, a model is not ready", questionId);
+            return;
+        }
+        if (!unembedded.isEmpty()) {
+            backfillTextEmbeddings(questionId, unembedded);
+            return;
+        }
+        similarityIndex.markLoaded(questionId);
+        log.info("Similarity index warmed for question {} with {} answers in {}ms",
+                   questionId, answers.size(), System.currentTimeMillis() - start);
+    }
+
+    // Embeds and stores vectors for text answers saved before they were persisted, once per question at a time;
+    // the question counts as loaded when all of them are in the index
+    private void backfillTextEmbeddings(UUID questionId, List<UUID> answerIds) {
+        if (!textBackfills.add(questionId)) {
+            return;
+        }
+        log.info("Embedding {} stored text answers of question {} in the background", answerIds.size(), questionId);
+        try {
+            textBackfill.execute(() -> {
+                boolean complete = true;
+                try {
+                    for (Answer answer : answerRepository.findAllById(answerIds)) {
+                        try {
+                            double[] embedding = textEmbedder.extractTextEmbedding(Utils.Text.normalize(answer.getContent()));
+                            jdbcTemplate.update("UPDATE answers SET text_embedding = ? WHERE id = ?",
+                                textEmbedder.serializeEmbedding(embedding), answer.getId());
+                            similarityIndex.putText(questionId, answer.getId(), embedding);
+                        } catch (ModelNotReadyException e) {
+                            complete = false;
+                            break;
+                        } catch (Exception e) {
+                            log.warn("Could not embed text of answer {}: {}", answer.getId(), e.getMessage());
+                        }
+                    }
+                    if (complete) {
+                        similarityIndex.markLoaded(questionId);
+                    }
+                } finally {
+                    textBackfills.remove(questionId);
+                }
+            });
+        } catch (RuntimeException e) {
+            textBackfills.remove(questionId);
+            log.warn("Could not schedule text embedding for question {}: {}", questionId, e.getMessage());
+        }
+    }
+
+    private boolean isTextAnswer(AnswerType type) {
+        return type == AnswerType.SHORT_ANSWER ||
+               type == AnswerType.LONG_ANSWER ||
+               type == AnswerType.CODE_SUBMISSION;
+    }
+
     private PlagiarismResult createErrorResult(String errorMessage, String type) {
         Map<String, Object> errorDetails = new HashMap<>();
         errorDetails.put("error", errorMessage);
@@ -203,9 +530,20 @@ public class PlagiarismService {
         return new PlagiarismResult(0.0, false, errorDetails);
     }
 
+    // Degraded result recorded when a check is skipped because its model is still loading
+    public PlagiarismResult createModelNotReadyResult(ModelNotReadyException e, String type) {
+        Map<String, Object> details = new HashMap<>();
+        details.put("status", "model-not-ready");
+        details.put("model", e.getModel());
+        details.put("modelState", e.getState().name());
+        details.put("type", type);
+        return new PlagiarismResult(0.0, false, details);
+    }
+
     public enum DetectionStrategy {
         TEXT_SIMILARITY,
         IMAGE_SIMILARITY,
+        AUDIO_FINGERPRINT,
         CODE_SIMILARITY
     }
 
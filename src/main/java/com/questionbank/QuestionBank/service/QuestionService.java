@@ -5,6 +5,8 @@ import com.questionbank.QuestionBank.entity.Question;
 import com.questionbank.QuestionBank.entity.QuestionType;
 import com.questionbank.QuestionBank.exception.Validation;
 import com.questionbank.QuestionBank.repository.QuestionRepository;
+import com.questionbank.QuestionBank.service.ai.AiResultCache;
+import com.questionbank.QuestionBank.service.correction.AnswerKeyCache;
 import com.questionbank.QuestionBank.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,13 +32,17 @@ public class QuestionService {
     private final QuestionRepository questionRepository;
     private final MediaService mediaService;
     private final ObjectMapper objectMapper;
+    private final AnswerKeyCache answerKeyCache;
+    private final AiResultCache aiResultCache;
 
     @Autowired
     public QuestionService(QuestionRepository questionRepository, MediaService mediaService,
-                          ObjectMapper objectMapper) {
+                          ObjectMapper objectMapper, AnswerKeyCache answerKeyCache, AiResultCache aiResultCache) {
         this.questionRepository = questionRepository;
         this.mediaService = mediaService;
         this.objectMapper = objectMapper;
+        this.answerKeyCache = answerKeyCache;
+        this.aiResultCache = aiResultCache;
     }
 
     public QuestionDTO createQuestion(QuestionDTO request, String currentUser) {
@@ -201,6 +207,10 @@ public class QuestionService {
         existingQuestion.setUpdatedBy(currentUser);
 
         Question updatedQuestion = questionRepository.save(existingQuestion);
+        // The compiled answer key is stale as soon as the configuration changes; cached AI grades are keyed by
+        // revision and can no longer be hit
+        answerKeyCache.invalidate(id);
+        aiResultCache.invalidateQuestion(id);
 
         return QuestionDTO.from(updatedQuestion);
     }
@@ -217,6 +227,8 @@ public class QuestionService {
         question.setActive(false);
         question.setUpdatedBy(currentUser);
         questionRepository.save(question);
+        answerKeyCache.invalidate(id);
+        aiResultCache.invalidateQuestion(id);
 
     }
 
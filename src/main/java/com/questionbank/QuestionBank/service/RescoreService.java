@@ -0,0 +1,322 @@
+package com.questionbank.QuestionBank.service;
+
+import com.questionbank.QuestionBank.dto.RescoreStatusDTO;
+import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.entity.Question;
+import com.questionbank.QuestionBank.exception.Validation;
+import com.questionbank.QuestionBank.repository.AnswerRepository;
+import com.questionbank.QuestionBank.repository.QuestionRepository;
+import com.questionbank.QuestionBank.service.correction.AnswerKey;
+import com.questionbank.QuestionBank.service.correction.AnswerKeyCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Bulk job that re-scores a question's stored answers against its current answer key
+@Service
+public class RescoreService {
+
+    private static final Logger log = LoggerFactory.getLogger(RescoreService.class);
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    private static final String[] BANDS = {"0%", "1-25%", "26-50%", "51-75%", "76-99%", "100%", "unscored"};
+
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final CorrectionService correctionService;
+    private final AnswerKeyCache answerKeyCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final ExecutorService coordinator;
+
+    private final Map<UUID, RescoreJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${correction.rescore.page-size:1000}")
+    private int pageSize;
+
+    @Value("${correction.rescore.parallelism:4}")
+    private int parallelism;
+
+    @Value("${correction.rescore.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:20}")
+    private int batchSize;
+
+    @Autowired
+    public RescoreService(QuestionRepository questionRepository,
+                          AnswerRepository answerRepository,
+                          CorrectionService correctionService,
+                          AnswerKeyCache answerKeyCache,
+                          JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          @Qualifier("rescoreExecutor") ExecutorService workers,
+                          @Qualifier("rescoreCoordinator") ExecutorService coordinator) {
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+        this.correctionService = correctionService;
+        this.answerKeyCache = answerKeyCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.workers = workers;
+        this.coordinator = coordinator;
+    }
+
+    public RescoreStatusDTO start(UUID questionId) {
+        Question question = questionRepository.findById(questionId)
+            .orElseThrow(() -> new Validation.ResourceNotFoundException("Question", questionId.toString()));
+        if (!question.isActive()) {
+            throw new Validation.ResourceNotFoundException("Question", questionId.toString(), "Question with ID: " + questionId + " is inactive");
+        }
+        if (!question.getType().requiresPresetAnswers()) {
+            throw new Validation.ValidationException("Only auto-scored question types can be rescored, got " + question.getType());
+        }
+
+        pruneFinishedJobs();
+        RescoreJob job = new RescoreJob(questionId);
+        RescoreJob registered = jobs.compute(questionId,
+            (id, previous) -> previous != null && previous.isActive() ? previous : job);
+        if (registered != job) {
+            throw new Validation.ValidationException("A rescoring job is already running for question " + questionId);
+        }
+
+        coordinator.submit(() -> run(job));
+        return job.toStatus();
+    }
+
+    public RescoreStatusDTO getStatus(UUID questionId) {
+        RescoreJob job = jobs.get(questionId);
+        if (job == null) {
+            throw new Validation.ResourceNotFoundException("Rescore job", questionId.toString());
+        }
+        return job.toStatus();
+    }
+
+    // Finished jobs stay readable for the retention window, then are dropped so the map tracks only recent questions
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.finishedBefore(cutoff));
+    }
+
+    private void run(RescoreJob job) {
+        try {
+            // Reload so the job scores against the configuration current when it runs, not when it was queued
+            Question question = questionRepository.findById(job.questionId)
+                .orElseThrow(() -> new Validation.ResourceNotFoundException("Question", job.questionId.toString()));
+            AnswerKey key = answerKeyCache.get(question);
+            job.begin(answerRepository.countByQuestionIdAndIsActiveTrue(question.getId()));
+
+            UUID lastAnswerId = MIN_UUID;
+            while (true) {
+                List<AnswerRepository.ScoringRow> page =
+                    answerRepository.findScoringRowsAfter(question.getId(), lastAnswerId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                List<Answer> rescored = scorePage(page, question, key);
+                LocalDateTime now = LocalDateTime.now();
+                List<Object[]> updates = new ArrayList<>();
+                for (int i = 0; i < page.size(); i++) {
+                    AnswerRepository.ScoringRow row = page.get(i);
+                    Answer answer = rescored.get(i);
+                    boolean changed = !Objects.equals(row.getScore(), answer.getScore())
+                        || !Objects.equals(row.getMaxScore(), answer.getMaxScore())
+                        || !Objects.equals(row.getCorrect(), answer.isCorrect())
+                        || !Objects.equals(row.getFeedback(), answer.getFeedback());
+                    if (changed) {
+                        updates.add(new Object[]{answer.getScore(), answer.getMaxScore(), answer.isCorrect(),
+                                                 answer.getFeedback(), now, row.getId(), row.getContent()});
+                    }
+                    job.record(row, answer, changed);
+                }
+
+                if (!updates.isEmpty()) {
+                    // Only overwrite answers whose content is still what was scored; an answer edited meanwhile
+                    // was re-scored by its own update and keeps that result
+                    int[][] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                        "UPDATE answers SET score = ?, max_score = ?, is_correct = ?, feedback = ?, updated_at = ? WHERE id = ? AND content = ?",
+                        updates, Math.max(1, batchSize), (ps, values) -> {
+                            for (int i = 0; i < values.length; i++) {
+                                ps.setObject(i + 1, values[i]);
+                            }
+                        }));
+                    long skipped = counts == null ? 0 : Arrays.stream(counts).flatMapToInt(Arrays::stream).filter(c -> c == 0).count();
+                    if (skipped > 0) {
+                        log.info("Skipped {} answers for question {} whose content changed while rescoring", skipped, job.questionId);
+                    }
+                }
+                lastAnswerId = page.get(page.size() - 1).getId();
+            }
+
+            job.finish(null);
+            RescoreStatusDTO status = job.toStatus();
+            log.info("Rescored {} answers for question {} ({} changed, {} answers/s)", status.getProcessed(),
+                       job.questionId, status.getChanged(), String.format("%.0f", status.getAnswersPerSecond()));
+        } catch (Exception e) {
+            log.error("Rescoring failed for question {}: {}", job.questionId, e.getMessage());
+            job.finish(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    // Score a page in parallel chunks; results keep the page order
+    private List<Answer> scorePage(List<AnswerRepository.ScoringRow> page, Question question, AnswerKey key) throws Exception {
+        int chunkSize = Math.max(1, (page.size() + Math.max(1, parallelism) - 1) / Math.max(1, parallelism));
+        List<Future<List<Answer>>> futures = new ArrayList<>();
+        for (int from = 0; from < page.size(); from += chunkSize) {
+            List<AnswerRepository.ScoringRow> chunk = page.subList(from, Math.min(page.size(), from + chunkSize));
+            futures.add(workers.submit(() -> {
+                List<Answer> scored = new ArrayList<>(chunk.size());
+                for (AnswerRepository.ScoringRow row : chunk) {
+                    scored.add(score(row, question, key));
+                }
+                return scored;
+            }));
+        }
+
+        List<Answer> rescored = new ArrayList<>(page.size());
+        for (Future<List<Answer>> future : futures) {
+            rescored.addAll(future.get());
+        }
+        return rescored;
+    }
+
+    // Scorers leave the answer untouched when the key is incomplete, so start from the stored result
+    private Answer score(AnswerRepository.ScoringRow row, Question question, AnswerKey key) {
+        Answer answer = new Answer();
+        answer.setId(row.getId());
+        answer.setQuestionId(question.getId());
+        answer.setContent(row.getContent());
+        answer.setCorrect(row.getCorrect());
+        answer.setScore(row.getScore());
+        answer.setMaxScore(row.getMaxScore());
+        answer.setFeedback(row.getFeedback());
+        correctionService.autoScoreAnswer(answer, question, key);
+        return answer;
+    }
+
+    private static int band(Double score, Double maxScore) {
+        if (score == null) {
+            return BANDS.length - 1;
+        }
+        double ratio = maxScore != null && maxScore > 0 ? score / maxScore : (score > 0 ? 1.0 : 0.0);
+        long percent = Math.round(ratio * 100);
+        if (percent <= 0) return 0;
+        if (percent >= 100) return 5;
+        if (percent <= 25) return 1;
+        if (percent <= 50) return 2;
+        if (percent <= 75) return 3;
+        return 4;
+    }
+
+    // Progress and before/after aggregates; written by the coordinator thread, read by status requests
+    private static class RescoreJob {
+        private final UUID questionId;
+        private String state = "QUEUED";
+        private long total;
+        private long processed;
+        private long changed;
+        private long correctBefore;
+        private long correctAfter;
+        private double scoreSumBefore;
+        private double scoreSumAfter;
+        private long scoredBefore;
+        private long scoredAfter;
+        private final long[] bandsBefore = new long[BANDS.length];
+        private final long[] bandsAfter = new long[BANDS.length];
+        private long startNanos;
+        private long finishNanos;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private String error;
+
+        RescoreJob(UUID questionId) {
+            this.questionId = questionId;
+        }
+
+        synchronized boolean isActive() {
+            return "QUEUED".equals(state) || "RUNNING".equals(state);
+        }
+
+        synchronized boolean finishedBefore(LocalDateTime cutoff) {
+            return finishedAt != null && finishedAt.isBefore(cutoff);
+        }
+
+        synchronized void begin(long total) {
+            this.state = "RUNNING";
+            this.total = total;
+            this.startNanos = System.nanoTime();
+            this.startedAt = LocalDateTime.now();
+        }
+
+        synchronized void record(AnswerRepository.ScoringRow before, Answer after, boolean changed) {
+            processed++;
+            if (changed) {
+                this.changed++;
+            }
+            if (Boolean.TRUE.equals(before.getCorrect())) correctBefore++;
+            if (Boolean.TRUE.equals(after.isCorrect())) correctAfter++;
+            if (before.getScore() != null) {
+                scoreSumBefore += before.getScore();
+                scoredBefore++;
+            }
+            if (after.getScore() != null) {
+                scoreSumAfter += after.getScore();
+                scoredAfter++;
+            }
+            bandsBefore[band(before.getScore(), before.getMaxScore())]++;
+            bandsAfter[band(after.getScore(), after.getMaxScore())]++;
+        }
+
+        synchronized void finish(String error) {
+            this.state = error == null ? "COMPLETED" : "FAILED";
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.finishNanos = System.nanoTime();
+        }
+
+        synchronized RescoreStatusDTO toStatus() {
+            RescoreStatusDTO status = new RescoreStatusDTO();
+            status.setQuestionId(questionId.toString());
+            status.setState(state);
+            status.setTotal(total);
+            status.setProcessed(processed);
+            status.setChanged(changed);
+            status.setCorrectBefore(correctBefore);
+            status.setCorrectAfter(correctAfter);
+            status.setAverageScoreBefore(scoredBefore > 0 ? scoreSumBefore / scoredBefore : null);
+            status.setAverageScoreAfter(scoredAfter > 0 ? scoreSumAfter / scoredAfter : null);
+            status.setDistributionBefore(toDistribution(bandsBefore));
+            status.setDistributionAfter(toDistribution(bandsAfter));
+            status.setStartedAt(startedAt);
+            status.setFinishedAt(finishedAt);
+            status.setError(error);
+
+            long endNanos = finishNanos > 0 ? finishNanos : System.nanoTime();
+            double elapsedSeconds = startedAt == null ? 0 : (endNanos - startNanos) / 1e9;
+            status.setAnswersPerSecond(elapsedSeconds > 0 ? processed / elapsedSeconds : 0.0);
+            return status;
+        }
+
+        private static Map<String, Long> toDistribution(long[] counts) {
+            Map<String, Long> distribution = new LinkedHashMap<>();
+            for (int i = 0; i < BANDS.length; i++) {
+                distribution.put(BANDS[i], counts[i]);
+            }
+            return distribution;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.questionbank.QuestionBank.service.ai;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Concurrency cap for Mistral calls that follows observed latency: it grows while round trips stay near the
+// best seen, shrinks in proportion as they stretch (gradient), and is cut multiplicatively on throttling or timeouts
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    // Weight of each new sample in the limit, so one slow response does not halve throughput
+    private static final double SMOOTHING = 0.2;
+
+    // The no-load estimate drifts towards recent samples so a permanently slower upstream is relearned
+    private static final int RTT_DRIFT_SAMPLES = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private long noLoadRttNanos;
+    private long lastRttNanos;
+
+    private long accepted;
+    private long rejected;
+    private long dropped;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(@Value("${ai.mistral.concurrency.initial-limit:4}") int initialLimit,
+                                      @Value("${ai.mistral.concurrency.min-limit:1}") int minLimit,
+                                      @Value("${ai.mistral.concurrency.max-limit:32}") int maxLimit,
+                                      @Value("${ai.mistral.concurrency.rtt-tolerance:2.0}") double rttTolerance,
+                                      @Value("${ai.mistral.concurrency.backoff-ratio:0.5}") double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || rttTolerance < 1.0 || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Mistral concurrency limits need 1 <= min <= max, tolerance >= 1 and a backoff ratio in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    // Never blocks: a caller over the limit is told so at once and polls again; only its first refusal is counted
+    public synchronized boolean tryAcquire(boolean firstTry) {
+        if (inFlight >= (int) limit) {
+            if (firstTry) {
+                rejected++;
+            }
+            return false;
+        }
+        inFlight++;
+        accepted++;
+        return true;
+    }
+
+    public synchronized void onSuccess(long rttNanos) {
+        boolean saturated = inFlight >= limit / 2;
+        inFlight--;
+        lastRttNanos = rttNanos;
+        if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = rttNanos;
+        } else {
+            noLoadRttNanos += (rttNanos - noLoadRttNanos) / RTT_DRIFT_SAMPLES;
+        }
+
+        // A mostly idle limiter says nothing about how much more Mistral could take
+        if (!saturated) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * noLoadRttNanos / rttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    // 429s and timeouts mean the upstream is already overloaded
+    public synchronized void onDropped() {
+        inFlight--;
+        dropped++;
+        limit = clamp(limit * backoffRatio);
+    }
+
+    // Errors that say nothing about upstream capacity, e.g. a rejected request body
+    public synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getAccepted() {
+        return accepted;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    public synchronized double getNoLoadRttMs() {
+        return noLoadRttNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public synchronized double getLastRttMs() {
+        return lastRttNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,202 @@
+package com.questionbank.QuestionBank.service.ai;
+
+import com.questionbank.QuestionBank.dto.AiCacheStatsDTO;
+import com.questionbank.QuestionBank.util.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Persistent AI grading results keyed by a digest of everything the prompt and model output depend on
+@Component
+public class AiResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AiResultCache.class);
+
+    // Expired and surplus rows are swept after this many writes instead of on every one
+    private static final int TRIM_INTERVAL = 100;
+
+    private static final char SEPARATOR = '\u001f';
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bypassed = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    @Value("${ai.correction.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.correction.cache.ttl-hours:168}")
+    private long ttlHours;
+
+    @Value("${ai.correction.cache.max-entries:20000}")
+    private int maxEntries;
+
+    @Autowired
+    public AiResultCache(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static String digest(Object... parts) {
+        StringBuilder material = new StringBuilder();
+        for (Object part : parts) {
+            material.append(part).append(SEPARATOR);
+        }
+        return Utils.Hashing.sha256Hex(material.toString());
+    }
+
+    // Callers that cannot build a stable key (e.g. an unsaved question) record a bypass instead of a lookup
+    public void recordBypass() {
+        bypassed.incrementAndGet();
+    }
+
+    // Cached result JSON, or null on a miss; a failing cache table degrades to a miss, never to a grading error
+    public String get(String digest) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            String result = guarded(() -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<String> rows = jdbcTemplate.queryForList(
+                    "SELECT result FROM ai_result_cache WHERE digest = ? AND expires_at > ?",
+                    String.class, digest, Timestamp.valueOf(now));
+                if (rows.isEmpty()) {
+                    return null;
+                }
+                jdbcTemplate.update(
+                    "UPDATE ai_result_cache SET hit_count = hit_count + 1, last_hit_at = ? WHERE digest = ?",
+                    Timestamp.valueOf(now), digest);
+                return rows.get(0);
+            });
+            if (result == null) {
+                misses.incrementAndGet();
+            } else {
+                hits.incrementAndGet();
+            }
+            return result;
+        } catch (DataAccessException e) {
+            log.warn("AI result cache lookup failed: {}", e.getMessage());
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    public void put(String digest, UUID questionId, String resultJson) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            guarded(() -> jdbcTemplate.update(
+                "INSERT INTO ai_result_cache (digest, question_id, result, hit_count, created_at, last_hit_at, expires_at) " +
+                "VALUES (?, ?, ?, 0, ?, ?, ?) " +
+                "ON CONFLICT (digest) DO UPDATE SET result = EXCLUDED.result, created_at = EXCLUDED.created_at, " +
+                "last_hit_at = EXCLUDED.last_hit_at, expires_at = EXCLUDED.expires_at",
+                digest, questionId, resultJson, Timestamp.valueOf(now), Timestamp.valueOf(now),
+                Timestamp.valueOf(now.plusHours(ttlHours))));
+
+            if (writes.incrementAndGet() % TRIM_INTERVAL == 0) {
+                trim();
+            }
+        } catch (DataAccessException e) {
+            log.warn("AI result cache write failed: {}", e.getMessage());
+        }
+    }
+
+    // Results of an older question revision can no longer be looked up; drop them to free space
+    public void invalidateQuestion(UUID questionId) {
+        if (questionId == null) {
+            return;
+        }
+        try {
+            int removed = guarded(() ->
+                jdbcTemplate.update("DELETE FROM ai_result_cache WHERE question_id = ?", questionId));
+            evictions.addAndGet(removed);
+        } catch (DataAccessException e) {
+            log.warn("AI result cache invalidation failed for question {}: {}", questionId, e.getMessage());
+        }
+    }
+
+    // Removes expired rows, then the least recently hit rows beyond max-entries
+    public void trim() {
+        int[] removed = guarded(() -> new int[] {
+            jdbcTemplate.update("DELETE FROM ai_result_cache WHERE expires_at <= ?",
+                Timestamp.valueOf(LocalDateTime.now())),
+            jdbcTemplate.update(
+                "DELETE FROM ai_result_cache WHERE digest IN " +
+                "(SELECT digest FROM ai_result_cache ORDER BY last_hit_at DESC OFFSET ?)", maxEntries)
+        });
+        int expired = removed[0];
+        int surplus = removed[1];
+        evictions.addAndGet(expired + surplus);
+        if (expired + surplus > 0) {
+            log.debug("AI result cache trimmed: {} expired, {} over the {} entry bound", expired, surplus, maxEntries);
+        }
+    }
+
+    public AiCacheStatsDTO getStats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+
+        AiCacheStatsDTO stats = new AiCacheStatsDTO();
+        stats.setEnabled(enabled);
+        stats.setHits(hitCount);
+        stats.setMisses(misses.get());
+        stats.setBypassed(bypassed.get());
+        stats.setEvictions(evictions.get());
+        stats.setHitRate(lookups > 0 ? (double) hitCount / lookups : 0.0);
+        stats.setMaxEntries(maxEntries);
+        stats.setTtlHours(ttlHours);
+        try {
+            stats.setEntries(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ai_result_cache", Long.class));
+        } catch (DataAccessException e) {
+            log.warn("AI result cache size query failed: {}", e.getMessage());
+        }
+        return stats;
+    }
+
+    // Outside a transaction every statement autocommits. Inside the caller's, the statements run on its connection
+    // behind a savepoint, so a failing cache statement cannot abort it (PostgreSQL) and no second pooled
+    // connection is taken
+    private <T> T guarded(Supplier<T> work) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            if (connection.getAutoCommit()) {
+                return work.get();
+            }
+            Savepoint savepoint = connection.setSavepoint();
+            T result;
+            try {
+                result = work.get();
+            } catch (RuntimeException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+            connection.releaseSavepoint(savepoint);
+            return result;
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package com.questionbank.QuestionBank.service.ai;
+
+import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.entity.GradingStatus;
+import com.questionbank.QuestionBank.entity.Question;
+import com.questionbank.QuestionBank.entity.QuestionType;
+import com.questionbank.QuestionBank.repository.AnswerRepository;
+import com.questionbank.QuestionBank.service.PlagiarismService;
+import com.questionbank.QuestionBank.service.plagiarism.ModelNotReadyException;
+import com.questionbank.QuestionBank.service.plagiarism.SimilarityIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Reuses the grade of an already AI-graded short essay to the same question when a new answer's text embedding
+// is a near-paraphrase of it; the source answer and similarity are kept on the new answer for auditing
+@Component
+public class DerivedGrader {
+
+    private static final Logger log = LoggerFactory.getLogger(DerivedGrader.class);
+
+    public static final String METHOD = "DERIVED";
+
+    // Only grades Mistral produced are reused, so derived grades never chain off each other or off fallbacks
+    private static final String SOURCE_METHOD = "AI";
+
+    private final PlagiarismService plagiarismService;
+    private final AnswerRepository answerRepository;
+    private final boolean enabled;
+    private final double minSimilarity;
+    private final int candidates;
+
+    @Autowired
+    public DerivedGrader(PlagiarismService plagiarismService,
+                         AnswerRepository answerRepository,
+                         @Value("${ai.correction.derived.enabled:true}") boolean enabled,
+                         @Value("${ai.correction.derived.min-similarity:0.95}") double minSimilarity,
+                         @Value("${ai.correction.derived.candidates:5}") int candidates) {
+        if (minSimilarity <= 0 || minSimilarity > 1 || candidates < 1) {
+            throw new IllegalArgumentException("Derived grading needs a min-similarity in (0, 1] and at least one candidate");
+        }
+        this.plagiarismService = plagiarismService;
+        this.answerRepository = answerRepository;
+        this.enabled = enabled;
+        this.minSimilarity = minSimilarity;
+        this.candidates = candidates;
+    }
+
+    // The closest eligible AI-graded neighbour at or above the similarity bar, or null to grade with Mistral
+    public DerivedGrade derive(Question question, Answer answer) {
+        if (!enabled || question.getType() != QuestionType.ESSAY_SHORT || answer.getId() == null
+                || answer.getContent() == null || answer.getContent().trim().isEmpty()) {
+            return null;
+        }
+
+        List<SimilarityIndex.Hit> hits;
+        try {
+            hits = plagiarismService.findSimilarTextAnswers(answer, candidates);
+        } catch (ModelNotReadyException e) {
+            log.debug("Skipping derived grading for answer {}: {}", answer.getId(), e.getMessage());
+            return null;
+        } catch (Exception e) {
+            log.warn("Derived grading lookup failed for answer {}: {}", answer.getId(), e.getMessage());
+            return null;
+        }
+
+        List<UUID> closeIds = new ArrayList<>();
+        for (SimilarityIndex.Hit hit : hits) {
+            if (hit.getScore() >= minSimilarity) {
+                closeIds.add(hit.getAnswerId());
+            }
+        }
+        if (closeIds.isEmpty()) {
+            return null;
+        }
+
+        Map<UUID, Answer> sources = new HashMap<>();
+        for (Answer source : answerRepository.findAllById(closeIds)) {
+            sources.put(source.getId(), source);
+        }
+
+        // Hits come best first, so the first eligible one is the closest
+        for (SimilarityIndex.Hit hit : hits) {
+            Answer source = sources.get(hit.getAnswerId());
+            if (hit.getScore() >= minSimilarity && isEligibleSource(question, source)) {
+                log.info("Answer {} reuses the grade of answer {} (similarity {})",
+                           answer.getId(), source.getId(), String.format("%.3f", hit.getScore()));
+                return new DerivedGrade(source, hit.getScore());
+            }
+        }
+        return null;
+    }
+
+    // A source must still be active, graded by Mistral for the question's current points, and newer than any
+    // edit to the question so a changed rubric is never applied through an old grade
+    private boolean isEligibleSource(Question question, Answer source) {
+        if (source == null || !Boolean.TRUE.equals(source.isActive())
+                || !SOURCE_METHOD.equals(source.getCorrectionMethod())
+                || source.getGradingStatus() == GradingStatus.PENDING
+                || source.getGradingStatus() == GradingStatus.FAILED
+                || source.getScore() == null || source.getMaxScore() == null
+                || source.getFeedback() == null || source.getFeedback().trim().isEmpty()) {
+            return false;
+        }
+        if (question.getPoints() != null && Double.compare(source.getMaxScore(), question.getPoints()) != 0) {
+            return false;
+        }
+        return question.getUpdatedAt() == null || source.getUpdatedAt() == null
+            || !source.getUpdatedAt().isBefore(question.getUpdatedAt());
+    }
+
+    public static final class DerivedGrade {
+        private final UUID sourceAnswerId;
+        private final double similarity;
+        private final double score;
+        private final double maxScore;
+        private final boolean correct;
+        private final String feedback;
+
+        private DerivedGrade(Answer source, double similarity) {
+            this.sourceAnswerId = source.getId();
+            this.similarity = similarity;
+            this.score = source.getScore();
+            this.maxScore = source.getMaxScore();
+            this.correct = Boolean.TRUE.equals(source.isCorrect());
+            this.feedback = source.getFeedback();
+        }
+
+        public UUID getSourceAnswerId() { return sourceAnswerId; }
+        public double getSimilarity() { return similarity; }
+        public double getScore() { return score; }
+        public double getMaxScore() { return maxScore; }
+        public boolean isCorrect() { return correct; }
+        public String getFeedback() { return feedback; }
+    }
+}
@@ -0,0 +1,147 @@
+package com.questionbank.QuestionBank.service.ai;
+
+// Incremental reader for the grading JSON while it streams in: surfaces the decoded top-level "feedback" string
+// as it is written and notices when the object closes, without re-parsing the text received so far
+public class FeedbackStreamParser {
+
+    private static final String FEEDBACK_KEY = "feedback";
+
+    private final StringBuilder json = new StringBuilder();
+    private final StringBuilder key = new StringBuilder();
+    private final StringBuilder unicode = new StringBuilder();
+
+    // One entry per open container: true for objects, false for arrays
+    private boolean[] containers = new boolean[8];
+    private int depth;
+
+    private boolean complete;
+    private boolean inString;
+    private boolean escaped;
+    private boolean readingKey;
+    private boolean expectKey;
+    private boolean inFeedback;
+    private String lastKey;
+
+    // Feedback text decoded from this chunk; empty when the chunk held none
+    public String accept(String chunk) {
+        StringBuilder feedback = new StringBuilder();
+        for (int i = 0; i < chunk.length() && !complete; i++) {
+            char c = chunk.charAt(i);
+            if (depth == 0 && c != '{') {
+                // Markdown fences or chatter before the object
+                continue;
+            }
+            json.append(c);
+            if (inString) {
+                readStringChar(c, feedback);
+            } else {
+                readStructureChar(c);
+            }
+        }
+        return feedback.toString();
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    // The object text from its opening to its closing brace; only a full object once isComplete() holds
+    public String getJson() {
+        return json.toString();
+    }
+
+    private void readStringChar(char c, StringBuilder feedback) {
+        if (unicode.length() > 0) {
+            unicode.append(c);
+            if (unicode.length() == 5) {
+                try {
+                    emit((char) Integer.parseInt(unicode.substring(1), 16), feedback);
+                } catch (NumberFormatException e) {
+                    // Malformed escape; the final JSON parse reports it
+                }
+                unicode.setLength(0);
+            }
+            return;
+        }
+        if (escaped) {
+            escaped = false;
+            switch (c) {
+                case 'n': emit('\n', feedback); break;
+                case 't': emit('\t', feedback); break;
+                case 'r': emit('\r', feedback); break;
+                case 'b': emit('\b', feedback); break;
+                case 'f': emit('\f', feedback); break;
+                case 'u': unicode.append('u'); break;
+                default: emit(c, feedback); break;
+            }
+            return;
+        }
+        if (c == '\\') {
+            escaped = true;
+        } else if (c == '"') {
+            inString = false;
+            if (readingKey) {
+                lastKey = key.toString();
+                readingKey = false;
+            }
+            inFeedback = false;
+        } else {
+            emit(c, feedback);
+        }
+    }
+
+    private void emit(char c, StringBuilder feedback) {
+        if (readingKey) {
+            key.append(c);
+        } else if (inFeedback) {
+            feedback.append(c);
+        }
+    }
+
+    private void readStructureChar(char c) {
+        switch (c) {
+            case '{':
+                push(true);
+                expectKey = true;
+                break;
+            case '[':
+                push(false);
+                expectKey = false;
+                break;
+            case '}':
+            case ']':
+                depth--;
+                expectKey = false;
+                if (depth == 0) {
+                    complete = true;
+                }
+                break;
+            case ',':
+                expectKey = depth > 0 && containers[depth - 1];
+                break;
+            case ':':
+                expectKey = false;
+                break;
+            case '"':
+                inString = true;
+                if (expectKey) {
+                    readingKey = true;
+                    key.setLength(0);
+                } else {
+                    inFeedback = depth == 1 && FEEDBACK_KEY.equals(lastKey);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void push(boolean object) {
+        if (depth == containers.length) {
+            boolean[] grown = new boolean[containers.length * 2];
+            System.arraycopy(containers, 0, grown, 0, containers.length);
+            containers = grown;
+        }
+        containers[depth++] = object;
+    }
+}
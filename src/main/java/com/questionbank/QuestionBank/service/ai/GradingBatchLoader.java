@@ -0,0 +1,91 @@
+package com.questionbank.QuestionBank.service.ai;
+
+import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.entity.Question;
+import com.questionbank.QuestionBank.exception.Validation;
+import com.questionbank.QuestionBank.repository.AnswerRepository;
+import com.questionbank.QuestionBank.repository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Loads the answers of a correction request and their distinct questions in two queries; the detached entities
+// are read by the grader directly, without a DTO round trip
+@Component
+public class GradingBatchLoader {
+
+    private final AnswerRepository answerRepository;
+    private final QuestionRepository questionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public GradingBatchLoader(AnswerRepository answerRepository,
+                              QuestionRepository questionRepository,
+                              TransactionTemplate transactionTemplate) {
+        this.answerRepository = answerRepository;
+        this.questionRepository = questionRepository;
+        // Read-only sessions skip dirty-checking snapshots for everything loaded
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public GradingBatch load(Collection<UUID> answerIds) {
+        Set<UUID> distinctIds = new HashSet<>(answerIds);
+        distinctIds.remove(null);
+
+        return readOnlyTransaction.execute(status -> {
+            Map<UUID, Answer> answers = new HashMap<>();
+            for (Answer answer : answerRepository.findAllById(distinctIds)) {
+                answers.put(answer.getId(), answer);
+            }
+
+            Set<UUID> questionIds = new HashSet<>();
+            for (Answer answer : answers.values()) {
+                questionIds.add(answer.getQuestionId());
+            }
+            Map<UUID, Question> questions = new HashMap<>();
+            for (Question question : questionRepository.findAllById(questionIds)) {
+                questions.put(question.getId(), question);
+            }
+            return new GradingBatch(answers, questions);
+        });
+    }
+
+    // Lookups fail the same way the single-answer service lookups do, so callers report per-answer errors unchanged
+    public static final class GradingBatch {
+        private final Map<UUID, Answer> answers;
+        private final Map<UUID, Question> questions;
+
+        private GradingBatch(Map<UUID, Answer> answers, Map<UUID, Question> questions) {
+            this.answers = answers;
+            this.questions = questions;
+        }
+
+        public Answer getAnswer(UUID answerId) {
+            Answer answer = answers.get(answerId);
+            if (answer == null) {
+                throw new Validation.ResourceNotFoundException("Answer", String.valueOf(answerId));
+            }
+            return answer;
+        }
+
+        public Question getQuestion(Answer answer) {
+            UUID questionId = answer.getQuestionId();
+            Question question = questions.get(questionId);
+            if (question == null) {
+                throw new Validation.ResourceNotFoundException("Question", String.valueOf(questionId));
+            }
+            if (!question.isActive()) {
+                throw new Validation.ResourceNotFoundException("Question", questionId.toString(), "Question with ID: " + questionId + " is inactive");
+            }
+            return question;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.questionbank.QuestionBank.service.ai;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.entity.Question;
+import com.questionbank.QuestionBank.entity.QuestionType;
+import com.questionbank.QuestionBank.service.plagiarism.ModelLoader;
+import com.questionbank.QuestionBank.service.plagiarism.ModelNotReadyException;
+import com.questionbank.QuestionBank.service.plagiarism.OnnxSessionFactory;
+import com.questionbank.QuestionBank.service.plagiarism.OnnxSessionPool;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+// Offline grader for short essays: a pair classifier scores the answer against the question's reference answer
+// and each rubric point in one batched ONNX run, with no network access
+@Service
+public class LocalGrader {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalGrader.class);
+
+    public enum Mode { OFF, PRIMARY, PRESCREEN, FALLBACK }
+
+    @Value("${onnx.enabled:false}")
+    private boolean onnxEnabled;
+
+    @Value("${onnx.model.path:models/text-classifier.onnx}")
+    private String modelPath;
+
+    @Value("${onnx.model.tokenizer.path:${plagiarism.text.onnx.tokenizer.path:models/tokenizer.json}}")
+    private String tokenizerPath;
+
+    @Value("${onnx.model.max-length:512}")
+    private int maxLength;
+
+    @Value("${onnx.model.pool-size:${onnx.session.pool-size:1}}")
+    private int poolSize;
+
+    @Value("${onnx.init.lazy:false}")
+    private boolean lazyInit;
+
+    @Value("${ai.correction.local.mode:fallback}")
+    private String modeName;
+
+    @Value("${ai.correction.local.reference-weight:0.5}")
+    private double referenceWeight;
+
+    @Value("${ai.correction.local.rubric-threshold:0.5}")
+    private double rubricThreshold;
+
+    @Value("${ai.correction.local.min-confidence:0.8}")
+    private double minConfidence;
+
+    @Value("${ai.correction.threshold:0.7}")
+    private double correctThreshold;
+
+    private final OnnxSessionFactory sessionFactory;
+    private final ObjectMapper objectMapper;
+    private final ModelLoader modelLoader;
+    private Mode mode;
+    private OrtEnvironment env;
+    private OnnxSessionPool sessionPool;
+    private WordPieceTokenizer tokenizer;
+    private boolean hasTokenTypes;
+    private volatile String modelVersion;
+
+    @Autowired
+    public LocalGrader(OnnxSessionFactory sessionFactory,
+                       ObjectMapper objectMapper,
+                       @Qualifier("modelInitExecutor") ExecutorService modelInitExecutor) {
+        this.sessionFactory = sessionFactory;
+        this.objectMapper = objectMapper;
+        this.modelLoader = new ModelLoader("text-classifier", modelInitExecutor);
+    }
+
+    @PostConstruct
+    public void init() {
+        mode = Mode.valueOf(modeName.trim().toUpperCase(Locale.ROOT));
+        if (!onnxEnabled || mode == Mode.OFF) {
+            log.info("Local grading model disabled (onnx.enabled={}, mode={})", onnxEnabled, mode);
+            modelLoader.disable();
+            return;
+        }
+
+        modelLoader.register(this::loadModel, lazyInit);
+    }
+
+    private void loadModel() throws Exception {
+        env = OrtEnvironment.getEnvironment();
+
+        Path modelFile = sessionFactory.resolveModelFile(modelPath);
+        // Without the model's own vocabulary the classifier would grade meaningless token IDs, so the load fails
+        tokenizer = WordPieceTokenizer.load(sessionFactory.resolveModelFile(tokenizerPath), objectMapper);
+        modelVersion = sessionFactory.modelVersion(modelFile, OnnxSessionFactory.VARIANT_FP32);
+
+        long start = System.currentTimeMillis();
+        sessionPool = sessionFactory.createPool(env, modelFile.toString(), poolSize);
+        hasTokenTypes = sessionPool.getInputNames().contains("token_type_ids");
+        warmUp();
+        log.info("ONNX grading model {} loaded and warmed up in {}ms (token types: {})",
+                   modelVersion, System.currentTimeMillis() - start, hasTokenTypes);
+    }
+
+    private void warmUp() throws OrtException {
+        int runs = sessionPool.size() * sessionFactory.getWarmupIterations();
+        for (int i = 0; i < runs; i++) {
+            scorePairs(List.of("warm up reference answer", "warm up rubric point"), "warm up student answer");
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public double getMinConfidence() {
+        return minConfidence;
+    }
+
+    // Null until the model has loaded
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public ModelLoader getModelLoader() {
+        return modelLoader;
+    }
+
+    // Null unless this answer can be graded locally: a short essay whose question has a reference answer or
+    // rubric, with the model loaded
+    public LocalGrade grade(Question question, Answer answer) {
+        if (mode == Mode.OFF || question.getType() != QuestionType.ESSAY_SHORT) {
+            return null;
+        }
+        Reference reference = readReference(question);
+        if (reference == null) {
+            return null;
+        }
+        try {
+            modelLoader.requireReady();
+        } catch (ModelNotReadyException e) {
+            return null;
+        }
+
+        String content = answer.getContent() != null ? answer.getContent().trim() : "";
+        double points = question.getPoints() != null ? question.getPoints() : 0.0;
+        if (content.isEmpty()) {
+            return new LocalGrade(0.0, points, false, 1.0, null, List.of(), reference.rubric);
+        }
+
+        List<String> premises = new ArrayList<>(reference.rubric.size() + 1);
+        if (reference.answer != null) {
+            premises.add(reference.answer);
+        }
+        premises.addAll(reference.rubric);
+
+        float[][] verdicts;
+        try {
+            verdicts = scorePairs(premises, content);
+        } catch (Exception e) {
+            log.warn("Local grading failed for question {}: {}", question.getId(), e.getMessage());
+            return null;
+        }
+
+        int offset = reference.answer != null ? 1 : 0;
+        Double referenceMatch = reference.answer != null ? (double) verdicts[0][0] : null;
+        double confidence = 1.0;
+        for (float[] verdict : verdicts) {
+            confidence = Math.min(confidence, verdict[1]);
+        }
+
+        List<String> covered = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        double rubricTotal = 0.0;
+        for (int i = 0; i < reference.rubric.size(); i++) {
+            double match = verdicts[offset + i][0];
+            rubricTotal += match;
+            (match >= rubricThreshold ? covered : missing).add(reference.rubric.get(i));
+        }
+
+        double fraction;
+        if (referenceMatch != null && !reference.rubric.isEmpty()) {
+            fraction = referenceWeight * referenceMatch + (1 - referenceWeight) * rubricTotal / reference.rubric.size();
+        } else if (referenceMatch != null) {
+            fraction = referenceMatch;
+        } else {
+            fraction = rubricTotal / reference.rubric.size();
+        }
+
+        double score = Math.round(fraction * points * 100.0) / 100.0;
+        return new LocalGrade(score, points, fraction >= correctThreshold, confidence, referenceMatch, covered, missing);
+    }
+
+    // Reference material lives in the essay configuration: "referenceAnswer" and a "rubric" array of key points
+    private Reference readReference(Question question) {
+        if (question.getConfigurationData() == null || question.getConfigurationData().isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode config = objectMapper.readTree(question.getConfigurationData());
+            String referenceAnswer = config.path("referenceAnswer").asText("").trim();
+            List<String> rubric = new ArrayList<>();
+            for (JsonNode point : config.path("rubric")) {
+                String text = point.asText("").trim();
+                if (!text.isEmpty()) {
+                    rubric.add(text);
+                }
+            }
+            if (referenceAnswer.isEmpty() && rubric.isEmpty()) {
+                return null;
+            }
+            return new Reference(referenceAnswer.isEmpty() ? null : referenceAnswer, rubric);
+        } catch (Exception e) {
+            log.debug("Unreadable configuration for question {}: {}", question.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    // One row per premise, all paired with the same answer and padded only to the longest row; each verdict is
+    // {match probability, confidence}
+    float[][] scorePairs(List<String> premises, String answer) throws OrtException {
+        int rows = premises.size();
+        long[] answerIds = tokenizer.encode(answer, maxLength - 3);
+        long[][] premiseIds = new long[rows][];
+        int width = 0;
+        for (int row = 0; row < rows; row++) {
+            premiseIds[row] = tokenizer.encode(premises.get(row), maxLength - 3);
+            width = Math.max(width, pairLength(premiseIds[row], answerIds));
+        }
+
+        long[] inputIds = new long[rows * width];
+        long[] attentionMask = new long[rows * width];
+        long[] tokenTypes = new long[rows * width];
+        for (int row = 0; row < rows; row++) {
+            encodePair(premiseIds[row], answerIds, row * width, inputIds, attentionMask, tokenTypes);
+        }
+
+        long[] shape = {rows, width};
+        OnnxTensor idsTensor = OnnxTensor.createTensor(env, LongBuffer.wrap(inputIds), shape);
+        OnnxTensor maskTensor = OnnxTensor.createTensor(env, LongBuffer.wrap(attentionMask), shape);
+        OnnxTensor typesTensor = hasTokenTypes ? OnnxTensor.createTensor(env, LongBuffer.wrap(tokenTypes), shape) : null;
+
+        try {
+            Map<String, OnnxTensor> inputs = new HashMap<>();
+            inputs.put("input_ids", idsTensor);
+            inputs.put("attention_mask", maskTensor);
+            if (typesTensor != null) {
+                inputs.put("token_type_ids", typesTensor);
+            }
+
+            float[][] logits = sessionPool.run(session -> {
+                try (OrtSession.Result result = session.run(inputs)) {
+                    return (float[][]) result.get(0).getValue();
+                }
+            });
+
+            float[][] verdicts = new float[rows][];
+            for (int row = 0; row < rows; row++) {
+                verdicts[row] = verdict(logits[row]);
+            }
+            return verdicts;
+        } finally {
+            idsTensor.close();
+            maskTensor.close();
+            if (typesTensor != null) {
+                typesTensor.close();
+            }
+        }
+    }
+
+    // A single logit is a sigmoid relevance score; several logits are ordered grade bands scored by their expectation
+    private static float[] verdict(float[] logits) {
+        if (logits.length == 1) {
+            float p = (float) (1.0 / (1.0 + Math.exp(-logits[0])));
+            return new float[]{p, Math.abs(2 * p - 1)};
+        }
+
+        float max = Float.NEGATIVE_INFINITY;
+        for (float logit : logits) {
+            max = Math.max(max, logit);
+        }
+        double sum = 0.0;
+        double[] probabilities = new double[logits.length];
+        for (int i = 0; i < logits.length; i++) {
+            probabilities[i] = Math.exp(logits[i] - max);
+            sum += probabilities[i];
+        }
+        double expected = 0.0;
+        double top = 0.0;
+        for (int i = 0; i < logits.length; i++) {
+            double p = probabilities[i] / sum;
+            expected += p * i / (logits.length - 1);
+            top = Math.max(top, p);
+        }
+        return new float[]{(float) expected, (float) top};
+    }
+
+    // The premise gets at most half of maxLength, and the answer gets whatever length the premise leaves
+    private int premiseBudget(long[] premise) {
+        return Math.min(premise.length, (maxLength - 3) / 2);
+    }
+
+    private int pairLength(long[] premise, long[] answer) {
+        int premiseBudget = premiseBudget(premise);
+        return 3 + premiseBudget + Math.min(answer.length, maxLength - 3 - premiseBudget);
+    }
+
+    // [CLS] premise [SEP] answer [SEP]; the rest of the row stays zero padding outside the attention mask
+    private void encodePair(long[] premise, long[] answer, int offset, long[] inputIds, long[] attentionMask, long[] tokenTypes) {
+        int premiseBudget = premiseBudget(premise);
+        int answerBudget = Math.min(answer.length, maxLength - 3 - premiseBudget);
+
+        int idx = offset;
+        inputIds[idx++] = tokenizer.getClsId();
+        System.arraycopy(premise, 0, inputIds, idx, premiseBudget);
+        idx += premiseBudget;
+        inputIds[idx++] = tokenizer.getSepId();
+        int secondSegment = idx;
+        System.arraycopy(answer, 0, inputIds, idx, answerBudget);
+        idx += answerBudget;
+        inputIds[idx++] = tokenizer.getSepId();
+
+        for (int i = offset; i < idx; i++) {
+            attentionMask[i] = 1;
+            tokenTypes[i] = i >= secondSegment ? 1 : 0;
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        try {
+            if (sessionPool != null) {
+                sessionPool.close();
+                log.info("ONNX grading sessions closed");
+            }
+        } catch (Exception e) {
+            log.error("Cleanup error: {}", e.getMessage());
+        }
+    }
+
+    private static final class Reference {
+        private final String answer;
+        private final List<String> rubric;
+
+        private Reference(String answer, List<String> rubric) {
+            this.answer = answer;
+            this.rubric = rubric;
+        }
+    }
+
+    // Score out of maxScore plus the evidence behind it; confidence is the weakest verdict across all pairs
+    public static final class LocalGrade {
+        private final double score;
+        private final double maxScore;
+        private final boolean correct;
+        private final double confidence;
+        private final Double referenceMatch;
+        private final List<String> covered;
+        private final List<String> missing;
+
+        private LocalGrade(double score, double maxScore, boolean correct, double confidence,
+                           Double referenceMatch, List<String> covered, List<String> missing) {
+            this.score = score;
+            this.maxScore = maxScore;
+            this.correct = correct;
+            this.confidence = confidence;
+            this.referenceMatch = referenceMatch;
+            this.covered = covered;
+            this.missing = missing;
+        }
+
+        public double getScore() { return score; }
+        public double getMaxScore() { return maxScore; }
+        public boolean isCorrect() { return correct; }
+        public double getConfidence() { return confidence; }
+        public Double getReferenceMatch() { return referenceMatch; }
+        public List<String> getCovered() { return covered; }
+        public List<String> getMissing() { return missing; }
+    }
+}
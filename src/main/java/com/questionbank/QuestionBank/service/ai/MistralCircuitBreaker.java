@@ -0,0 +1,148 @@
+package com.questionbank.QuestionBank.service.ai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Stops calling Mistral once too many recent calls failed, so callers fall back at once instead of waiting out
+// timeouts; after the open period a single probe call decides whether the circuit closes again
+@Component
+public class MistralCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(MistralCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    private long rejected;
+    private long trips;
+
+    @Autowired
+    public MistralCircuitBreaker(@Value("${ai.mistral.circuit-breaker.window-size:20}") int windowSize,
+                                 @Value("${ai.mistral.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                                 @Value("${ai.mistral.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                 @Value("${ai.mistral.circuit-breaker.open-seconds:30}") long openSeconds) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize
+                || failureRateThreshold <= 0 || failureRateThreshold > 1 || openSeconds < 1) {
+            throw new IllegalArgumentException("Mistral circuit breaker needs 1 <= minimum-calls <= window-size, a failure rate in (0, 1] and a positive open period");
+        }
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+    }
+
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    rejected++;
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                log.info("Mistral circuit half-open, sending a probe request");
+                return true;
+            default:
+                if (probeInFlight) {
+                    rejected++;
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            log.info("Mistral probe succeeded, closing circuit");
+            reset(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            log.warn("Mistral probe failed, circuit stays open");
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                log.warn("Mistral circuit opened: {} of the last {} calls failed", failures, recorded);
+                open();
+            }
+        }
+    }
+
+    // The call ended without telling us anything about Mistral's health, e.g. a limiter rejection
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAt = System.nanoTime();
+        trips++;
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return recorded > 0 ? (double) failures / recorded : 0.0;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public synchronized long getTrips() {
+        return trips;
+    }
+}
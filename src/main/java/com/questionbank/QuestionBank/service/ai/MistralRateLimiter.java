@@ -0,0 +1,40 @@
+package com.questionbank.QuestionBank.service.ai;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Token bucket sized to the Mistral API quota; callers delay their request by the wait it hands out
+@Component
+public class MistralRateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+
+    private double tokens;
+    private long refilledAt;
+
+    @Autowired
+    public MistralRateLimiter(@Value("${ai.mistral.rate-limit.requests-per-second:2}") double requestsPerSecond,
+                              @Value("${ai.mistral.rate-limit.burst:4}") int burst) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Mistral rate limit needs a positive rate and a burst of at least 1");
+        }
+        this.permitsPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    // Takes a token now, letting the balance go negative; the deficit is how long this caller must wait,
+    // so waiting callers are released in the order they arrived
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+    }
+}
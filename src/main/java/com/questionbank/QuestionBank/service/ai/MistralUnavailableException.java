@@ -0,0 +1,14 @@
+package com.questionbank.QuestionBank.service.ai;
+
+// Thrown when a Mistral call is refused locally, before any request is sent, by the circuit breaker or concurrency limiter
+public class MistralUnavailableException extends RuntimeException {
+
+    private final String reason;
+
+    public MistralUnavailableException(String reason) {
+        super("Mistral API unavailable: " + reason);
+        this.reason = reason;
+    }
+
+    public String getReason() { return reason; }
+}
@@ -0,0 +1,209 @@
+package com.questionbank.QuestionBank.service.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// BERT WordPiece tokenization driven by a Hugging Face tokenizer.json: the same normalization, punctuation
+// splitting and greedy longest-match sub-words the model was trained with, so token IDs index its real vocabulary
+public final class WordPieceTokenizer {
+
+    private final Map<String, Integer> vocab;
+    private final String continuationPrefix;
+    private final int unknownId;
+    private final int maxCharsPerWord;
+    private final boolean lowercase;
+    private final boolean stripAccents;
+    private final long clsId;
+    private final long sepId;
+
+    private WordPieceTokenizer(Map<String, Integer> vocab, String continuationPrefix, int unknownId, int maxCharsPerWord,
+                               boolean lowercase, boolean stripAccents, long clsId, long sepId) {
+        this.vocab = vocab;
+        this.continuationPrefix = continuationPrefix;
+        this.unknownId = unknownId;
+        this.maxCharsPerWord = maxCharsPerWord;
+        this.lowercase = lowercase;
+        this.stripAccents = stripAccents;
+        this.clsId = clsId;
+        this.sepId = sepId;
+    }
+
+    public static WordPieceTokenizer load(Path tokenizerFile, ObjectMapper objectMapper) throws IOException {
+        JsonNode root = objectMapper.readTree(tokenizerFile.toFile());
+        JsonNode model = root.path("model");
+        if (!"WordPiece".equals(model.path("type").asText())) {
+            throw new IllegalArgumentException("Tokenizer " + tokenizerFile + " is not a WordPiece tokenizer");
+        }
+
+        Map<String, Integer> vocab = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = model.path("vocab").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            vocab.put(entry.getKey(), entry.getValue().asInt());
+        }
+        String unknownToken = model.path("unk_token").asText("[UNK]");
+        if (!vocab.containsKey(unknownToken)) {
+            throw new IllegalArgumentException("Tokenizer vocabulary has no unknown token " + unknownToken);
+        }
+
+        // BertNormalizer strips accents whenever it lowercases, unless strip_accents says otherwise
+        JsonNode normalizer = root.path("normalizer");
+        boolean lowercase = normalizer.path("lowercase").asBoolean(true);
+        JsonNode strip = normalizer.path("strip_accents");
+        boolean stripAccents = strip.isBoolean() ? strip.asBoolean() : lowercase;
+
+        return new WordPieceTokenizer(vocab,
+            model.path("continuing_subword_prefix").asText("##"),
+            vocab.get(unknownToken),
+            model.path("max_input_chars_per_word").asInt(100),
+            lowercase, stripAccents,
+            vocab.getOrDefault("[CLS]", 101), vocab.getOrDefault("[SEP]", 102));
+    }
+
+    public long getClsId() { return clsId; }
+    public long getSepId() { return sepId; }
+
+    // Token IDs without special tokens, at most limit of them
+    public long[] encode(String text, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (String word : preTokenize(normalize(text))) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            wordPiece(word, ids);
+        }
+        int size = Math.min(limit, ids.size());
+        long[] encoded = new long[size];
+        for (int i = 0; i < size; i++) {
+            encoded[i] = ids.get(i);
+        }
+        return encoded;
+    }
+
+    // Greedy longest match from the start of the word; a word with any unmatchable piece is a single unknown token
+    private void wordPiece(String word, List<Long> ids) {
+        if (word.codePointCount(0, word.length()) > maxCharsPerWord) {
+            ids.add((long) unknownId);
+            return;
+        }
+        List<Long> pieces = new ArrayList<>();
+        int start = 0;
+        while (start < word.length()) {
+            int end = word.length();
+            Integer match = null;
+            while (start < end) {
+                String piece = word.substring(start, end);
+                if (start > 0) {
+                    piece = continuationPrefix + piece;
+                }
+                match = vocab.get(piece);
+                if (match != null) {
+                    break;
+                }
+                end = Character.isLowSurrogate(word.charAt(end - 1)) && end - 2 > start ? end - 2 : end - 1;
+            }
+            if (match == null) {
+                ids.add((long) unknownId);
+                return;
+            }
+            pieces.add((long) match);
+            start = end;
+        }
+        ids.addAll(pieces);
+    }
+
+    private String normalize(String text) {
+        StringBuilder cleaned = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (cp == 0 || cp == 0xFFFD || isControl(cp)) {
+                continue;
+            }
+            if (Character.isWhitespace(cp) || Character.getType(cp) == Character.SPACE_SEPARATOR) {
+                cleaned.append(' ');
+            } else if (isCjk(cp)) {
+                cleaned.append(' ').appendCodePoint(cp).append(' ');
+            } else {
+                cleaned.appendCodePoint(cp);
+            }
+        }
+
+        String normalized = cleaned.toString();
+        if (lowercase) {
+            normalized = normalized.toLowerCase(Locale.ROOT);
+        }
+        if (stripAccents) {
+            normalized = Normalizer.normalize(normalized, Normalizer.Form.NFD).replaceAll("\\p{Mn}", "");
+        }
+        return normalized;
+    }
+
+    // Whitespace separates words and every punctuation character is a word of its own
+    private static List<String> preTokenize(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (cp == ' ' || isPunctuation(cp)) {
+                if (word.length() > 0) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                }
+                if (cp != ' ') {
+                    words.add(new String(Character.toChars(cp)));
+                }
+            } else {
+                word.appendCodePoint(cp);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private static boolean isControl(int cp) {
+        if (cp == '\t' || cp == '\n' || cp == '\r') {
+            return false;
+        }
+        int type = Character.getType(cp);
+        return type == Character.CONTROL || type == Character.FORMAT
+            || type == Character.PRIVATE_USE || type == Character.SURROGATE;
+    }
+
+    // ASCII symbols such as $ and ^ count as punctuation too, as in BERT
+    private static boolean isPunctuation(int cp) {
+        if ((cp >= 33 && cp <= 47) || (cp >= 58 && cp <= 64) || (cp >= 91 && cp <= 96) || (cp >= 123 && cp <= 126)) {
+            return true;
+        }
+        switch (Character.getType(cp)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isCjk(int cp) {
+        return (cp >= 0x4E00 && cp <= 0x9FFF) || (cp >= 0x3400 && cp <= 0x4DBF) || (cp >= 0x20000 && cp <= 0x2A6DF)
+            || (cp >= 0x2A700 && cp <= 0x2B73F) || (cp >= 0x2B740 && cp <= 0x2B81F) || (cp >= 0x2B820 && cp <= 0x2CEAF)
+            || (cp >= 0xF900 && cp <= 0xFAFF) || (cp >= 0x2F800 && cp <= 0x2FA1F);
+    }
+}
@@ -0,0 +1,562 @@
+package com.questionbank.QuestionBank.service.correction;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionbank.QuestionBank.entity.Question;
+import com.questionbank.QuestionBank.entity.QuestionType;
+import com.questionbank.QuestionBank.util.Utils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Immutable, precompiled form of a question's answer configuration used by auto-scoring
+public final class AnswerKey {
+
+    private final UUID questionId;
+    private final LocalDateTime version;
+    private final QuestionType type;
+    private final boolean malformed;
+
+    private final Choices choices;
+    private final Statements statements;
+    private final Pairs pairs;
+    private final Blanks blanks;
+    private final Sequence sequence;
+    private final Range range;
+    private final Selection selection;
+
+    private AnswerKey(Question question, boolean malformed, Choices choices, Statements statements, Pairs pairs,
+                      Blanks blanks, Sequence sequence, Range range, Selection selection) {
+        this.questionId = question.getId();
+        this.version = question.getUpdatedAt();
+        this.type = question.getType();
+        this.malformed = malformed;
+        this.choices = choices;
+        this.statements = statements;
+        this.pairs = pairs;
+        this.blanks = blanks;
+        this.sequence = sequence;
+        this.range = range;
+        this.selection = selection;
+    }
+
+    // Parse the configuration once; a broken configuration compiles to a malformed key instead of throwing
+    public static AnswerKey compile(Question question, ObjectMapper objectMapper) {
+        JsonNode config;
+        try {
+            config = Utils.Json.parseConfigurationData(question.getConfigurationData(), objectMapper);
+        } catch (Exception e) {
+            return new AnswerKey(question, true, null, null, null, null, null, null, null);
+        }
+        if (config == null || question.getType() == null) {
+            return new AnswerKey(question, config == null, null, null, null, null, null, null, null);
+        }
+
+        try {
+            switch (question.getType()) {
+                case MCQ:
+                    return new AnswerKey(question, false, Choices.compile(config.get("options")),
+                        null, null, null, null, null, null);
+                case TRUE_FALSE:
+                    return new AnswerKey(question, false, null, Statements.compile(config.get("correctAnswer")),
+                        null, null, null, null, null);
+                case MATCHING:
+                    return new AnswerKey(question, false, null, null, Pairs.compile(config.get("pairs")),
+                        null, null, null, null);
+                case FILL_IN_BLANK:
+                    return new AnswerKey(question, false, null, null, null, Blanks.compile(config.get("blanks")),
+                        null, null, null);
+                case REARRANGE:
+                    return new AnswerKey(question, false, null, null, null, null,
+                        Sequence.compile(config.get("correctOrder"), true, config.get("scoringMode")), null, null);
+                case PUZZLE:
+                    return new AnswerKey(question, false, null, null, null, null,
+                        Sequence.compile(config.get("correctAnswer"), false, null), null, null);
+                case SLIDER:
+                    return new AnswerKey(question, false, null, null, null, null, null,
+                        Range.compile(config), null);
+                case SELECT_ON_PHOTO:
+                    return new AnswerKey(question, false, null, null, null, null, null, null,
+                        Selection.compile(config.get("selectedBlocks")));
+                default:
+                    return new AnswerKey(question, false, null, null, null, null, null, null, null);
+            }
+        } catch (RuntimeException e) {
+            return new AnswerKey(question, true, null, null, null, null, null, null, null);
+        }
+    }
+
+    public UUID getQuestionId() { return questionId; }
+    public LocalDateTime getVersion() { return version; }
+    public QuestionType getType() { return type; }
+    public boolean isMalformed() { return malformed; }
+    public Choices getChoices() { return choices; }
+    public Statements getStatements() { return statements; }
+    public Pairs getPairs() { return pairs; }
+    public Blanks getBlanks() { return blanks; }
+    public Sequence getSequence() { return sequence; }
+    public Range getRange() { return range; }
+    public Selection getSelection() { return selection; }
+
+    // True when this key was compiled from the given revision of the question
+    public boolean matches(Question question) {
+        return question != null && Objects.equals(questionId, question.getId())
+            && Objects.equals(version, question.getUpdatedAt());
+    }
+
+    private static String[] textArray(JsonNode arrayNode) {
+        String[] values = new String[arrayNode.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = arrayNode.get(i).asText();
+        }
+        return values;
+    }
+
+    private static String[] splitTrimmed(String value, String regex) {
+        String[] parts = value.split(regex);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+        return parts;
+    }
+
+    // MCQ options interned to their configuration order, with the correct ones as a selection mask
+    public static final class Choices {
+        private final String[] ids;
+        private final String[] texts;
+        private final Map<String, Integer> indexById;
+        private final Map<String, Integer> indexByText;
+        private final long[] correct;
+        private final int correctCount;
+        private final List<String> correctTexts;
+
+        private Choices(String[] ids, String[] texts, Map<String, Integer> indexById,
+                        Map<String, Integer> indexByText, long[] correct) {
+            this.ids = ids;
+            this.texts = texts;
+            this.indexById = indexById;
+            this.indexByText = indexByText;
+            this.correct = correct;
+            this.correctCount = Bitmask.count(correct);
+            this.correctTexts = Collections.unmodifiableList(Bitmask.labels(correct, texts));
+        }
+
+        static Choices compile(JsonNode optionsNode) {
+            if (optionsNode == null || !optionsNode.isObject()) return null;
+
+            int size = optionsNode.size();
+            String[] ids = new String[size];
+            String[] texts = new String[size];
+            Map<String, Integer> indexById = new HashMap<>();
+            Map<String, Integer> indexByText = new HashMap<>();
+            long[] correct = Bitmask.create(size);
+
+            int index = 0;
+            for (Iterator<Map.Entry<String, JsonNode>> fields = optionsNode.fields(); fields.hasNext(); index++) {
+                Map.Entry<String, JsonNode> entry = fields.next();
+                JsonNode option = entry.getValue();
+                ids[index] = entry.getKey();
+                texts[index] = option.get("text").asText();
+                indexById.put(ids[index], index);
+                indexByText.put(texts[index], index);
+                if (option.has("correct") && option.get("correct").asBoolean()) {
+                    Bitmask.set(correct, index);
+                }
+            }
+            return new Choices(ids, texts, indexById, indexByText, correct);
+        }
+
+        public int size() { return ids.length; }
+        public String getId(int index) { return ids[index]; }
+        public String getText(int index) { return texts[index]; }
+        public int getCorrectCount() { return correctCount; }
+        public List<String> getCorrectTexts() { return correctTexts; }
+
+        // Index of the option with this id, or -1 when the id is unknown
+        public int indexOfId(String id) {
+            Integer index = indexById.get(id);
+            return index != null ? index : -1;
+        }
+
+        public int indexOfText(String text) {
+            Integer index = indexByText.get(text);
+            return index != null ? index : -1;
+        }
+
+        public long[] newSelection() {
+            return Bitmask.create(ids.length);
+        }
+
+        public boolean isExactly(long[] selected) {
+            return Bitmask.equals(selected, correct);
+        }
+
+        public int countCorrect(long[] selected) {
+            return Bitmask.countAnd(selected, correct);
+        }
+
+        public int countIncorrect(long[] selected) {
+            return Bitmask.countAndNot(selected, correct);
+        }
+
+        public List<String> correctTexts(long[] selected) {
+            return Bitmask.labels(Bitmask.and(selected, correct), texts);
+        }
+
+        public List<String> incorrectTexts(long[] selected) {
+            return Bitmask.labels(Bitmask.andNot(selected, correct), texts);
+        }
+
+        public List<String> missingTexts(long[] selected) {
+            return Bitmask.labels(Bitmask.andNot(correct, selected), texts);
+        }
+    }
+
+    // True/false key; multi-statement questions hold one expected value per statement
+    public static final class Statements {
+        private final String raw;
+        private final String[] values;
+
+        private Statements(String raw) {
+            this.raw = raw;
+            this.values = splitTrimmed(raw, ",");
+        }
+
+        static Statements compile(JsonNode correctNode) {
+            if (correctNode == null) return null;
+            String raw = correctNode.asText();
+            return raw == null || raw.trim().isEmpty() ? null : new Statements(raw);
+        }
+
+        public String getRaw() { return raw; }
+        public int size() { return values.length; }
+        public String get(int index) { return values[index]; }
+    }
+
+    // Matching pairs ordered by pair number
+    public static final class Pairs {
+        private final int[] numbers;
+        private final String[][] columns;
+        private final boolean[] hasThirdColumn;
+
+        private Pairs(int[] numbers, String[][] columns, boolean[] hasThirdColumn) {
+            this.numbers = numbers;
+            this.columns = columns;
+            this.hasThirdColumn = hasThirdColumn;
+        }
+
+        static Pairs compile(JsonNode pairsNode) {
+            if (pairsNode == null || !pairsNode.isArray()) return null;
+
+            Map<Integer, JsonNode> byNumber = new TreeMap<>();
+            pairsNode.forEach(pairNode -> byNumber.put(pairNode.get("pairNumber").asInt(), pairNode));
+
+            int[] numbers = new int[byNumber.size()];
+            String[][] columns = new String[byNumber.size()][];
+            boolean[] hasThirdColumn = new boolean[byNumber.size()];
+            int index = 0;
+            for (Map.Entry<Integer, JsonNode> entry : byNumber.entrySet()) {
+                JsonNode pair = entry.getValue();
+                numbers[index] = entry.getKey();
+                hasThirdColumn[index] = pair.has("column_3");
+                columns[index] = new String[] {
+                    pair.get("column_1").asText(),
+                    pair.get("column_2").asText(),
+                    hasThirdColumn[index] ? pair.get("column_3").asText() : ""
+                };
+                index++;
+            }
+            return new Pairs(numbers, columns, hasThirdColumn);
+        }
+
+        public int size() { return numbers.length; }
+        public int getNumber(int index) { return numbers[index]; }
+        public String getColumn(int index, int column) { return columns[index][column]; }
+        public boolean hasThirdColumn(int index) { return hasThirdColumn[index]; }
+    }
+
+    // Fill-in-blank alternatives per blank, ordered by blank index, with an edit automaton for tolerant blanks
+    public static final class Blanks {
+        private final String[][] alternatives;
+        private final LevenshteinAutomaton[] fuzzy;
+        private final String[] expected;
+        private final String summary;
+
+        private Blanks(String[][] alternatives, LevenshteinAutomaton[] fuzzy, String[] expected, String summary) {
+            this.alternatives = alternatives;
+            this.fuzzy = fuzzy;
+            this.expected = expected;
+            this.summary = summary;
+        }
+
+        static Blanks compile(JsonNode blanksNode) {
+            if (blanksNode == null || !blanksNode.isArray()) return null;
+
+            List<JsonNode> sorted = new ArrayList<>();
+            blanksNode.forEach(sorted::add);
+            sorted.sort((a, b) -> Integer.compare(
+                a.has("index") ? a.get("index").asInt() : 0,
+                b.has("index") ? b.get("index").asInt() : 0));
+
+            // Blanks are delimited the same way student answers are, so a comma inside an alternative splits it;
+            // each piece keeps the tolerance of the blank it came from
+            List<String> joined = new ArrayList<>();
+            List<String> options = new ArrayList<>();
+            List<Integer> tolerances = new ArrayList<>();
+            for (JsonNode blank : sorted) {
+                JsonNode answers = blank.get("correctAnswers");
+                if (answers != null && answers.isArray() && answers.size() > 0) {
+                    String blankAnswers = String.join("|", textArray(answers));
+                    int tolerance = blank.has("tolerance") ? Math.max(0, blank.get("tolerance").asInt()) : 0;
+                    joined.add(blankAnswers);
+                    for (String option : blankAnswers.split(",", -1)) {
+                        options.add(option);
+                        tolerances.add(tolerance);
+                    }
+                }
+            }
+            if (joined.isEmpty()) return null;
+
+            String correctAnswers = String.join(",", joined);
+            int size = options.size();
+            while (size > 1 && options.get(size - 1).isEmpty()) {
+                size--;
+            }
+            if (size == 1 && options.get(0).isEmpty() && !correctAnswers.isEmpty()) {
+                size = 0;
+            }
+
+            String[][] alternatives = new String[size][];
+            LevenshteinAutomaton[] fuzzy = new LevenshteinAutomaton[size];
+            String[] expected = new String[size];
+            for (int i = 0; i < size; i++) {
+                String option = options.get(i).trim();
+                alternatives[i] = option.contains("|") ? splitTrimmed(option, "\\|") : new String[] { option };
+                expected[i] = option.replace("|", " or ");
+                if (tolerances.get(i) > 0) {
+                    fuzzy[i] = LevenshteinAutomaton.compile(alternatives[i], tolerances.get(i));
+                }
+            }
+            return new Blanks(alternatives, fuzzy, expected, correctAnswers.replace(",", ", ").replace("|", " or "));
+        }
+
+        public int size() { return alternatives.length; }
+        public String getExpected(int index) { return expected[index]; }
+        public String getSummary() { return summary; }
+        public int getTolerance(int index) { return fuzzy[index] != null ? fuzzy[index].getMaxEdits() : 0; }
+
+        public boolean accepts(int index, String answer) {
+            if (fuzzy[index] != null) {
+                // A missing blank is never within tolerance of an alternative
+                return !answer.trim().isEmpty() && fuzzy[index].matches(answer);
+            }
+            for (String alternative : alternatives[index]) {
+                if (answer.equalsIgnoreCase(alternative)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // How REARRANGE answers earn partial credit; configured as "scoringMode" on the question
+    public enum OrderScoring {
+        POSITION("position"),
+        LIS("lis"),
+        KENDALL("kendall");
+
+        private final String configValue;
+
+        OrderScoring(String configValue) {
+            this.configValue = configValue;
+        }
+
+        public String getConfigValue() { return configValue; }
+
+        // Null when the value names no mode
+        public static OrderScoring fromConfig(String value) {
+            for (OrderScoring mode : values()) {
+                if (mode.configValue.equalsIgnoreCase(value)) {
+                    return mode;
+                }
+            }
+            return null;
+        }
+    }
+
+    // Ordered items; each item maps to the first position holding an equal item so duplicates compare correctly
+    public static final class Sequence {
+        private final String[] items;
+        private final int[] canonical;
+        private final Map<String, Integer> positions;
+        private final boolean ignoreCase;
+        private final OrderScoring scoring;
+
+        private Sequence(String[] items, boolean ignoreCase, OrderScoring scoring) {
+            this.items = items;
+            this.ignoreCase = ignoreCase;
+            this.scoring = scoring;
+            this.canonical = new int[items.length];
+            this.positions = new HashMap<>();
+            for (int i = 0; i < items.length; i++) {
+                Integer first = positions.putIfAbsent(normalize(items[i]), i);
+                canonical[i] = first != null ? first : i;
+            }
+        }
+
+        static Sequence compile(JsonNode orderNode, boolean ignoreCase, JsonNode scoringNode) {
+            if (orderNode == null || !orderNode.isArray()) return null;
+            String joined = String.join(",", textArray(orderNode));
+            OrderScoring scoring = scoringNode != null ? OrderScoring.fromConfig(scoringNode.asText()) : null;
+            return joined.trim().isEmpty() ? null :
+                new Sequence(splitTrimmed(joined, ","), ignoreCase, scoring != null ? scoring : OrderScoring.POSITION);
+        }
+
+        private String normalize(String item) {
+            return ignoreCase ? item.toLowerCase(Locale.ROOT) : item;
+        }
+
+        public int size() { return items.length; }
+        public String get(int index) { return items[index]; }
+        public OrderScoring getScoring() { return scoring; }
+
+        // Position of the item in the key, or -1 when the student item is not part of it
+        public int positionOf(String item) {
+            Integer position = positions.get(normalize(item));
+            return position != null ? position : -1;
+        }
+
+        // The student's ordering as key positions, the permutation the scorers compare against
+        public int[] permutation(AnswerPayload studentItems) {
+            int[] permutation = new int[studentItems.size()];
+            for (int i = 0; i < permutation.length; i++) {
+                permutation[i] = positionOf(studentItems.value(i));
+            }
+            return permutation;
+        }
+
+        // Like permutation, but repeated items take successive key positions holding them so every rank is
+        // distinct; items not in the key, or repeated more often than the key holds them, rank -1
+        public int[] ranks(AnswerPayload studentItems) {
+            int[] ranks = permutation(studentItems);
+            int[] cursor = new int[items.length];
+            for (int i = 0; i < ranks.length; i++) {
+                int first = ranks[i];
+                if (first < 0) continue;
+                int rank = cursor[first] > 0 ? cursor[first] : first;
+                while (rank < items.length && canonical[rank] != first) {
+                    rank++;
+                }
+                ranks[i] = rank < items.length ? rank : -1;
+                cursor[first] = rank + 1;
+            }
+            return ranks;
+        }
+
+        public boolean matchesAt(int index, int position) {
+            return position >= 0 && canonical[index] == position;
+        }
+    }
+
+    // Slider target and bounds; the raw value is kept so an unparsable key reports like an unparsable answer
+    public static final class Range {
+        private final String correctValue;
+        private final Double correct;
+        private final double minValue;
+        private final double maxValue;
+        private final double step;
+        private final String unit;
+
+        private Range(String correctValue, double minValue, double maxValue, double step, String unit) {
+            this.correctValue = correctValue;
+            this.correct = parse(correctValue);
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+            this.step = step;
+            this.unit = unit;
+        }
+
+        static Range compile(JsonNode config) {
+            JsonNode sliderNode = config.get("correctValue");
+            if (sliderNode == null || sliderNode.asText().trim().isEmpty()) return null;
+            return new Range(sliderNode.asText(),
+                config.has("minValue") ? config.get("minValue").asDouble() : 0,
+                config.has("maxValue") ? config.get("maxValue").asDouble() : 100,
+                config.has("step") ? config.get("step").asDouble() : 1.0,
+                config.has("unit") ? config.get("unit").asText() : "");
+        }
+
+        private static Double parse(String value) {
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        public String getCorrectValue() { return correctValue; }
+        public Double getCorrect() { return correct; }
+        public double getMinValue() { return minValue; }
+        public double getMaxValue() { return maxValue; }
+        public double getStep() { return step; }
+        public String getUnit() { return unit; }
+    }
+
+    // Select-on-photo blocks that must be selected, interned so a selection is a mask over them
+    public static final class Selection {
+        private final String[] blocks;
+        private final Map<String, Integer> indexByBlock;
+        private final long[] required;
+
+        private Selection(String[] blocks, Map<String, Integer> indexByBlock) {
+            this.blocks = blocks;
+            this.indexByBlock = indexByBlock;
+            this.required = Bitmask.full(blocks.length);
+        }
+
+        static Selection compile(JsonNode blocksNode) {
+            if (blocksNode == null || !blocksNode.isArray()) return null;
+
+            Map<String, Integer> indexByBlock = new LinkedHashMap<>();
+            for (String block : textArray(blocksNode)) {
+                indexByBlock.putIfAbsent(block, indexByBlock.size());
+            }
+            return new Selection(indexByBlock.keySet().toArray(new String[0]), indexByBlock);
+        }
+
+        public int size() { return blocks.length; }
+        public String get(int index) { return blocks[index]; }
+
+        // Index of the required block, or -1 when the block is not required
+        public int indexOf(String block) {
+            Integer index = indexByBlock.get(block);
+            return index != null ? index : -1;
+        }
+
+        public long[] newSelection() {
+            return Bitmask.create(blocks.length);
+        }
+
+        public int countMissing(long[] selected) {
+            return Bitmask.countAndNot(required, selected);
+        }
+
+        public List<String> selectedBlocks(long[] selected) {
+            return Bitmask.labels(selected, blocks);
+        }
+
+        public List<String> missingBlocks(long[] selected) {
+            return Bitmask.labels(Bitmask.andNot(required, selected), blocks);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.questionbank.QuestionBank.service.correction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionbank.QuestionBank.entity.Question;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Compiled answer keys per question, valid for the question revision (updatedAt) they were built from
+@Component
+public class AnswerKeyCache {
+
+    private final ObjectMapper objectMapper;
+    private final Map<UUID, AnswerKey> keys = new ConcurrentHashMap<>();
+
+    @Value("${correction.answer-key-cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Autowired
+    public AnswerKeyCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public AnswerKey get(Question question) {
+        // Unsaved questions have no stable revision to cache against
+        if (question.getId() == null || question.getUpdatedAt() == null) {
+            return AnswerKey.compile(question, objectMapper);
+        }
+
+        AnswerKey cached = keys.get(question.getId());
+        if (cached != null && cached.matches(question)) {
+            return cached;
+        }
+
+        AnswerKey compiled = AnswerKey.compile(question, objectMapper);
+        if (keys.size() >= maxEntries && !keys.containsKey(question.getId())) {
+            keys.clear();
+        }
+        keys.put(question.getId(), compiled);
+        return compiled;
+    }
+
+    public void invalidate(UUID questionId) {
+        if (questionId != null) {
+            keys.remove(questionId);
+        }
+    }
+
+    public int size() {
+        return keys.size();
+    }
+}
@@ -0,0 +1,58 @@
+package com.questionbank.QuestionBank.service.correction;
+
+import java.util.Collections;
+import java.util.Map;
+
+// A student's answer content parsed once into the shape its question type is scored from
+public final class AnswerPayload {
+
+    private static final String[] NO_VALUES = new String[0];
+
+    private final String[] values;
+    private final Map<String, String[]> pairs;
+    private final Double number;
+    private final boolean json;
+    private final String error;
+
+    private AnswerPayload(String[] values, Map<String, String[]> pairs, Double number, boolean json, String error) {
+        this.values = values != null ? values : NO_VALUES;
+        this.pairs = pairs != null ? pairs : Collections.emptyMap();
+        this.number = number;
+        this.json = json;
+        this.error = error;
+    }
+
+    static AnswerPayload ofValues(String[] values, boolean json, String error) {
+        return new AnswerPayload(values, null, null, json, error);
+    }
+
+    static AnswerPayload ofPairs(Map<String, String[]> pairs, boolean json, String error) {
+        return new AnswerPayload(null, pairs, null, json, error);
+    }
+
+    static AnswerPayload ofNumber(Double number, String error) {
+        return new AnswerPayload(null, null, number, false, error);
+    }
+
+    // Selected ids, blank answers by index, or ordered items, depending on the question type
+    public int size() { return values.length; }
+
+    // The value at an index, or "" when the student left it out
+    public String value(int index) {
+        return index < values.length && values[index] != null ? values[index] : "";
+    }
+
+    // Matching columns for a pair number, or null when the pair was not answered with an object
+    public String[] getPair(String pairNumber) {
+        return pairs.get(pairNumber);
+    }
+
+    public Double getNumber() { return number; }
+
+    // False when the content was read as comma-separated text or could not be parsed as JSON
+    public boolean isJson() { return json; }
+
+    public boolean isMalformed() { return error != null; }
+
+    public String getError() { return error; }
+}
@@ -0,0 +1,308 @@
+package com.questionbank.QuestionBank.service.correction;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionbank.QuestionBank.entity.QuestionType;
+import com.questionbank.QuestionBank.exception.Validation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Token-stream readers for auto-scored answer payloads; no JsonNode tree is built
+@Component
+public class AnswerPayloadReader {
+
+    private static final int MAX_BLANK_INDEX = 1000;
+
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public AnswerPayloadReader(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // Never throws: malformed content is returned with an error and the closest comma-separated reading
+    public AnswerPayload read(QuestionType type, String content) {
+        String text = content != null ? content : "";
+        switch (type) {
+            case MCQ:
+                return readChoices(text);
+            case SELECT_ON_PHOTO:
+                return readBlocks(text);
+            case FILL_IN_BLANK:
+                return readBlanks(text);
+            case REARRANGE:
+                return readOrder(text);
+            case MATCHING:
+                return readPairs(text);
+            case SLIDER:
+                return readNumber(text);
+            case TRUE_FALSE:
+            case PUZZLE:
+                return AnswerPayload.ofValues(splitTrimmed(text), false, null);
+            default:
+                return AnswerPayload.ofValues(null, false, null);
+        }
+    }
+
+    // Parse for submission; a payload the scorer could only reject is refused before anything is stored
+    public AnswerPayload readValid(QuestionType type, String content) {
+        AnswerPayload payload = read(type, content);
+        if (payload.isMalformed()) {
+            throw new Validation.ValidationException(payload.getError());
+        }
+        return payload;
+    }
+
+    // JSON array or single JSON string of option ids, otherwise comma-separated ids or option texts
+    private AnswerPayload readChoices(String text) {
+        char first = firstCharacter(text);
+        if (first != '[' && first != '{' && first != '"') {
+            return AnswerPayload.ofValues(splitTrimmed(text), false, null);
+        }
+
+        String error = "MCQ answers must be a JSON array of option ids";
+        try (JsonParser parser = jsonFactory.createParser(text)) {
+            JsonToken token = parser.nextToken();
+            String[] values;
+            if (token == JsonToken.START_ARRAY) {
+                values = readScalarArray(parser);
+                error = null;
+            } else if (token != null && token.isScalarValue()) {
+                values = new String[]{parser.getText()};
+                error = null;
+            } else {
+                parser.skipChildren();
+                values = new String[]{""};
+            }
+            requireEnd(parser);
+            return AnswerPayload.ofValues(values, true, error);
+        } catch (IOException e) {
+            return AnswerPayload.ofValues(splitTrimmed(text), false, error);
+        }
+    }
+
+    private AnswerPayload readBlocks(String text) {
+        String error = "Select on photo answers must be a JSON array of block ids";
+        try (JsonParser parser = jsonFactory.createParser(text)) {
+            JsonToken token = parser.nextToken();
+            String[] values = null;
+            if (token == JsonToken.START_ARRAY) {
+                values = readScalarArray(parser);
+                error = null;
+            } else if (token != null) {
+                parser.skipChildren();
+            }
+            requireEnd(parser);
+            return AnswerPayload.ofValues(values, true, error);
+        } catch (IOException e) {
+            return AnswerPayload.ofValues(null, false, error);
+        }
+    }
+
+    // JSON object keyed by blank index ("0", "1", ...), otherwise comma-separated answers in blank order
+    private AnswerPayload readBlanks(String text) {
+        char first = firstCharacter(text);
+        if (first != '{' && first != '[') {
+            return AnswerPayload.ofValues(splitTrimmed(text), false, null);
+        }
+
+        String error = "Fill in blank answers must be a JSON object keyed by blank index";
+        if (first == '[') {
+            return AnswerPayload.ofValues(splitTrimmed(text), false, error);
+        }
+        try (JsonParser parser = jsonFactory.createParser(text)) {
+            parser.nextToken();
+            String[] answers = new String[8];
+            int size = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                int index = parseIndex(parser.getCurrentName());
+                JsonToken value = parser.nextToken();
+                String answer = value == JsonToken.VALUE_STRING ? parser.getText().trim() : "";
+                parser.skipChildren();
+
+                if (index >= 0 && index < MAX_BLANK_INDEX) {
+                    if (index >= answers.length) {
+                        answers = Arrays.copyOf(answers, Math.max(index + 1, answers.length * 2));
+                    }
+                    answers[index] = answer;
+                    size = Math.max(size, index + 1);
+                }
+            }
+            requireEnd(parser);
+            return AnswerPayload.ofValues(Arrays.copyOf(answers, size), true, null);
+        } catch (IOException e) {
+            return AnswerPayload.ofValues(splitTrimmed(text), false, error);
+        }
+    }
+
+    // JSON array of {item, position} (or plain item strings) sorted by position, otherwise comma-separated items
+    private AnswerPayload readOrder(String text) {
+        char first = firstCharacter(text);
+        if (first != '[' && first != '{') {
+            return AnswerPayload.ofValues(splitTrimmed(text), false, null);
+        }
+
+        String error = "Rearrange answers must be a JSON array of {item, position} objects";
+        if (first == '{') {
+            return AnswerPayload.ofValues(splitTrimmed(text), false, error);
+        }
+        try (JsonParser parser = jsonFactory.createParser(text)) {
+            parser.nextToken();
+            List<String> items = new ArrayList<>();
+            List<Integer> positions = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                String item = "";
+                int position = 0;
+                if (token == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.getCurrentName();
+                        JsonToken value = parser.nextToken();
+                        if ("item".equals(field) && value.isScalarValue()) {
+                            item = parser.getText().trim();
+                        } else if ("position".equals(field) && value.isScalarValue()) {
+                            position = parser.getValueAsInt(0);
+                        }
+                        parser.skipChildren();
+                    }
+                } else if (token.isScalarValue()) {
+                    item = parser.getText().trim();
+                } else {
+                    parser.skipChildren();
+                }
+                items.add(item);
+                positions.add(position);
+            }
+            requireEnd(parser);
+
+            // Stable sort keeps array order for equal or missing positions
+            Integer[] order = new Integer[items.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(positions.get(a), positions.get(b)));
+            String[] sorted = new String[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sorted[i] = items.get(order[i]);
+            }
+            return AnswerPayload.ofValues(sorted, true, null);
+        } catch (IOException e) {
+            return AnswerPayload.ofValues(splitTrimmed(text), false, error);
+        }
+    }
+
+    // JSON object of pair number -> {column_1, column_2, column_3}
+    private AnswerPayload readPairs(String text) {
+        String error = "Matching answers must be a JSON object of pair number to columns";
+        try (JsonParser parser = jsonFactory.createParser(text)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                requireEnd(parser);
+                return AnswerPayload.ofPairs(null, true, error);
+            }
+
+            Map<String, String[]> pairs = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String pairNumber = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    pairs.remove(pairNumber);
+                    continue;
+                }
+                String[] columns = {"", "", ""};
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    int column = columnIndex(parser.getCurrentName());
+                    JsonToken value = parser.nextToken();
+                    if (column >= 0 && value.isScalarValue()) {
+                        columns[column] = parser.getText();
+                    }
+                    parser.skipChildren();
+                }
+                pairs.put(pairNumber, columns);
+            }
+            requireEnd(parser);
+            return AnswerPayload.ofPairs(pairs, true, null);
+        } catch (IOException e) {
+            return AnswerPayload.ofPairs(null, false, error);
+        }
+    }
+
+    private AnswerPayload readNumber(String text) {
+        try {
+            return AnswerPayload.ofNumber(Double.parseDouble(text.trim()), null);
+        } catch (NumberFormatException e) {
+            return AnswerPayload.ofNumber(null, "Slider answers must be a number");
+        }
+    }
+
+    // Parser positioned on START_ARRAY; nested structures read as ""
+    private String[] readScalarArray(JsonParser parser) throws IOException {
+        List<String> values = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token.isScalarValue()) {
+                values.add(parser.getText());
+            } else {
+                parser.skipChildren();
+                values.add("");
+            }
+        }
+        return values.toArray(new String[0]);
+    }
+
+    private void requireEnd(JsonParser parser) throws IOException {
+        if (parser.nextToken() != null) {
+            throw new IOException("Unexpected content after JSON value");
+        }
+    }
+
+    private static int columnIndex(String field) {
+        switch (field) {
+            case "column_1": return 0;
+            case "column_2": return 1;
+            case "column_3": return 2;
+            default: return -1;
+        }
+    }
+
+    private static int parseIndex(String name) {
+        if (name.isEmpty() || name.length() > 4) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    private static char firstCharacter(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return text.charAt(i);
+            }
+        }
+        return 0;
+    }
+
+    private static String[] splitTrimmed(String text) {
+        String[] parts = text.split(",");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,84 @@
+package com.questionbank.QuestionBank.service.correction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Fixed-size selection masks over interned option indices, one long per 64 options
+public final class Bitmask {
+
+    private Bitmask() {}
+
+    public static long[] create(int size) {
+        return new long[Math.max(1, (size + 63) >>> 6)];
+    }
+
+    public static long[] full(int size) {
+        long[] mask = create(size);
+        for (int i = 0; i < size; i++) {
+            set(mask, i);
+        }
+        return mask;
+    }
+
+    public static void set(long[] mask, int index) {
+        mask[index >>> 6] |= 1L << index;
+    }
+
+    public static boolean equals(long[] a, long[] b) {
+        return Arrays.equals(a, b);
+    }
+
+    public static int count(long[] mask) {
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public static int countAnd(long[] a, long[] b) {
+        int count = 0;
+        for (int i = 0; i < a.length; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    public static int countAndNot(long[] a, long[] b) {
+        int count = 0;
+        for (int i = 0; i < a.length; i++) {
+            count += Long.bitCount(a[i] & ~b[i]);
+        }
+        return count;
+    }
+
+    public static long[] and(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] & b[i];
+        }
+        return result;
+    }
+
+    public static long[] andNot(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] & ~b[i];
+        }
+        return result;
+    }
+
+    // Labels of the set bits in index order
+    public static List<String> labels(long[] mask, String[] labels) {
+        List<String> result = new ArrayList<>(count(mask));
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            while (bits != 0) {
+                result.add(labels[(word << 6) + Long.numberOfTrailingZeros(bits)]);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,280 @@
+package com.questionbank.QuestionBank.service.correction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Case-insensitive DFA accepting every string within k edits of any of a blank's accepted alternatives; short
+// alternatives get fewer edits (at most a third of their length), so a tolerance never accepts unrelated words
+public final class LevenshteinAutomaton {
+
+    // Past this many DFA states the automaton falls back to a banded edit-distance check per alternative
+    static final int MAX_STATES = 4096;
+
+    private static final int DEAD = -1;
+
+    private final String[] alternatives;
+    private final int[] limits;
+    private final int maxEdits;
+
+    private final int[] asciiClass;
+    private final Map<Character, Integer> otherClass;
+    private final int[][] transitions;
+    private final boolean[] accepting;
+
+    private LevenshteinAutomaton(String[] alternatives, int[] limits, int maxEdits, int[] asciiClass,
+                                 Map<Character, Integer> otherClass, int[][] transitions, boolean[] accepting) {
+        this.alternatives = alternatives;
+        this.limits = limits;
+        this.maxEdits = maxEdits;
+        this.asciiClass = asciiClass;
+        this.otherClass = otherClass;
+        this.transitions = transitions;
+        this.accepting = accepting;
+    }
+
+    public static LevenshteinAutomaton compile(String[] alternatives, int maxEdits) {
+        String[] words = new String[alternatives.length];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = fold(alternatives[i]);
+        }
+        int k = Math.max(0, maxEdits);
+        int[] limits = new int[words.length];
+        for (int w = 0; w < words.length; w++) {
+            limits[w] = effectiveEdits(words[w], k);
+        }
+
+        // Character classes: one per distinct character in the alternatives, class 0 for everything else
+        int[] asciiClass = new int[128];
+        Map<Character, Integer> otherClass = new HashMap<>();
+        List<Character> symbols = new ArrayList<>();
+        symbols.add(null);
+        for (String word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (c < 128 ? asciiClass[c] == 0 : !otherClass.containsKey(c)) {
+                    if (c < 128) asciiClass[c] = symbols.size();
+                    else otherClass.put(c, symbols.size());
+                    symbols.add(c);
+                }
+            }
+        }
+
+        // NFA state (word, i, e): i characters of the word consumed with e edits; a DFA state is the set
+        // of live NFA states, keeping only the fewest edits per (word, i)
+        int[] offsets = new int[words.length + 1];
+        for (int w = 0; w < words.length; w++) {
+            offsets[w + 1] = offsets[w] + words[w].length() + 1;
+        }
+
+        int[] start = new int[offsets[words.length]];
+        Arrays.fill(start, Integer.MAX_VALUE);
+        for (int w = 0; w < words.length; w++) {
+            start[offsets[w]] = 0;
+            close(start, words, offsets, w, limits[w]);
+        }
+
+        Map<Key, Integer> ids = new HashMap<>();
+        List<int[]> states = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        ids.put(new Key(start), 0);
+        states.add(start);
+        pending.add(0);
+
+        while (!pending.isEmpty()) {
+            int id = pending.poll();
+            int[] state = states.get(id);
+            int[] row = new int[symbols.size()];
+            for (int symbol = 0; symbol < symbols.size(); symbol++) {
+                int[] next = step(state, symbols.get(symbol), words, offsets, limits);
+                if (next == null) {
+                    row[symbol] = DEAD;
+                    continue;
+                }
+                Key key = new Key(next);
+                Integer nextId = ids.get(key);
+                if (nextId == null) {
+                    if (states.size() >= MAX_STATES) {
+                        return new LevenshteinAutomaton(words, limits, k, null, null, null, null);
+                    }
+                    nextId = states.size();
+                    ids.put(key, nextId);
+                    states.add(next);
+                    pending.add(nextId);
+                }
+                row[symbol] = nextId;
+            }
+            while (rows.size() <= id) rows.add(null);
+            rows.set(id, row);
+        }
+
+        boolean[] accepting = new boolean[states.size()];
+        for (int id = 0; id < states.size(); id++) {
+            accepting[id] = isAccepting(states.get(id), words, offsets, limits);
+        }
+        return new LevenshteinAutomaton(words, limits, k, asciiClass, otherClass, rows.toArray(new int[0][]), accepting);
+    }
+
+    // One pass over the input; cost is independent of how many alternatives were compiled in
+    public boolean matches(String input) {
+        if (transitions == null) {
+            return matchesByDistance(input);
+        }
+        int state = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = foldChar(input.charAt(i));
+            Integer symbol = c < 128 ? Integer.valueOf(asciiClass[c]) : otherClass.get(c);
+            state = transitions[state][symbol != null ? symbol : 0];
+            if (state == DEAD) {
+                return false;
+            }
+        }
+        return accepting[state];
+    }
+
+    // Edits an alternative of this length may absorb under a configured tolerance of k
+    static int effectiveEdits(String alternative, int k) {
+        return Math.min(k, alternative.length() / 3);
+    }
+
+    // The configured tolerance; alternatives shorter than three times it allow fewer edits
+    public int getMaxEdits() {
+        return maxEdits;
+    }
+
+    public int getStateCount() {
+        return transitions != null ? transitions.length : 0;
+    }
+
+    private boolean matchesByDistance(String input) {
+        String folded = fold(input);
+        for (int w = 0; w < alternatives.length; w++) {
+            if (withinDistance(alternatives[w], folded, limits[w])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Edit distance limited to a diagonal band of width 2k+1
+    static boolean withinDistance(String a, String b, int k) {
+        if (Math.abs(a.length() - b.length()) > k) {
+            return false;
+        }
+        int big = k + 1;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j <= k ? j : big;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            Arrays.fill(current, big);
+            current[0] = i <= k ? i : big;
+            int rowMin = current[0];
+            for (int j = Math.max(1, i - k); j <= Math.min(b.length(), i + k); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > k) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= k;
+    }
+
+    private static int[] step(int[] state, Character symbol, String[] words, int[] offsets, int[] limits) {
+        int[] next = new int[state.length];
+        Arrays.fill(next, Integer.MAX_VALUE);
+        boolean live = false;
+        for (int w = 0; w < words.length; w++) {
+            String word = words[w];
+            int k = limits[w];
+            for (int i = 0; i <= word.length(); i++) {
+                int e = state[offsets[w] + i];
+                if (e == Integer.MAX_VALUE) continue;
+                // Match, substitution, then an inserted input character
+                if (i < word.length() && symbol != null && word.charAt(i) == symbol) {
+                    live |= relax(next, offsets[w] + i + 1, e);
+                } else if (i < word.length() && e < k) {
+                    live |= relax(next, offsets[w] + i + 1, e + 1);
+                }
+                if (e < k) {
+                    live |= relax(next, offsets[w] + i, e + 1);
+                }
+            }
+            close(next, words, offsets, w, limits[w]);
+        }
+        return live ? next : null;
+    }
+
+    // Deletions: skipping a word character costs one edit without consuming input
+    private static void close(int[] state, String[] words, int[] offsets, int w, int k) {
+        for (int i = 0; i < words[w].length(); i++) {
+            int e = state[offsets[w] + i];
+            if (e < k) {
+                relax(state, offsets[w] + i + 1, e + 1);
+            }
+        }
+    }
+
+    private static boolean relax(int[] state, int index, int edits) {
+        if (edits < state[index]) {
+            state[index] = edits;
+        }
+        return true;
+    }
+
+    private static boolean isAccepting(int[] state, String[] words, int[] offsets, int[] limits) {
+        for (int w = 0; w < words.length; w++) {
+            for (int i = 0; i <= words[w].length(); i++) {
+                int e = state[offsets[w] + i];
+                if (e != Integer.MAX_VALUE && e + words[w].length() - i <= limits[w]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Same per-character folding as String.equalsIgnoreCase
+    private static char foldChar(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static String fold(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = foldChar(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static final class Key {
+        private final int[] state;
+        private final int hash;
+
+        Key(int[] state) {
+            this.state = state;
+            this.hash = Arrays.hashCode(state);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(state, ((Key) other).state);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.questionbank.QuestionBank.service.correction;
+
+// Order-similarity measures over a student's ordering expressed as key ranks, each O(n log n) with a Fenwick tree
+public final class OrderMetrics {
+
+    private OrderMetrics() {}
+
+    // Length of the longest run of items, not necessarily adjacent, that appear in key order
+    public static int longestIncreasingSubsequence(int[] ranks, int keySize) {
+        // Prefix-maximum tree: best[r] is the longest increasing subsequence ending at a rank <= r
+        int[] tree = new int[keySize + 1];
+        int longest = 0;
+        for (int rank : ranks) {
+            if (rank < 0 || rank >= keySize) continue;
+            int length = prefixMax(tree, rank) + 1;
+            for (int i = rank + 1; i <= keySize; i += i & -i) {
+                if (tree[i] < length) tree[i] = length;
+            }
+            longest = Math.max(longest, length);
+        }
+        return longest;
+    }
+
+    // Number of item pairs the student placed in the opposite order to the key
+    public static long inversions(int[] ranks, int keySize) {
+        // Prefix-count tree of ranks seen so far; every earlier, higher rank is one inversion
+        int[] tree = new int[keySize + 1];
+        long inversions = 0;
+        int seen = 0;
+        for (int rank : ranks) {
+            if (rank < 0 || rank >= keySize) continue;
+            inversions += seen - prefixCount(tree, rank + 1);
+            for (int i = rank + 1; i <= keySize; i += i & -i) {
+                tree[i]++;
+            }
+            seen++;
+        }
+        return inversions;
+    }
+
+    // Share of the key's item pairs that the student placed in key order; unplaced items lose all their pairs
+    public static double kendallAgreement(int[] ranks, int keySize) {
+        long totalPairs = (long) keySize * (keySize - 1) / 2;
+        long placed = 0;
+        for (int rank : ranks) {
+            if (rank >= 0 && rank < keySize) placed++;
+        }
+        if (totalPairs == 0) {
+            return placed == keySize ? 1.0 : 0.0;
+        }
+        long concordant = placed * (placed - 1) / 2 - inversions(ranks, keySize);
+        return (double) concordant / totalPairs;
+    }
+
+    // Maximum over ranks [0, rank)
+    private static int prefixMax(int[] tree, int rank) {
+        int best = 0;
+        for (int i = rank; i > 0; i -= i & -i) {
+            if (tree[i] > best) best = tree[i];
+        }
+        return best;
+    }
+
+    // Count of ranks in [0, end)
+    private static int prefixCount(int[] tree, int end) {
+        int count = 0;
+        for (int i = end; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+}
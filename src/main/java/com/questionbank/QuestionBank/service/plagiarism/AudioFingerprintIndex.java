@@ -0,0 +1,158 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-question inverted index from 32-bit sub-fingerprints to (answer, offset) postings
+@Component
+public class AudioFingerprintIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AudioFingerprintIndex.class);
+
+    @Value("${plagiarism.audio.index.max-postings-per-hash:500}")
+    private int maxPostingsPerHash;
+
+    @Value("${plagiarism.audio.index.min-votes:3}")
+    private int minVotes;
+
+    private final Map<UUID, QuestionIndex> questions = new ConcurrentHashMap<>();
+
+    // When the question's fingerprints were last read from the database, or null if they never were
+    public LocalDateTime getRefreshedAt(UUID questionId) {
+        QuestionIndex index = questions.get(questionId);
+        return index != null ? index.refreshedAt : null;
+    }
+
+    public void markRefreshed(UUID questionId, LocalDateTime refreshedAt) {
+        questions.computeIfAbsent(questionId, id -> new QuestionIndex()).refreshedAt = refreshedAt;
+    }
+
+    public void add(UUID questionId, UUID answerId, int[] fingerprint) {
+        if (fingerprint == null || fingerprint.length == 0) {
+            return;
+        }
+        QuestionIndex index = questions.computeIfAbsent(questionId, id -> new QuestionIndex());
+        synchronized (index) {
+            if (index.fingerprints.putIfAbsent(answerId, fingerprint) != null) {
+                return;
+            }
+            for (int offset = 0; offset < fingerprint.length; offset++) {
+                index.postings.computeIfAbsent(fingerprint[offset], h -> new ArrayList<>())
+                    .add(new Posting(answerId, offset));
+            }
+        }
+    }
+
+    public void remove(UUID questionId, UUID answerId) {
+        QuestionIndex index = questions.get(questionId);
+        if (index == null) {
+            return;
+        }
+        synchronized (index) {
+            int[] fingerprint = index.fingerprints.remove(answerId);
+            if (fingerprint == null) {
+                return;
+            }
+            for (int hash : fingerprint) {
+                List<Posting> postings = index.postings.get(hash);
+                if (postings != null) {
+                    postings.removeIf(p -> p.answerId.equals(answerId));
+                    if (postings.isEmpty()) {
+                        index.postings.remove(hash);
+                    }
+                }
+            }
+        }
+    }
+
+    // Vote on (answer, time offset) pairs via shared hashes, then verify the best alignment by bit error rate
+    public List<Candidate> search(UUID questionId, UUID excludeAnswerId, int[] query) {
+        QuestionIndex index = questions.get(questionId);
+        if (index == null || query.length == 0) {
+            return Collections.emptyList();
+        }
+
+        Map<UUID, Map<Integer, Integer>> votes = new HashMap<>();
+        synchronized (index) {
+            for (int i = 0; i < query.length; i++) {
+                List<Posting> postings = index.postings.get(query[i]);
+                // Hashes shared by very many frames (silence, hum) carry no information
+                if (postings == null || postings.size() > maxPostingsPerHash) {
+                    continue;
+                }
+                for (Posting posting : postings) {
+                    if (posting.answerId.equals(excludeAnswerId)) {
+                        continue;
+                    }
+                    votes.computeIfAbsent(posting.answerId, id -> new HashMap<>())
+                        .merge(posting.offset - i, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (Map.Entry<UUID, Map<Integer, Integer>> entry : votes.entrySet()) {
+            Map.Entry<Integer, Integer> best = null;
+            for (Map.Entry<Integer, Integer> offsetVotes : entry.getValue().entrySet()) {
+                if (best == null || offsetVotes.getValue() > best.getValue()) {
+                    best = offsetVotes;
+                }
+            }
+            if (best == null || best.getValue() < minVotes) {
+                continue;
+            }
+
+            int[] stored = index.fingerprints.get(entry.getKey());
+            if (stored == null) {
+                continue;
+            }
+            double similarity = AudioFingerprinter.similarity(query, stored, best.getKey());
+            candidates.add(new Candidate(entry.getKey(), similarity, best.getKey(), best.getValue()));
+        }
+
+        candidates.sort(Comparator.comparingDouble(Candidate::getSimilarity).reversed());
+        log.debug("Audio index search for question {} matched {} candidates", questionId, candidates.size());
+        return candidates;
+    }
+
+    private static class QuestionIndex {
+        private final Map<Integer, List<Posting>> postings = new HashMap<>();
+        private final Map<UUID, int[]> fingerprints = new ConcurrentHashMap<>();
+        private volatile LocalDateTime refreshedAt;
+    }
+
+    private static class Posting {
+        private final UUID answerId;
+        private final int offset;
+
+        private Posting(UUID answerId, int offset) {
+            this.answerId = answerId;
+            this.offset = offset;
+        }
+    }
+
+    public static class Candidate {
+        private final UUID answerId;
+        private final double similarity;
+        private final int offset;
+        private final int votes;
+
+        public Candidate(UUID answerId, double similarity, int offset, int votes) {
+            this.answerId = answerId;
+            this.similarity = similarity;
+            this.offset = offset;
+            this.votes = votes;
+        }
+
+        public UUID getAnswerId() { return answerId; }
+        public double getSimilarity() { return similarity; }
+        public int getOffset() { return offset; }
+        public int getVotes() { return votes; }
+    }
+}
@@ -0,0 +1,197 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+
+// Chromaprint-style audio fingerprinter producing one 32-bit sub-fingerprint per spectral frame
+@Component
+public class AudioFingerprinter {
+
+    public static final int SAMPLE_RATE = 11025;
+
+    private static final int FRAME_SIZE = 4096;
+    private static final int HOP_SIZE = 1024;
+    private static final int BANDS = 33;
+    private static final double MIN_FREQ = 300.0;
+    private static final double MAX_FREQ = 2000.0;
+
+    private static final float[] HANN = new float[FRAME_SIZE];
+    private static final int[] BAND_EDGES = new int[BANDS + 1];
+
+    static {
+        for (int i = 0; i < FRAME_SIZE; i++) {
+            HANN[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / (FRAME_SIZE - 1)));
+        }
+        // Logarithmically spaced bands, as in the Philips/Chromaprint family of fingerprints
+        for (int b = 0; b <= BANDS; b++) {
+            double freq = MIN_FREQ * Math.pow(MAX_FREQ / MIN_FREQ, (double) b / BANDS);
+            BAND_EDGES[b] = (int) Math.round(freq * FRAME_SIZE / SAMPLE_RATE);
+        }
+    }
+
+    @Value("${plagiarism.audio.enabled:true}")
+    private boolean enabled;
+
+    @Value("${plagiarism.audio.max-seconds:600}")
+    private int maxSeconds;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaxSamples() {
+        return (long) maxSeconds * SAMPLE_RATE;
+    }
+
+    public Stream newStream() {
+        return new Stream((int) (getMaxSamples() / HOP_SIZE) + 1);
+    }
+
+    // Incremental fingerprint builder fed with mono 16-bit PCM at SAMPLE_RATE, in bounded memory
+    public static class Stream {
+        private final float[] frame = new float[FRAME_SIZE];
+        private final double[] re = new double[FRAME_SIZE];
+        private final double[] im = new double[FRAME_SIZE];
+        private double[] previousBands;
+        private double[] currentBands = new double[BANDS];
+        private int filled = 0;
+        private final int maxFrames;
+        private int[] fingerprint = new int[256];
+        private int length = 0;
+
+        private Stream(int maxFrames) {
+            this.maxFrames = maxFrames;
+        }
+
+        public void accept(short[] samples, int count) {
+            for (int i = 0; i < count && length < maxFrames; i++) {
+                frame[filled++] = samples[i] / 32768f;
+                if (filled == FRAME_SIZE) {
+                    processFrame();
+                    System.arraycopy(frame, HOP_SIZE, frame, 0, FRAME_SIZE - HOP_SIZE);
+                    filled = FRAME_SIZE - HOP_SIZE;
+                }
+            }
+        }
+
+        public int[] finish() {
+            return Arrays.copyOf(fingerprint, length);
+        }
+
+        private void processFrame() {
+            for (int i = 0; i < FRAME_SIZE; i++) {
+                re[i] = frame[i] * HANN[i];
+                im[i] = 0.0;
+            }
+            fft(re, im);
+
+            for (int b = 0; b < BANDS; b++) {
+                double energy = 0.0;
+                for (int k = BAND_EDGES[b]; k < BAND_EDGES[b + 1]; k++) {
+                    energy += re[k] * re[k] + im[k] * im[k];
+                }
+                currentBands[b] = energy;
+            }
+
+            if (previousBands != null) {
+                int bits = 0;
+                for (int m = 0; m < BANDS - 1; m++) {
+                    double delta = (currentBands[m] - currentBands[m + 1])
+                                 - (previousBands[m] - previousBands[m + 1]);
+                    if (delta > 0) {
+                        bits |= 1 << m;
+                    }
+                }
+                append(bits);
+                double[] swap = previousBands;
+                previousBands = currentBands;
+                currentBands = swap;
+            } else {
+                previousBands = currentBands;
+                currentBands = new double[BANDS];
+            }
+        }
+
+        private void append(int value) {
+            if (length == fingerprint.length) {
+                fingerprint = Arrays.copyOf(fingerprint, Math.min(fingerprint.length * 2, maxFrames));
+            }
+            fingerprint[length++] = value;
+        }
+    }
+
+    // In-place iterative radix-2 FFT
+    private static void fft(double[] re, double[] im) {
+        int n = re.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+
+        for (int len = 2; len <= n; len <<= 1) {
+            double angle = -2 * Math.PI / len;
+            double wRe = Math.cos(angle);
+            double wIm = Math.sin(angle);
+            for (int i = 0; i < n; i += len) {
+                double curRe = 1.0;
+                double curIm = 0.0;
+                for (int j = 0; j < len / 2; j++) {
+                    int a = i + j;
+                    int b = a + len / 2;
+                    double vRe = re[b] * curRe - im[b] * curIm;
+                    double vIm = re[b] * curIm + im[b] * curRe;
+                    re[b] = re[a] - vRe;
+                    im[b] = im[a] - vIm;
+                    re[a] += vRe;
+                    im[a] += vIm;
+                    double nextRe = curRe * wRe - curIm * wIm;
+                    curIm = curRe * wIm + curIm * wRe;
+                    curRe = nextRe;
+                }
+            }
+        }
+    }
+
+    // Similarity from bit error rate of two aligned fingerprints: 1.0 identical, 0.0 uncorrelated
+    public static double similarity(int[] query, int[] candidate, int offset) {
+        int start = Math.max(0, -offset);
+        int end = Math.min(query.length, candidate.length - offset);
+        if (end <= start) {
+            return 0.0;
+        }
+
+        long errors = 0;
+        for (int i = start; i < end; i++) {
+            errors += Integer.bitCount(query[i] ^ candidate[i + offset]);
+        }
+        double bitErrorRate = (double) errors / ((long) (end - start) * (BANDS - 1));
+        return Math.max(0.0, 1.0 - 2.0 * bitErrorRate);
+    }
+
+    public static String encode(int[] fingerprint) {
+        ByteBuffer buffer = ByteBuffer.allocate(fingerprint.length * Integer.BYTES);
+        buffer.asIntBuffer().put(fingerprint);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    public static int[] decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return new int[0];
+        }
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+        int[] fingerprint = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(fingerprint);
+        return fingerprint;
+    }
+}
@@ -7,6 +7,7 @@ import static org.bytedeco.opencv.global.opencv_core.*;
 import static org.bytedeco.opencv.global.opencv_imgcodecs.*;
 import static org.bytedeco.opencv.global.opencv_imgproc.*;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.cache.annotation.Cacheable;
@@ -21,6 +22,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 // Service for generating image embeddings using ONNX ResNet50 model for plagiarism detection
 @Service
@@ -44,48 +46,82 @@ public class ImageEmbedder {
     @Value("${plagiarism.image.input.height:224}")
     private int inputHeight;
 
+    @Value("${plagiarism.image.onnx.variant:fp32}")
+    private String variant;
+
+    @Value("${plagiarism.image.onnx.int8.model.path:models/resnet18-v2-7-int8.onnx}")
+    private String int8ModelPath;
+
+    @Value("${plagiarism.image.onnx.pool-size:${onnx.session.pool-size:1}}")
+    private int poolSize;
+
+    @Value("${onnx.init.lazy:false}")
+    private boolean lazyInit;
+
+    private final OnnxSessionFactory sessionFactory;
+    private final ModelLoader modelLoader;
     private OrtEnvironment env;
-    private OrtSession session;
-    private boolean modelLoaded = false;
+    private OnnxSessionPool sessionPool;
+    private volatile String activeVariant;
+    private volatile String modelVersion;
+    private String inputName;
 
-    public ImageEmbedder(ObjectMapper objectMapper) {
+    public ImageEmbedder(ObjectMapper objectMapper, OnnxSessionFactory sessionFactory,
+                         @Qualifier("modelInitExecutor") ExecutorService modelInitExecutor) {
         this.objectMapper = objectMapper;
+        this.sessionFactory = sessionFactory;
+        this.modelLoader = new ModelLoader("image-embedding", modelInitExecutor);
     }
 
     @PostConstruct
     public void init() {
         if (!onnxEnabled) {
             log.warn("ONNX is disabled. Image plagiarism detection will not work.");
+            modelLoader.disable();
             return;
         }
 
-        try {
-            env = OrtEnvironment.getEnvironment();
-            loadModel();
-        } catch (Exception e) {
-            log.error("Failed to initialize ONNX: {}", e.getMessage());
-            throw new RuntimeException("ONNX initialization required for image plagiarism detection", e);
-        }
+        modelLoader.register(this::loadModel, lazyInit);
     }
 
-    private void loadModel() {
-        try {
-            Path modelFile;
-            try {
-                modelFile = Paths.get(getClass().getClassLoader().getResource(modelPath).toURI());
-            } catch (Exception e) {
-                modelFile = Paths.get(modelPath);
-            }
+    private void loadModel() throws Exception {
+        env = OrtEnvironment.getEnvironment();
 
-            if (!Files.exists(modelFile)) {
-                throw new RuntimeException("ONNX model file not found: " + modelPath);
-            }
+        String resolvedVariant = sessionFactory.resolveVariant(variant);
+        Path modelFile = sessionFactory.resolveModelFile(
+            OnnxSessionFactory.VARIANT_INT8.equals(resolvedVariant) ? int8ModelPath : modelPath);
+        activeVariant = resolvedVariant;
+        modelVersion = sessionFactory.modelVersion(modelFile, resolvedVariant);
 
-            session = env.createSession(modelFile.toString(), new OrtSession.SessionOptions());
-            modelLoaded = true;
-            log.info("ONNX image model loaded successfully: {}D embeddings", embeddingDimensions);
-        } catch (Exception e) {
-            log.error("Failed to load ONNX model: {}", e.getMessage());
+        sessionPool = sessionFactory.createPool(env, modelFile.toString(), poolSize);
+        inputName = sessionPool.getInputNames().iterator().next();
+        warmUp();
+        log.info("ONNX image model {} loaded and warmed up: {}D embeddings", modelVersion, embeddingDimensions);
+    }
+
+    public String getVariant() {
+        return activeVariant;
+    }
+
+    // Null until the model has loaded
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public ModelLoader getModelLoader() {
+        return modelLoader;
+    }
+
+    public boolean isReady() {
+        return modelLoader.getState().isReady();
+    }
+
+    // Sequential runs rotate through the pool's FIFO queue, so every session gets its kernels selected
+    private void warmUp() throws OrtException {
+        float[] blank = new float[3 * inputHeight * inputWidth];
+        int runs = sessionPool.size() * sessionFactory.getWarmupIterations();
+        for (int i = 0; i < runs; i++) {
+            runOnnxInference(blank);
         }
     }
 
@@ -100,10 +136,19 @@ public class ImageEmbedder {
             throw new IOException("Image data is null or empty");
         }
 
-        if (!modelLoaded) {
-            throw new IOException("ONNX model not loaded. Cannot extract image features.");
+        modelLoader.requireReady();
+        return extractImageFeatures(imageData, sessionPool, inputName);
+    }
+
+    // Embed with a backfill target model instead of the live one, sharing the same preprocessing
+    public double[] extractImageFeatures(byte[] imageData, Target target) throws IOException {
+        if (imageData == null || imageData.length == 0) {
+            throw new IOException("Image data is null or empty");
         }
+        return extractImageFeatures(imageData, target.pool, target.inputName);
+    }
 
+    private double[] extractImageFeatures(byte[] imageData, OnnxSessionPool pool, String poolInputName) throws IOException {
         try {
             Mat imageBytes = new Mat(imageData.length, 1, CV_8UC1);
             imageBytes.data().put(imageData);
@@ -116,17 +161,17 @@ public class ImageEmbedder {
                 }
             }
 
-            return extractOnnxFeatures(image);
+            return extractOnnxFeatures(image, pool, poolInputName);
         } catch (Exception e) {
             log.error("Error extracting features: {}", e.getMessage());
             throw new IOException("Failed to extract features: " + e.getMessage(), e);
         }
     }
 
-    private double[] extractOnnxFeatures(Mat image) throws Exception {
+    private double[] extractOnnxFeatures(Mat image, OnnxSessionPool pool, String poolInputName) throws Exception {
         Mat preprocessed = preprocessForOnnx(image);
         float[] inputArray = matToFloatArray(preprocessed);
-        float[] embedding = runOnnxInference(inputArray);
+        float[] embedding = runOnnxInference(inputArray, pool, poolInputName);
 
         double[] result = new double[embedding.length];
         for (int i = 0; i < embedding.length; i++) {
@@ -177,35 +222,69 @@ public class ImageEmbedder {
     }
 
     private float[] runOnnxInference(float[] inputArray) throws OrtException {
+        return runOnnxInference(inputArray, sessionPool, inputName);
+    }
+
+    private float[] runOnnxInference(float[] inputArray, OnnxSessionPool pool, String poolInputName) throws OrtException {
         long[] shape = {1, 3, inputHeight, inputWidth};
         OnnxTensor inputTensor = OnnxTensor.createTensor(env, FloatBuffer.wrap(inputArray), shape);
 
         try {
-            String inputName = session.getInputNames().iterator().next();
-            Map<String, OnnxTensor> inputs = Map.of(inputName, inputTensor);
-            OrtSession.Result result = session.run(inputs);
-
-            Object output = result.get(0).getValue();
-            float[] embedding;
-            if (output instanceof float[][]) {
-                embedding = ((float[][]) output)[0];
-            } else {
-                embedding = (float[]) output;
-            }
-
-            result.close();
-            return embedding;
+            Map<String, OnnxTensor> inputs = Map.of(poolInputName, inputTensor);
+            return pool.run(session -> {
+                try (OrtSession.Result result = session.run(inputs)) {
+                    Object output = result.get(0).getValue();
+                    if (output instanceof float[][]) {
+                        return ((float[][]) output)[0];
+                    }
+                    return (float[]) output;
+                }
+            });
         } finally {
             inputTensor.close();
         }
     }
 
+    // Open a session pool on another model file; a blank path targets the live model
+    public Target openTarget(String targetModelPath, String targetVariant) throws Exception {
+        if (targetModelPath == null || targetModelPath.isBlank()) {
+            modelLoader.requireReady();
+            return new Target(sessionPool, inputName, modelVersion, activeVariant, false);
+        }
+
+        String resolvedVariant = sessionFactory.resolveVariant(targetVariant);
+        Path modelFile = sessionFactory.resolveModelFile(targetModelPath);
+        OnnxSessionPool pool = sessionFactory.createPool(OrtEnvironment.getEnvironment(), modelFile.toString(), poolSize);
+        return new Target(pool, pool.getInputNames().iterator().next(),
+                          sessionFactory.modelVersion(modelFile, resolvedVariant), resolvedVariant, true);
+    }
+
+    // Running average fold used when several media files or frames make up one answer
+    public double[] combineEmbeddings(double[] embedding1, double[] embedding2) {
+        if (embedding1.length != embedding2.length) {
+            log.warn("Embedding dimensions mismatch: {} vs {}", embedding1.length, embedding2.length);
+            return embedding1;
+        }
+
+        double[] combined = new double[embedding1.length];
+        for (int i = 0; i < embedding1.length; i++) {
+            combined[i] = (embedding1[i] + embedding2[i]) / 2.0;
+        }
+        return combined;
+    }
+
     public String serializeEmbeddings(double[] embeddings) {
+        return serializeEmbeddings(embeddings, modelVersion, activeVariant);
+    }
+
+    public String serializeEmbeddings(double[] embeddings, String embeddingModelVersion, String embeddingVariant) {
         try {
             Map<String, Object> embeddingData = new HashMap<>();
             embeddingData.put("features", embeddings);
             embeddingData.put("dimensions", embeddings.length);
             embeddingData.put("extractedAt", System.currentTimeMillis());
+            embeddingData.put("model", embeddingModelVersion);
+            embeddingData.put("variant", embeddingVariant);
 
             return objectMapper.writeValueAsString(embeddingData);
         } catch (Exception e) {
@@ -214,6 +293,47 @@ public class ImageEmbedder {
         }
     }
 
+    // Model version recorded with stored embeddings; untagged legacy vectors came from the fp32 model
+    @SuppressWarnings("unchecked")
+    public String readModelVersion(String embeddingJson) {
+        try {
+            if (embeddingJson == null || embeddingJson.trim().isEmpty()) {
+                return null;
+            }
+            Object model = objectMapper.readValue(embeddingJson, Map.class).get("model");
+            return model != null ? model.toString() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public boolean isCurrentModelVersion(String storedVersion) {
+        if (storedVersion == null) {
+            return OnnxSessionFactory.VARIANT_FP32.equals(activeVariant);
+        }
+        return storedVersion.equals(modelVersion);
+    }
+
+    // Vectors from another model or variant live in a different space, so they are never compared
+    @SuppressWarnings("unchecked")
+    public double[] deserializeComparableEmbeddings(String embeddingJson) {
+        try {
+            if (embeddingJson == null || embeddingJson.trim().isEmpty() || embeddingJson.equals("{}")) {
+                return new double[0];
+            }
+
+            Map<String, Object> embeddingData = objectMapper.readValue(embeddingJson, Map.class);
+            Object model = embeddingData.get("model");
+            if (!isCurrentModelVersion(model != null ? model.toString() : null)) {
+                return new double[0];
+            }
+            return extractFeatures(embeddingData.get("features"));
+        } catch (Exception e) {
+            log.error("Error deserializing embeddings: {}", e.getMessage());
+            return new double[0];
+        }
+    }
+
     // Deserialize embeddings from JSON with fallback handling for different formats
     @SuppressWarnings("unchecked")
     public double[] deserializeEmbeddings(String embeddingJson) {
@@ -223,8 +343,15 @@ public class ImageEmbedder {
             }
 
             Map<String, Object> embeddingData = objectMapper.readValue(embeddingJson, Map.class);
-            Object featuresObj = embeddingData.get("features");
+            return extractFeatures(embeddingData.get("features"));
+        } catch (Exception e) {
+            log.error("Error deserializing embeddings: {}", e.getMessage());
+            return new double[0];
+        }
+    }
 
+    private double[] extractFeatures(Object featuresObj) {
+        try {
             if (featuresObj == null) {
                 return new double[0];
             }
@@ -287,12 +414,38 @@ public class ImageEmbedder {
         return com.questionbank.QuestionBank.util.Utils.Math.cosineSimilarity(embedding1, embedding2);
     }
 
+    public static class Target implements AutoCloseable {
+        private final OnnxSessionPool pool;
+        private final String inputName;
+        private final String modelVersion;
+        private final String variant;
+        private final boolean owned;
+
+        private Target(OnnxSessionPool pool, String inputName, String modelVersion, String variant, boolean owned) {
+            this.pool = pool;
+            this.inputName = inputName;
+            this.modelVersion = modelVersion;
+            this.variant = variant;
+            this.owned = owned;
+        }
+
+        public String getModelVersion() { return modelVersion; }
+        public String getVariant() { return variant; }
+
+        @Override
+        public void close() {
+            if (owned) {
+                pool.close();
+            }
+        }
+    }
+
     @PreDestroy
     public void cleanup() {
         try {
-            if (session != null) {
-                session.close();
-                log.info("ONNX session closed");
+            if (sessionPool != null) {
+                sessionPool.close();
+                log.info("ONNX sessions closed");
             }
             if (env != null) {
                 env.close();
@@ -0,0 +1,81 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Runs a model's load task once on a background executor and tracks its readiness
+public class ModelLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelLoader.class);
+
+    private final String name;
+    private final Executor executor;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile ModelState state = ModelState.PENDING;
+    private volatile String failureReason;
+    private volatile long loadTimeMillis;
+    private LoadTask task;
+
+    public ModelLoader(String name, Executor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    // Lazy registration defers loading until the first request that needs the model
+    public void register(LoadTask task, boolean lazy) {
+        this.task = task;
+        if (!lazy) {
+            start();
+        }
+    }
+
+    public void disable() {
+        state = ModelState.DISABLED;
+    }
+
+    public void start() {
+        if (task == null || state == ModelState.DISABLED || !started.compareAndSet(false, true)) {
+            return;
+        }
+        state = ModelState.LOADING;
+        CompletableFuture.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                task.load();
+                loadTimeMillis = System.currentTimeMillis() - start;
+                state = ModelState.READY;
+                log.info("{} model ready after {}ms", name, loadTimeMillis);
+            } catch (Exception e) {
+                failureReason = e.getMessage();
+                state = ModelState.FAILED;
+                log.error("{} model failed to load: {}", name, e.getMessage());
+            }
+        }, executor);
+    }
+
+    public void requireReady() {
+        ModelState current = state;
+        if (current == ModelState.READY) {
+            return;
+        }
+        if (current == ModelState.PENDING) {
+            start();
+            current = state;
+        }
+        throw new ModelNotReadyException(name, current);
+    }
+
+    public String getName() { return name; }
+    public ModelState getState() { return state; }
+    public String getFailureReason() { return failureReason; }
+    public long getLoadTimeMillis() { return loadTimeMillis; }
+
+    @FunctionalInterface
+    public interface LoadTask {
+        void load() throws Exception;
+    }
+}
@@ -0,0 +1,17 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+// Thrown when an embedding is requested from a model that has not finished loading
+public class ModelNotReadyException extends RuntimeException {
+
+    private final String model;
+    private final ModelState state;
+
+    public ModelNotReadyException(String model, ModelState state) {
+        super(String.format("%s model is not ready (state: %s)", model, state));
+        this.model = model;
+        this.state = state;
+    }
+
+    public String getModel() { return model; }
+    public ModelState getState() { return state; }
+}
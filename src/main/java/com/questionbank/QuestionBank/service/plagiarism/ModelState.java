@@ -0,0 +1,14 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+// Lifecycle of a background-loaded ONNX model
+public enum ModelState {
+    DISABLED,
+    PENDING,
+    LOADING,
+    READY,
+    FAILED;
+
+    public boolean isReady() {
+        return this == READY;
+    }
+}
@@ -0,0 +1,177 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import com.questionbank.QuestionBank.util.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Builds ONNX session pools with shared threading and optimization settings for the embedders
+@Component
+public class OnnxSessionFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(OnnxSessionFactory.class);
+
+    public static final String VARIANT_FP32 = "fp32";
+    public static final String VARIANT_INT8 = "int8";
+
+    @Value("${onnx.session.optimization-level:ALL_OPT}")
+    private OrtSession.SessionOptions.OptLevel optimizationLevel;
+
+    @Value("${onnx.session.execution-mode:SEQUENTIAL}")
+    private OrtSession.SessionOptions.ExecutionMode executionMode;
+
+    @Value("${onnx.session.intra-op-threads:0}")
+    private int intraOpThreads;
+
+    @Value("${onnx.session.inter-op-threads:1}")
+    private int interOpThreads;
+
+    @Value("${onnx.session.memory-arena:true}")
+    private boolean memoryArena;
+
+    @Value("${onnx.session.inference-cores:0}")
+    private int inferenceCores;
+
+    @Value("${onnx.session.acquire-timeout-ms:30000}")
+    private long acquireTimeoutMillis;
+
+    @Value("${onnx.session.optimized-cache.enabled:true}")
+    private boolean optimizedCacheEnabled;
+
+    @Value("${onnx.session.optimized-cache.dir:${java.io.tmpdir}/questionbank/onnx-cache}")
+    private String optimizedCacheDir;
+
+    @Value("${onnx.session.warmup-iterations:2}")
+    private int warmupIterations;
+
+    private final Map<String, String> digests = new ConcurrentHashMap<>();
+
+    public int getWarmupIterations() {
+        return Math.max(0, warmupIterations);
+    }
+
+    // Resolve a configured model path from the classpath first, then the filesystem
+    public Path resolveModelFile(String modelPath) {
+        Path modelFile;
+        try {
+            modelFile = Paths.get(getClass().getClassLoader().getResource(modelPath).toURI());
+        } catch (Exception e) {
+            modelFile = Paths.get(modelPath);
+        }
+
+        if (!Files.exists(modelFile)) {
+            throw new IllegalStateException("ONNX model file not found: " + modelPath);
+        }
+        return modelFile;
+    }
+
+    public String resolveVariant(String variant) {
+        String normalized = variant == null ? VARIANT_FP32 : variant.trim().toLowerCase();
+        if (!VARIANT_FP32.equals(normalized) && !VARIANT_INT8.equals(normalized)) {
+            throw new IllegalStateException("Unknown ONNX model variant: " + variant + " (expected fp32 or int8)");
+        }
+        return normalized;
+    }
+
+    // Identifies the vector space an embedding belongs to: model file, variant and content digest
+    public String modelVersion(Path modelFile, String variant) throws IOException {
+        String name = modelFile.getFileName().toString().replaceFirst("\\.onnx$", "");
+        return name + ":" + variant + ":" + digest(modelFile).substring(0, 12);
+    }
+
+    private String digest(Path modelFile) throws IOException {
+        String key = modelFile.toAbsolutePath() + "@" + Files.getLastModifiedTime(modelFile).toMillis();
+        String cached = digests.get(key);
+        if (cached == null) {
+            cached = Utils.Hashing.sha256Hex(modelFile);
+            digests.put(key, cached);
+        }
+        return cached;
+    }
+
+    public OnnxSessionPool createPool(OrtEnvironment env, String modelPath, int poolSize) throws OrtException {
+        int size = Math.max(1, poolSize);
+        long start = System.currentTimeMillis();
+
+        Path optimizedModel = optimizedCacheEnabled ? resolveOptimizedModel(env, Paths.get(modelPath), size) : null;
+        String sessionModel = optimizedModel != null ? optimizedModel.toString() : modelPath;
+        // A cached model is already optimized, so graph optimization is skipped on load
+        OrtSession.SessionOptions.OptLevel level = optimizedModel != null
+            ? OrtSession.SessionOptions.OptLevel.NO_OPT : optimizationLevel;
+
+        try (OrtSession.SessionOptions options = buildOptions(size, level)) {
+            OnnxSessionPool pool = new OnnxSessionPool(env, sessionModel, options, size, acquireTimeoutMillis);
+            log.info("Created {} ONNX session(s) for {} in {}ms (cached={}, opt={}, mode={}, intraOp={}, interOp={}, arena={})",
+                       size, modelPath, System.currentTimeMillis() - start, optimizedModel != null, level,
+                       executionMode, resolveIntraOpThreads(size), interOpThreads, memoryArena);
+            return pool;
+        }
+    }
+
+    OrtSession.SessionOptions buildOptions(int poolSize, OrtSession.SessionOptions.OptLevel level) throws OrtException {
+        OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+        options.setOptimizationLevel(level);
+        options.setExecutionMode(executionMode);
+        options.setIntraOpNumThreads(resolveIntraOpThreads(poolSize));
+        options.setInterOpNumThreads(Math.max(1, interOpThreads));
+        options.setCPUArenaAllocator(memoryArena);
+        return options;
+    }
+
+    // Split the inference cores across pooled sessions so concurrent runs do not oversubscribe the CPU
+    private int resolveIntraOpThreads(int poolSize) {
+        if (intraOpThreads > 0) {
+            return intraOpThreads;
+        }
+        int cores = inferenceCores > 0 ? inferenceCores : Runtime.getRuntime().availableProcessors();
+        return Math.max(1, cores / Math.max(1, poolSize));
+    }
+
+    // Return the optimized model for this source model and runtime, producing it on a cache miss
+    private Path resolveOptimizedModel(OrtEnvironment env, Path modelFile, int poolSize) {
+        try {
+            String key = String.format("%s-%s-ort%s-%s-%s.onnx",
+                modelFile.getFileName().toString().replaceFirst("\\.onnx$", ""),
+                digest(modelFile).substring(0, 16),
+                env.getVersion(), System.getProperty("os.arch"), optimizationLevel);
+            Path cacheDir = Paths.get(optimizedCacheDir);
+            Path cached = cacheDir.resolve(key);
+            if (Files.exists(cached)) {
+                log.info("Using cached optimized ONNX model {}", cached);
+                return cached;
+            }
+
+            Files.createDirectories(cacheDir);
+            // Write to a private temp file first so concurrent instances never load a partial model
+            Path temp = cacheDir.resolve(key + "." + UUID.randomUUID() + ".tmp");
+            try (OrtSession.SessionOptions options = buildOptions(poolSize, optimizationLevel)) {
+                options.setOptimizedModelFilePath(temp.toString());
+                env.createSession(modelFile.toString(), options).close();
+            }
+            try {
+                Files.move(temp, cached, StandardCopyOption.ATOMIC_MOVE);
+                log.info("Cached optimized ONNX model at {}", cached);
+            } catch (FileAlreadyExistsException e) {
+                Files.deleteIfExists(temp);
+            }
+            return cached;
+        } catch (IOException | OrtException e) {
+            log.warn("Optimized model cache unavailable for {}, optimizing at load: {}", modelFile, e.getMessage());
+            return null;
+        }
+    }
+}
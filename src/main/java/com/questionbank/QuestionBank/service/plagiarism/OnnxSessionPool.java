@@ -0,0 +1,84 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Fixed pool of identical ONNX sessions; callers borrow one session per inference
+public class OnnxSessionPool implements AutoCloseable {
+
+    private final List<OrtSession> sessions;
+    private final BlockingQueue<OrtSession> available;
+    private final long acquireTimeoutMillis;
+
+    public OnnxSessionPool(OrtEnvironment env, String modelPath, OrtSession.SessionOptions options,
+                           int size, long acquireTimeoutMillis) throws OrtException {
+        int poolSize = Math.max(1, size);
+        this.sessions = new ArrayList<>(poolSize);
+        this.available = new ArrayBlockingQueue<>(poolSize);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                OrtSession session = env.createSession(modelPath, options);
+                sessions.add(session);
+                available.add(session);
+            }
+        } catch (OrtException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public <T> T run(SessionCall<T> call) throws OrtException {
+        OrtSession session;
+        try {
+            session = available.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an ONNX session", e);
+        }
+        if (session == null) {
+            throw new IllegalStateException("No ONNX session available within " + acquireTimeoutMillis + "ms");
+        }
+
+        try {
+            return call.apply(session);
+        } finally {
+            available.offer(session);
+        }
+    }
+
+    public Set<String> getInputNames() throws OrtException {
+        return sessions.get(0).getInputNames();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    @Override
+    public void close() {
+        for (OrtSession session : sessions) {
+            try {
+                session.close();
+            } catch (OrtException ignored) {
+                // Best effort on shutdown
+            }
+        }
+        sessions.clear();
+        available.clear();
+    }
+
+    @FunctionalInterface
+    public interface SessionCall<T> {
+        T apply(OrtSession session) throws OrtException;
+    }
+}
@@ -0,0 +1,163 @@
+package com.questionbank.QuestionBank.service.plagiarism;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory per-question vector index for top-k similar answer lookups
+@Component
+public class SimilarityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarityIndex.class);
+
+    public static final String TEXT = "text";
+    public static final String IMAGE = "image";
+
+    private final Map<UUID, QuestionVectors> questions = new ConcurrentHashMap<>();
+
+    public void putText(UUID questionId, UUID answerId, double[] embedding) {
+        put(questionId, answerId, embedding, TEXT);
+    }
+
+    public void putImage(UUID questionId, UUID answerId, double[] embedding) {
+        put(questionId, answerId, embedding, IMAGE);
+    }
+
+    private void put(UUID questionId, UUID answerId, double[] embedding, String modality) {
+        if (questionId == null || answerId == null || embedding == null || embedding.length == 0) {
+            return;
+        }
+        float[] unit = toUnitVector(embedding);
+        if (unit == null) {
+            return;
+        }
+        QuestionVectors vectors = questions.computeIfAbsent(questionId, id -> new QuestionVectors());
+        vectors.forModality(modality).put(answerId, unit);
+    }
+
+    public void remove(UUID questionId, UUID answerId) {
+        QuestionVectors vectors = questions.get(questionId);
+        if (vectors != null) {
+            vectors.text.remove(answerId);
+            vectors.image.remove(answerId);
+        }
+    }
+
+    // Drop a question's vectors so the next lookup reloads them from the database
+    public void invalidate(UUID questionId) {
+        questions.remove(questionId);
+    }
+
+    public boolean isLoaded(UUID questionId) {
+        QuestionVectors vectors = questions.get(questionId);
+        return vectors != null && vectors.loaded;
+    }
+
+    public void markLoaded(UUID questionId) {
+        questions.computeIfAbsent(questionId, id -> new QuestionVectors()).loaded = true;
+    }
+
+    public boolean contains(UUID questionId, UUID answerId, String modality) {
+        QuestionVectors vectors = questions.get(questionId);
+        return vectors != null && vectors.forModality(modality).containsKey(answerId);
+    }
+
+    // Top-k most similar answers for one modality using a bounded min-heap
+    public List<Hit> topK(UUID questionId, UUID answerId, String modality, int k) {
+        long start = System.nanoTime();
+        QuestionVectors vectors = questions.get(questionId);
+        if (vectors == null || k <= 0) {
+            return Collections.emptyList();
+        }
+
+        Map<UUID, float[]> pool = vectors.forModality(modality);
+        float[] query = pool.get(answerId);
+        if (query == null) {
+            return Collections.emptyList();
+        }
+
+        PriorityQueue<Hit> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Hit::getScore));
+        for (Map.Entry<UUID, float[]> entry : pool.entrySet()) {
+            if (entry.getKey().equals(answerId) || entry.getValue().length != query.length) {
+                continue;
+            }
+            double score = dot(query, entry.getValue());
+            if (heap.size() < k) {
+                heap.add(new Hit(entry.getKey(), score, modality));
+            } else if (score > heap.peek().getScore()) {
+                heap.poll();
+                heap.add(new Hit(entry.getKey(), score, modality));
+            }
+        }
+
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+        List<Hit> hits = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Hit hit = heap.poll();
+            hit.searchTimeMicros = elapsedMicros;
+            hits.add(hit);
+        }
+        Collections.reverse(hits);
+
+        log.debug("Top-{} {} lookup for answer {} scanned {} vectors in {}us",
+                    k, modality, answerId, pool.size() - 1, elapsedMicros);
+        return hits;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    // Store unit-length vectors so cosine similarity reduces to a dot product
+    private static float[] toUnitVector(double[] embedding) {
+        double norm = 0.0;
+        for (double v : embedding) {
+            norm += v * v;
+        }
+        if (norm == 0.0) {
+            return null;
+        }
+        norm = Math.sqrt(norm);
+
+        float[] unit = new float[embedding.length];
+        for (int i = 0; i < embedding.length; i++) {
+            unit[i] = (float) (embedding[i] / norm);
+        }
+        return unit;
+    }
+
+    private static class QuestionVectors {
+        private final Map<UUID, float[]> text = new ConcurrentHashMap<>();
+        private final Map<UUID, float[]> image = new ConcurrentHashMap<>();
+        private volatile boolean loaded = false;
+
+        private Map<UUID, float[]> forModality(String modality) {
+            return IMAGE.equals(modality) ? image : text;
+        }
+    }
+
+    public static class Hit {
+        private final UUID answerId;
+        private final double score;
+        private final String modality;
+        private long searchTimeMicros;
+
+        public Hit(UUID answerId, double score, String modality) {
+            this.answerId = answerId;
+            this.score = score;
+            this.modality = modality;
+        }
+
+        public UUID getAnswerId() { return answerId; }
+        public double getScore() { return score; }
+        public String getModality() { return modality; }
+        public long getSearchTimeMicros() { return searchTimeMicros; }
+    }
+}
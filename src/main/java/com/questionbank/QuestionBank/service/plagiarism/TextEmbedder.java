@@ -1,8 +1,12 @@
 package com.questionbank.QuestionBank.service.plagiarism;
 
 import ai.onnxruntime.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -15,6 +19,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 // Service for generating text embeddings using ONNX model for plagiarism detection
 @Service
@@ -34,45 +39,84 @@ public class TextEmbedder {
     @Value("${plagiarism.text.max.length:512}")
     private int maxLength;
 
+    @Value("${plagiarism.text.onnx.variant:fp32}")
+    private String variant;
+
+    @Value("${plagiarism.text.onnx.int8.model.path:models/text-embedding-all-MiniLM-L6-v2-int8.onnx}")
+    private String int8ModelPath;
+
+    @Value("${plagiarism.text.onnx.pool-size:${onnx.session.pool-size:1}}")
+    private int poolSize;
+
+    @Value("${onnx.init.lazy:false}")
+    private boolean lazyInit;
+
+    private final ObjectMapper objectMapper;
+    private final OnnxSessionFactory sessionFactory;
+    private final ModelLoader modelLoader;
     private OrtEnvironment env;
-    private OrtSession session;
-    private boolean modelLoaded = false;
+    private OnnxSessionPool sessionPool;
+    private volatile String activeVariant;
+    private volatile String modelVersion;
+
+    @Autowired
+    public TextEmbedder(ObjectMapper objectMapper, OnnxSessionFactory sessionFactory,
+                        @Qualifier("modelInitExecutor") ExecutorService modelInitExecutor) {
+        this.objectMapper = objectMapper;
+        this.sessionFactory = sessionFactory;
+        this.modelLoader = new ModelLoader("text-embedding", modelInitExecutor);
+    }
 
+    // Loading runs off the startup thread; a failed load leaves the model FAILED instead of aborting the app
     @PostConstruct
     public void init() {
         if (!onnxEnabled) {
             log.warn("ONNX is disabled. Text plagiarism detection will not work.");
+            modelLoader.disable();
             return;
         }
 
-        try {
-            env = OrtEnvironment.getEnvironment();
-            loadModel();
-        } catch (Exception e) {
-            log.error("Failed to initialize ONNX: {}", e.getMessage());
-            throw new RuntimeException("ONNX initialization required for text plagiarism detection", e);
-        }
+        modelLoader.register(this::loadModel, lazyInit);
     }
 
-    private void loadModel() {
-        try {
-            Path modelFile;
-            try {
-                modelFile = Paths.get(getClass().getClassLoader().getResource(modelPath).toURI());
-            } catch (Exception e) {
-                modelFile = Paths.get(modelPath);
-            }
+    private void loadModel() throws Exception {
+        env = OrtEnvironment.getEnvironment();
 
-            if (!Files.exists(modelFile)) {
-                throw new RuntimeException("ONNX model file not found: " + modelPath);
-            }
+        String resolvedVariant = sessionFactory.resolveVariant(variant);
+        Path modelFile = sessionFactory.resolveModelFile(
+            OnnxSessionFactory.VARIANT_INT8.equals(resolvedVariant) ? int8ModelPath : modelPath);
+        activeVariant = resolvedVariant;
+        modelVersion = sessionFactory.modelVersion(modelFile, resolvedVariant);
 
-            session = env.createSession(modelFile.toString(), new OrtSession.SessionOptions());
-            modelLoaded = true;
-            log.info("ONNX text model loaded successfully: {}D embeddings", embeddingDimensions);
-        } catch (Exception e) {
-            log.error("Failed to load ONNX text model: {}", e.getMessage());
-            throw new RuntimeException("Failed to load ONNX model", e);
+        long start = System.currentTimeMillis();
+        sessionPool = sessionFactory.createPool(env, modelFile.toString(), poolSize);
+        warmUp();
+        log.info("ONNX text model {} loaded and warmed up in {}ms: {}D embeddings",
+                   modelVersion, System.currentTimeMillis() - start, embeddingDimensions);
+    }
+
+    public String getVariant() {
+        return activeVariant;
+    }
+
+    // Null until the model has loaded
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public ModelLoader getModelLoader() {
+        return modelLoader;
+    }
+
+    public boolean isReady() {
+        return modelLoader.getState().isReady();
+    }
+
+    // Sequential runs rotate through the pool's FIFO queue, so every session gets its kernels selected
+    private void warmUp() throws OrtException {
+        int runs = sessionPool.size() * sessionFactory.getWarmupIterations();
+        for (int i = 0; i < runs; i++) {
+            extractOnnxEmbedding("warm up inference for the text embedding model");
         }
     }
 
@@ -82,9 +126,7 @@ public class TextEmbedder {
             return new double[embeddingDimensions];
         }
 
-        if (!modelLoaded) {
-            throw new RuntimeException("ONNX model not loaded. Cannot extract text embeddings.");
-        }
+        modelLoader.requireReady();
 
         try {
             return extractOnnxEmbedding(text);
@@ -108,15 +150,15 @@ public class TextEmbedder {
             inputs.put("input_ids", inputTensor);
             inputs.put("attention_mask", maskTensor);
 
-            OrtSession.Result result = session.run(inputs);
-            Object output = result.get(0).getValue();
-
-            float[] embedding;
-            if (output instanceof float[][][]) {
-                embedding = meanPooling(((float[][][]) output)[0], attentionMask);
-            } else {
-                embedding = ((float[][]) output)[0];
-            }
+            float[] embedding = sessionPool.run(session -> {
+                try (OrtSession.Result result = session.run(inputs)) {
+                    Object output = result.get(0).getValue();
+                    if (output instanceof float[][][]) {
+                        return meanPooling(((float[][][]) output)[0], attentionMask);
+                    }
+                    return ((float[][]) output)[0];
+                }
+            });
 
             embedding = normalize(embedding);
 
@@ -125,7 +167,6 @@ public class TextEmbedder {
                 doubleEmbedding[i] = embedding[i];
             }
 
-            result.close();
             return doubleEmbedding;
         } finally {
             inputTensor.close();
@@ -134,7 +175,7 @@ public class TextEmbedder {
     }
 
     // Simple tokenization using word hashing (not production-grade)
-    private long[] tokenize(String text) {
+    long[] tokenize(String text) {
         String[] words = text.toLowerCase().replaceAll("[^a-z0-9\\s]", " ").trim().split("\\s+");
         long[] tokens = new long[maxLength];
 
@@ -200,6 +241,42 @@ public class TextEmbedder {
         return vector;
     }
 
+    public String serializeEmbedding(double[] embedding) {
+        try {
+            Map<String, Object> embeddingData = new HashMap<>();
+            embeddingData.put("features", embedding);
+            embeddingData.put("dimensions", embedding.length);
+            embeddingData.put("model", modelVersion);
+            embeddingData.put("variant", activeVariant);
+            return objectMapper.writeValueAsString(embeddingData);
+        } catch (Exception e) {
+            log.error("Error serializing text embedding: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Vectors from another model or variant, or read before the model has loaded, are never compared
+    public double[] deserializeComparableEmbedding(String embeddingJson) {
+        if (embeddingJson == null || embeddingJson.trim().isEmpty() || modelVersion == null) {
+            return new double[0];
+        }
+        try {
+            JsonNode embeddingData = objectMapper.readTree(embeddingJson);
+            if (!modelVersion.equals(embeddingData.path("model").asText(null))) {
+                return new double[0];
+            }
+            JsonNode features = embeddingData.path("features");
+            double[] embedding = new double[features.size()];
+            for (int i = 0; i < embedding.length; i++) {
+                embedding[i] = features.get(i).asDouble();
+            }
+            return embedding;
+        } catch (Exception e) {
+            log.error("Error deserializing text embedding: {}", e.getMessage());
+            return new double[0];
+        }
+    }
+
     public double calculateSimilarity(double[] emb1, double[] emb2) {
         return com.questionbank.QuestionBank.util.Utils.Math.dotProductSimilarity(emb1, emb2);
     }
@@ -207,9 +284,9 @@ public class TextEmbedder {
     @PreDestroy
     public void cleanup() {
         try {
-            if (session != null) {
-                session.close();
-                log.info("ONNX text session closed");
+            if (sessionPool != null) {
+                sessionPool.close();
+                log.info("ONNX text sessions closed");
             }
             if (env != null) {
                 env.close();
@@ -5,7 +5,14 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
 
 // Utility class with helper methods for strings, files, JSON, math, and text operations
 public class Utils {
@@ -35,6 +42,10 @@ public class Utils {
             ".java", ".cpp", ".c", ".html", ".asm", ".s", ".cs", ".sh", ".py"
         };
 
+        private static final String[] IMAGE_EXTENSIONS = {
+            ".png", ".jpg", ".jpeg", ".gif", ".bmp", ".webp"
+        };
+
         private Files() {}
 
         public static boolean isImageFile(MultipartFile file) {
@@ -47,6 +58,11 @@ public class Utils {
             return contentType != null && contentType.startsWith("video/");
         }
 
+        public static boolean isAudioFile(MultipartFile file) {
+            String contentType = file.getContentType();
+            return contentType != null && contentType.startsWith("audio/");
+        }
+
         public static boolean isPdfFile(MultipartFile file) {
             String contentType = file.getContentType();
             String filename = file.getOriginalFilename();
@@ -61,6 +77,73 @@ public class Utils {
                    (filename != null && filename.toLowerCase().endsWith(".docx"));
         }
 
+        public static boolean isZipFile(MultipartFile file) {
+            String contentType = file.getContentType();
+            String filename = file.getOriginalFilename();
+            return (contentType != null && (contentType.equals("application/zip") || contentType.equals("application/x-zip-compressed"))) ||
+                   (filename != null && filename.toLowerCase().endsWith(".zip"));
+        }
+
+        public static boolean isRarFile(MultipartFile file) {
+            String contentType = file.getContentType();
+            String filename = file.getOriginalFilename();
+            return (contentType != null && (contentType.equals("application/x-rar-compressed") || contentType.equals("application/vnd.rar"))) ||
+                   (filename != null && filename.toLowerCase().endsWith(".rar"));
+        }
+
+        public static boolean isImageFile(String filename) {
+            if (filename == null) {
+                return false;
+            }
+            String lowerName = filename.toLowerCase();
+            return Arrays.stream(IMAGE_EXTENSIONS).anyMatch(lowerName::endsWith);
+        }
+
+        // Wrap in-memory bytes as a MultipartFile so they can reuse the upload analysis paths
+        public static MultipartFile inMemoryFile(byte[] bytes, String filename, String contentType) {
+            return new MultipartFile() {
+                @Override
+                public String getName() {
+                    return "file";
+                }
+
+                @Override
+                public String getOriginalFilename() {
+                    return filename;
+                }
+
+                @Override
+                public String getContentType() {
+                    return contentType;
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return bytes.length == 0;
+                }
+
+                @Override
+                public long getSize() {
+                    return bytes.length;
+                }
+
+                @Override
+                public byte[] getBytes() {
+                    return bytes;
+                }
+
+                @Override
+                public java.io.InputStream getInputStream() {
+                    return new java.io.ByteArrayInputStream(bytes);
+                }
+
+                @Override
+                public void transferTo(java.io.File dest) throws java.io.IOException {
+                    java.nio.file.Files.write(dest.toPath(), bytes);
+                }
+            };
+        }
+
         public static boolean isCodeFile(String filename) {
             if (filename == null) {
                 return false;
@@ -170,6 +253,41 @@ public class Utils {
         }
     }
 
+    // Content digest utilities
+    public static class Hashing {
+
+        private Hashing() {}
+
+        public static String sha256Hex(byte[] data) {
+            return HexFormat.of().formatHex(sha256().digest(data));
+        }
+
+        public static String sha256Hex(String text) {
+            return sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Stream the file through the digest so large model files are never held in memory
+        public static String sha256Hex(Path file) throws IOException {
+            MessageDigest digest = sha256();
+            try (InputStream in = java.nio.file.Files.newInputStream(file)) {
+                byte[] buffer = new byte[65536];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+
     // Application-wide constants
     public static class Constants {
 
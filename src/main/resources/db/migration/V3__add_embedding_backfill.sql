@@ -0,0 +1,14 @@
+ALTER TABLE answers ADD COLUMN IF NOT EXISTS image_embeddings_next TEXT;
+
+CREATE TABLE IF NOT EXISTS embedding_backfill_checkpoints (
+    model_version VARCHAR(200) PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    last_question_id UUID,
+    last_answer_id UUID,
+    processed BIGINT NOT NULL DEFAULT 0,
+    skipped BIGINT NOT NULL DEFAULT 0,
+    failed BIGINT NOT NULL DEFAULT 0,
+    promoted_questions BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
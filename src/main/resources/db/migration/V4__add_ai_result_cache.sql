@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS ai_result_cache (
+    digest VARCHAR(64) PRIMARY KEY,
+    question_id UUID NOT NULL,
+    result TEXT NOT NULL,
+    hit_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    last_hit_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ai_result_cache_question_id ON ai_result_cache (question_id);
+CREATE INDEX IF NOT EXISTS idx_ai_result_cache_last_hit_at ON ai_result_cache (last_hit_at);
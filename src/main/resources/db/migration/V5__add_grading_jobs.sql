@@ -0,0 +1,18 @@
+ALTER TABLE answers ADD COLUMN IF NOT EXISTS grading_status VARCHAR(20);
+
+CREATE TABLE IF NOT EXISTS grading_jobs (
+    id UUID PRIMARY KEY,
+    answer_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL,
+    available_at TIMESTAMP NOT NULL,
+    locked_by VARCHAR(200),
+    locked_at TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_grading_jobs_claim ON grading_jobs (status, available_at);
+CREATE INDEX IF NOT EXISTS idx_grading_jobs_answer_id ON grading_jobs (answer_id);
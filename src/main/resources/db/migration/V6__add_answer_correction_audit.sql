@@ -0,0 +1,5 @@
+ALTER TABLE answers ADD COLUMN IF NOT EXISTS correction_method VARCHAR(20);
+ALTER TABLE answers ADD COLUMN IF NOT EXISTS derived_from_answer_id UUID;
+ALTER TABLE answers ADD COLUMN IF NOT EXISTS derived_similarity DOUBLE PRECISION;
+
+CREATE INDEX IF NOT EXISTS idx_answers_derived_from ON answers (derived_from_answer_id);
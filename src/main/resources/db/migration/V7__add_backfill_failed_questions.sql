@@ -0,0 +1 @@
+ALTER TABLE embedding_backfill_checkpoints ADD COLUMN IF NOT EXISTS failed_question_ids TEXT;
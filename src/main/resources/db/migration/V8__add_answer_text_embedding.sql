@@ -0,0 +1 @@
+ALTER TABLE answers ADD COLUMN IF NOT EXISTS text_embedding TEXT;
@@ -0,0 +1,134 @@
+package com.questionbank.QuestionBank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.questionbank.QuestionBank.dto.AiCorrectionDTO;
+import com.questionbank.QuestionBank.entity.Answer;
+import com.questionbank.QuestionBank.entity.Question;
+import com.questionbank.QuestionBank.entity.QuestionType;
+import com.questionbank.QuestionBank.exception.Validation;
+import com.questionbank.QuestionBank.service.ai.AdaptiveConcurrencyLimiter;
+import com.questionbank.QuestionBank.service.ai.AiResultCache;
+import com.questionbank.QuestionBank.service.ai.GradingBatchLoader;
+import com.questionbank.QuestionBank.service.ai.LocalGrader;
+import com.questionbank.QuestionBank.service.ai.MistralCircuitBreaker;
+import com.questionbank.QuestionBank.service.ai.MistralRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Batch correction reports every answer at its own index, whether it was graded, fell back or failed to load
+class AiCorrectionServiceBatchTest {
+
+    private final GradingBatchLoader batchLoader = mock(GradingBatchLoader.class);
+    private final GradingBatchLoader.GradingBatch batch = mock(GradingBatchLoader.GradingBatch.class);
+    private final AiResultCache resultCache = mock(AiResultCache.class);
+    private final MistralCircuitBreaker circuitBreaker = mock(MistralCircuitBreaker.class);
+    private final LocalGrader localGrader = mock(LocalGrader.class);
+
+    private ExecutorService coordinator;
+    private AiCorrectionService service;
+
+    @BeforeEach
+    void setUp() {
+        coordinator = Executors.newSingleThreadExecutor();
+        service = new AiCorrectionService(new ObjectMapper(), batchLoader, mock(MistralRateLimiter.class), resultCache,
+            coordinator, mock(AdaptiveConcurrencyLimiter.class), circuitBreaker, localGrader);
+
+        ReflectionTestUtils.setField(service, "mistralApiUrl", "http://localhost");
+        ReflectionTestUtils.setField(service, "correctionThreshold", 0.7);
+        ReflectionTestUtils.setField(service, "maxTokens", 1000);
+        ReflectionTestUtils.setField(service, "batchMaxInFlight", 2);
+        ReflectionTestUtils.setField(service, "groupingEnabled", true);
+        ReflectionTestUtils.setField(service, "groupMaxAnswers", 8);
+        ReflectionTestUtils.setField(service, "groupResultTokens", 150);
+        ReflectionTestUtils.setField(service, "groupMaxInputTokens", 4000);
+        ReflectionTestUtils.setField(service, "attemptTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(service, "deadlineMs", 2000L);
+        ReflectionTestUtils.setField(service, "maxAttempts", 1);
+        ReflectionTestUtils.setField(service, "retryBackoffMs", 10L);
+        ReflectionTestUtils.setField(service, "retryMaxBackoffMs", 10L);
+
+        when(batchLoader.load(anyCollection())).thenReturn(batch);
+        when(resultCache.isEnabled()).thenReturn(false);
+        // Mistral is refused locally, so essays take the fallback path without any network call
+        when(circuitBreaker.tryAcquire()).thenReturn(false);
+        when(localGrader.getMode()).thenReturn(LocalGrader.Mode.FALLBACK);
+        when(localGrader.grade(any(), any())).thenReturn(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coordinator.shutdownNow();
+    }
+
+    @Test
+    void mixedBatchKeepsEveryResultAtItsIndex() throws Exception {
+        Question mcq = question(QuestionType.MCQ);
+        Question essay = question(QuestionType.ESSAY_SHORT);
+        Answer choice = answer(mcq, "A");
+        Answer firstEssay = answer(essay, "Photosynthesis turns light into chemical energy.");
+        Answer secondEssay = answer(essay, "Plants use sunlight to make glucose.");
+        UUID missingId = UUID.randomUUID();
+
+        register(choice, mcq);
+        register(firstEssay, essay);
+        register(secondEssay, essay);
+        when(batch.getAnswer(missingId)).thenThrow(new Validation.ResourceNotFoundException("Answer", missingId.toString()));
+
+        UUID[] ids = {choice.getId(), firstEssay.getId(), missingId, secondEssay.getId()};
+        AiCorrectionDTO[] responses = service.batchCorrectAnswers(ids).get(10, TimeUnit.SECONDS);
+
+        assertEquals(ids.length, responses.length);
+        for (int i : new int[] {0, 1, 3}) {
+            assertNotNull(responses[i], "missing response at index " + i);
+            assertEquals(ids[i], responses[i].getAnswerId());
+            assertEquals("SUCCESS", responses[i].getStatus());
+            assertEquals("FALLBACK", responses[i].getCorrectionMethod());
+            assertTrue(responses[i].getStrengths().isEmpty());
+            assertTrue(responses[i].getWeaknesses().isEmpty());
+        }
+        assertEquals(missingId, responses[2].getAnswerId());
+        assertEquals("ERROR", responses[2].getStatus());
+    }
+
+    private void register(Answer answer, Question question) {
+        when(batch.getAnswer(answer.getId())).thenReturn(answer);
+        when(batch.getQuestion(answer)).thenReturn(question);
+    }
+
+    private static Question question(QuestionType type) {
+        Question question = new Question();
+        question.setId(UUID.randomUUID());
+        question.setTitle("Question");
+        question.setContent("Explain photosynthesis.");
+        question.setType(type);
+        question.setPoints(10.0);
+        question.setConfigurationData("{}");
+        question.setActive(true);
+        question.setUpdatedAt(LocalDateTime.now());
+        return question;
+    }
+
+    private static Answer answer(Question question, String content) {
+        Answer answer = new Answer();
+        answer.setId(UUID.randomUUID());
+        answer.setQuestionId(question.getId());
+        answer.setContent(content);
+        return answer;
+    }
+}
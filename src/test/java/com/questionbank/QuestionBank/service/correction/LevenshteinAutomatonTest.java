@@ -0,0 +1,98 @@
+package com.questionbank.QuestionBank.service.correction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Fuzzy blank matching accepts typos within the tolerance, caps it on short alternatives and falls back to a
+// banded edit distance once the DFA would grow past MAX_STATES
+class LevenshteinAutomatonTest {
+
+    @Test
+    void acceptsTyposWithinToleranceIgnoringCase() {
+        LevenshteinAutomaton automaton = LevenshteinAutomaton.compile(new String[] {"photosynthesis"}, 2);
+
+        assertTrue(automaton.getStateCount() > 0);
+        assertTrue(automaton.matches("photosynthesys"));
+        assertTrue(automaton.matches("fotosynthesis"));
+        assertTrue(automaton.matches("PhotoSynthesis"));
+        assertFalse(automaton.matches("fotosinthesys"));
+    }
+
+    @Test
+    void matchesAnyAlternative() {
+        LevenshteinAutomaton automaton = LevenshteinAutomaton.compile(new String[] {"mitochondria", "nucleus"}, 2);
+
+        assertTrue(automaton.matches("nucleas"));
+        assertTrue(automaton.matches("mitocondria"));
+        assertFalse(automaton.matches("ribosome"));
+    }
+
+    @Test
+    void shortAlternativesAllowAtMostAThirdOfTheirLength() {
+        LevenshteinAutomaton formula = LevenshteinAutomaton.compile(new String[] {"H2O"}, 3);
+
+        assertEquals(3, formula.getMaxEdits());
+        assertFalse(formula.matches(""));
+        assertFalse(formula.matches("CO2"));
+        assertTrue(formula.matches("h2o"));
+        assertTrue(formula.matches("H2"));
+
+        LevenshteinAutomaton word = LevenshteinAutomaton.compile(new String[] {"cat"}, 3);
+        assertFalse(word.matches("banana"));
+        assertFalse(word.matches("dog"));
+        assertTrue(word.matches("cats"));
+    }
+
+    @Test
+    void fallsBackToBandedDistanceBeyondMaxStates() {
+        LevenshteinAutomaton automaton = LevenshteinAutomaton.compile(new String[] {"thermodynamics", "electromagnetism"}, 4);
+
+        assertEquals(0, automaton.getStateCount());
+        assertTrue(automaton.matches("thermodinamics"));
+        assertTrue(automaton.matches("Electromagnetizm"));
+        assertFalse(automaton.matches("thermometer"));
+        assertFalse(automaton.matches(""));
+    }
+
+    @Test
+    void automatonAgreesWithBandedDistance() {
+        String[] words = {"osmosis", "diffusion"};
+        LevenshteinAutomaton automaton = LevenshteinAutomaton.compile(words, 2);
+        assertTrue(automaton.getStateCount() > 0);
+
+        Random random = new Random(11);
+        for (int trial = 0; trial < 5000; trial++) {
+            String input = mutate(words[random.nextInt(words.length)], random.nextInt(4), random);
+            boolean expected = false;
+            for (String word : words) {
+                expected |= LevenshteinAutomaton.withinDistance(word, input, LevenshteinAutomaton.effectiveEdits(word, 2));
+            }
+            assertEquals(expected, automaton.matches(input), "input " + input);
+        }
+    }
+
+    private static String mutate(String word, int edits, Random random) {
+        StringBuilder mutated = new StringBuilder(word);
+        for (int e = 0; e < edits; e++) {
+            int position = random.nextInt(mutated.length() + 1);
+            char c = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(3)) {
+                case 0:
+                    mutated.insert(position, c);
+                    break;
+                case 1:
+                    if (position < mutated.length()) mutated.deleteCharAt(position);
+                    break;
+                default:
+                    if (position < mutated.length()) mutated.setCharAt(position, c);
+                    break;
+            }
+        }
+        return mutated.toString();
+    }
+}